@@ -0,0 +1,76 @@
+package com.choongang.advanced.app.store;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 동시 append 스레드 수(1, 4, 16, 64)별 주문 로그 처리량을 비교합니다.
+ * 각 append 는 force() 까지 기다리므로, 스레드가 많을수록 그룹 커밋으로 fsync 한 번에 묶이는 주문 수가 늘어납니다.
+ * 반복(iteration)마다 출력하는 orders/force 가 그룹 커밋 한 번의 평균 크기입니다.
+ *
+ * ./gradlew jmh -Pjmh.includes=OrderLogBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+public class OrderLogBenchmark {
+
+    Path directory;
+    OrderLog orderLog;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("order-wal-bench");
+        orderLog = new OrderLog(directory, 64 * 1024 * 1024);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        orderLog.close();
+        System.out.printf(" orders/force=%.1f", (double) orderLog.getAppendCount() / Math.max(1, orderLog.getForceCount()));
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long append_1thread() {
+        return orderLog.append("item").join();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long append_4threads() {
+        return orderLog.append("item").join();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long append_16threads() {
+        return orderLog.append("item").join();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long append_64threads() {
+        return orderLog.append("item").join();
+    }
+}
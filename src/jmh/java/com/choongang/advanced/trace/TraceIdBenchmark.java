@@ -0,0 +1,83 @@
+package com.choongang.advanced.trace;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * new TraceId() 처리량을 스레드 수(1, 4, 최대)별로 비교합니다.
+ * uuid 는 기존 UUID.randomUUID() 방식(공유 SecureRandom)을 재현한 기준값입니다.
+ * createNextId / createPreviousId 는 하위 span 에 들어가고 나올 때마다 만드는 TraceId 의 비용입니다.
+ *
+ * ./gradlew jmh -Pjmh.includes=TraceIdBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TraceIdBenchmark {
+
+    @Param({"uuid", "random", "nodeCounter"})
+    String generator;
+
+    TraceIdGenerator idGenerator;
+    TraceId rootId;
+
+    @Setup
+    public void setUp() {
+        switch (generator) {
+            case "uuid" -> idGenerator = () -> UUID.randomUUID().getMostSignificantBits();
+            case "random" -> idGenerator = new RandomTraceIdGenerator();
+            case "nodeCounter" -> idGenerator = new NodeCounterTraceIdGenerator(1);
+            default -> throw new IllegalArgumentException(generator);
+        }
+        rootId = new TraceId(idGenerator);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TraceId newTraceId_1thread() {
+        return new TraceId(idGenerator);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public TraceId newTraceId_4threads() {
+        return new TraceId(idGenerator);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public TraceId newTraceId_maxThreads() {
+        return new TraceId(idGenerator);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public TraceId nextAndPreviousId_1thread() {
+        return rootId.createNextId().createPreviousId();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public TraceId nextAndPreviousId_maxThreads() {
+        return rootId.createNextId().createPreviousId();
+    }
+
+    /**
+     * 기존 구현: UUID 문자열을 만든 뒤 앞 8자리만 잘라 사용
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String legacyUuidSubstring_maxThreads() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,76 @@
+package com.choongang.advanced.trace;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 기존 addSpace + slf4j 포맷팅 경로와 TraceLineEncoder 를 비교합니다.
+ * legacy 는 slf4j 가 INFO 활성화 상태에서 하는 일(varargs 배열, long boxing, 메시지 포맷팅)을 그대로 재현합니다.
+ *
+ * _maxThreads 는 모든 코어에서 동시에 포맷팅할 때(스레드별 재사용 버퍼 포함)의 비용입니다.
+ *
+ * ./gradlew jmh -Pjmh.includes=TraceLineEncoderBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TraceLineEncoderBenchmark {
+
+    @Param({"0", "2", "5"})
+    int level;
+
+    TraceId traceId = new TraceId();
+    String message = "OrderRepositoryV5.save()";
+    long resultTimeUs = 1_002_345L;
+
+    @Benchmark
+    public String legacyComplete() {
+        return MessageFormatter.arrayFormat("[{}] {}{} time={}us",
+                new Object[]{traceId, addSpace("<--", level), message, resultTimeUs}).getMessage();
+    }
+
+    /**
+     * 로그 출력까지 고려해 String 하나를 만드는 경우
+     */
+    @Benchmark
+    public String encoderComplete() {
+        return TraceLineEncoder.encodeComplete(traceId.getIdValue(), level, message, resultTimeUs, null).toString();
+    }
+
+    /**
+     * 재사용 버퍼에 쓰기만 하는 경우 (바이트/채널 출력 등 String 이 필요 없는 출력)
+     */
+    @Benchmark
+    public int encoderCompleteNoString() {
+        return TraceLineEncoder.encodeComplete(traceId.getIdValue(), level, message, resultTimeUs, null).length();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String legacyComplete_maxThreads() {
+        return legacyComplete();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String encoderComplete_maxThreads() {
+        return encoderComplete();
+    }
+
+    private static String addSpace(String prefix, int level) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < level; i++) {
+            sb.append(i == level - 1 ? "|" + prefix : "|   ");
+        }
+        return sb.toString();
+    }
+}
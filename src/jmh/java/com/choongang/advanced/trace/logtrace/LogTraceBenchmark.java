@@ -0,0 +1,179 @@
+package com.choongang.advanced.trace.logtrace;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.hellotrace.HelloTraceV2;
+import com.choongang.advanced.trace.sink.LogTraceSink;
+import com.choongang.advanced.trace.usage.UsageTraceSink;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * controller -> service -> repository 3단계 span 한 번의 비용을 추적 방식별로 비교합니다.
+ *
+ * helloTraceV2      : V2 처럼 TraceId 를 파라미터로 직접 넘김
+ * field             : FieldLogTrace (V3). 싱글톤으로 공유하면 동시 요청에서 TraceId 가 섞이므로 스레드마다 인스턴스를 둠
+ * threadLocal       : ThreadLocalLogTrace (V3 이후 기본), begin/end 마다 TraceId, TraceStatus 생성
+ * threadLocalReuse  : ThreadLocalLogTrace 재사용 모드, 스레드별 TraceContext 재사용
+ * switchable        : SwitchableLogTrace 를 거친 ThreadLocalLogTrace (위임 비용 = volatile 읽기 한 번, 추가 할당 없음)
+ * switchableReuse   : SwitchableLogTrace 를 거친 재사용 모드. -prof gc 의 gc.alloc.rate.norm 이 threadLocalReuse 와 같아야 합니다.
+ *                     (같은 조건을 SwitchableLogTraceTest.delegation_allocatesNothingPerSpan 이 확인)
+ * switchableNoop    : SwitchableLogTrace 의 noop 모드
+ * threadLocalUsage  : threadLocal + UsageTraceSink (trace.usage.enabled=true). span 마다 스레드 CPU 시간 / 할당 바이트를 begin, end 에서 읽음
+ *
+ * threadLocalUsage 의 추가 비용은 span 하나당 ThreadMXBean 호출 4번(CPU 2, 할당 2)과 SpanUsage 하나입니다.
+ * 3단계 span 기준 threadLocal 약 590ns -> threadLocalUsage 약 4.0us (span 하나당 약 1.1us, 대부분 CPU 시간 읽기).
+ * 측정 환경: 1 vCPU (Intel Xeon) 리눅스 6.18, JDK 21.0.1 (Temurin) --enable-preview, JMH 1.37, 오차(99.9%) ±240ns / ±480ns
+ *   java --enable-preview -jar build/libs/*-jmh.jar 'LogTraceBenchmark.threadLocal(Usage)?_1thread' -f 1 -wi 3 -w 2s -i 5 -r 2s -jvmArgsAppend --enable-preview
+ * 요청 하나가 수 ms 인 엔드포인트에는 무시할 만하지만 μs 단위 span 이 많은 경로에서는 켜 두지 않는 것이 좋습니다.
+ *
+ * 로그 출력 비용을 빼고 추적 자체의 비용만 보기 위해 src/jmh/resources/logback.xml 에서 trace 패키지 로그를 끕니다.
+ * 각 방식을 1 스레드와 최대 스레드(공유 인스턴스 경합)로 실행합니다.
+ *
+ * ./gradlew jmh -Pjmh.includes=LogTraceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LogTraceBenchmark {
+
+    HelloTraceV2 helloTrace = new HelloTraceV2();
+    LogTrace threadLocalTrace = new ThreadLocalLogTrace();
+    LogTrace threadLocalReuseTrace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), true);
+    LogTrace switchableTrace = new SwitchableLogTrace(Map.of("threadLocal", new ThreadLocalLogTrace()), "threadLocal", 10, TimeUnit.SECONDS);
+    LogTrace switchableReuseTrace = new SwitchableLogTrace(Map.of("threadLocalReuse", new ThreadLocalLogTrace(new RandomTraceIdGenerator(), true)), "threadLocalReuse", 10, TimeUnit.SECONDS);
+    LogTrace switchableNoopTrace = new SwitchableLogTrace(Map.of("noop", new NoopLogTrace()), "noop", 10, TimeUnit.SECONDS);
+    LogTrace threadLocalUsageTrace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), new UsageTraceSink(new LogTraceSink()), false);
+
+    @State(Scope.Thread)
+    public static class PerThread {
+        LogTrace fieldTrace = new FieldLogTrace();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int helloTraceV2_1thread() {
+        return explicit();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int helloTraceV2_maxThreads() {
+        return explicit();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int field_1thread(PerThread state) {
+        return nested(state.fieldTrace);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int field_maxThreads(PerThread state) {
+        return nested(state.fieldTrace);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int threadLocal_1thread() {
+        return nested(threadLocalTrace);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int threadLocal_maxThreads() {
+        return nested(threadLocalTrace);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int threadLocalReuse_1thread() {
+        return nested(threadLocalReuseTrace);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int threadLocalReuse_maxThreads() {
+        return nested(threadLocalReuseTrace);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int switchable_1thread() {
+        return nested(switchableTrace);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int switchable_maxThreads() {
+        return nested(switchableTrace);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int switchableReuse_1thread() {
+        return nested(switchableReuseTrace);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int switchableReuse_maxThreads() {
+        return nested(switchableReuseTrace);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int switchableNoop_1thread() {
+        return nested(switchableNoopTrace);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int switchableNoop_maxThreads() {
+        return nested(switchableNoopTrace);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int threadLocalUsage_1thread() {
+        return nested(threadLocalUsageTrace);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int threadLocalUsage_maxThreads() {
+        return nested(threadLocalUsageTrace);
+    }
+
+    private int explicit() {
+        TraceStatus controller = helloTrace.begin("OrderControllerV2.request()");
+        TraceStatus service = helloTrace.beginSync(controller.getTraceId(), "OrderServiceV2.orderItem()");
+        TraceStatus repository = helloTrace.beginSync(service.getTraceId(), "OrderRepositoryV2.save()");
+        int level = repository.getTraceId().getLevel();
+        helloTrace.end(repository);
+        helloTrace.end(service);
+        helloTrace.end(controller);
+        return level;
+    }
+
+    private static int nested(LogTrace trace) {
+        TraceStatus controller = trace.begin("OrderControllerV3.request()");
+        TraceStatus service = trace.begin("OrderServiceV3.orderItem()");
+        TraceStatus repository = trace.begin("OrderRepositoryV3.save()");
+        int level = repository.getTraceId().getLevel();
+        trace.end(repository);
+        trace.end(service);
+        trace.end(controller);
+        return level;
+    }
+}
@@ -0,0 +1,134 @@
+package com.choongang.advanced.trace.logtrace;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.sink.TraceSink;
+import com.choongang.advanced.trace.templatecallback.TraceTemplate;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 가상 스레드 100k 개가 동시에 3단계 span 을 열고 있는 상황에서 ThreadLocalLogTrace 와 ScopedLogTrace 를 비교합니다.
+ * 모든 가상 스레드가 가장 안쪽 span 에 들어온 뒤에야 풀어 주므로, 측정 구간에는 virtualThreads 개의 추적 컨텍스트가 동시에 살아 있습니다.
+ *
+ * concurrentTraces : 전체 시간 (시작 ~ 모두 종료). -prof gc 의 gc.alloc.rate.norm 은 op 당 할당량(할당 속도)이지 메모리 사용량이 아닙니다.
+ * liveHeap         : 모든 가상 스레드가 가장 안쪽 span 에서 멈춰 있는 동안 GC 후 사용 중인 힙(used heap)을 재고,
+ *                    시작 전 GC 후 힙과의 차이를 가상 스레드 수로 나눈 liveBytesPerThread 를 보조 결과로 냅니다. (이 벤치마크의 시간은 GC 를 포함하므로 보지 않음)
+ * threadLocal 은 가상 스레드마다 ThreadLocalMap 엔트리를 만들고, scoped 는 ScopedValue 바인딩만 씁니다. 가상 스레드 자체의 스택도 포함된 값이므로 두 구현의 차이로 비교합니다.
+ *
+ * 1 vCPU 리눅스, JDK 21.0.1 (--enable-preview, 기본 G1) 에서 잰 liveBytesPerThread: threadLocal 1794 B, scoped 1970 B.
+ * scoped 는 ThreadLocalMap 을 만들지 않는 대신 ScopedValue 바인딩과 콜백 람다가 멈춰 있는 스택에 남아 span 이 열린 동안에는 오히려 약간 큽니다.
+ * 차이는 스코프 밖에서 아무것도 남지 않는다는 점(remove 누락이 없음)입니다.
+ *
+ * ./gradlew jmh -Pjmh.includes=VirtualThreadTraceBenchmark
+ * (jar 로 직접: java --enable-preview -jar build/libs/*-jmh.jar VirtualThreadTraceBenchmark.liveHeap -jvmArgsAppend --enable-preview)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class VirtualThreadTraceBenchmark {
+
+    @Param({"threadLocal", "scoped"})
+    String impl;
+
+    @Param({"100000"})
+    int virtualThreads;
+
+    TraceTemplate template;
+
+    @Setup
+    public void setUp() {
+        TraceSink noopSink = new TraceSink() {
+            @Override
+            public void begin(TraceStatus status) {
+            }
+
+            @Override
+            public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+            }
+        };
+        LogTrace trace = switch (impl) {
+            case "threadLocal" -> new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), noopSink, false);
+            case "scoped" -> new ScopedLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), noopSink);
+            default -> throw new IllegalArgumentException(impl);
+        };
+        template = new TraceTemplate(trace);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class LiveHeap {
+        public long liveBytesPerThread;
+    }
+
+    @Benchmark
+    public void concurrentTraces() throws InterruptedException {
+        runParked(() -> {
+        });
+    }
+
+    @Benchmark
+    @Measurement(iterations = 1) // 보조 결과(EVENTS)는 iteration 합계로 집계되므로 한 번만 측정. GC 후 값이라 매번 거의 같음
+    public void liveHeap(LiveHeap heap) throws InterruptedException {
+        long baseline = usedHeapAfterGc();
+        runParked(() -> heap.liveBytesPerThread = (usedHeapAfterGc() - baseline) / virtualThreads);
+    }
+
+    /**
+     * virtualThreads 개의 가상 스레드가 모두 가장 안쪽 span 에 들어오면 whileParked 를 실행한 뒤 풀어 줍니다.
+     */
+    private void runParked(Runnable whileParked) throws InterruptedException {
+        CountDownLatch entered = new CountDownLatch(virtualThreads);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) { // close() 가 모든 작업이 끝날 때까지 기다림
+            for (int i = 0; i < virtualThreads; i++) {
+                executor.execute(() -> template.execute("controller", () ->
+                        template.execute("service", () ->
+                                template.execute("repository", () -> {
+                                    entered.countDown();
+                                    awaitUninterruptibly(release);
+                                    return null;
+                                }))));
+            }
+            entered.await();
+            whileParked.run();
+            release.countDown();
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
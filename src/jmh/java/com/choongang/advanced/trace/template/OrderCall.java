@@ -0,0 +1,17 @@
+package com.choongang.advanced.trace.template;
+
+import com.choongang.advanced.trace.annotation.Traced;
+
+/**
+ * TemplateBenchmark 에서 사용하는 @Traced 대상. 컴파일할 때 TracedOrderCall 이 생성됩니다.
+ */
+public class OrderCall {
+
+    @Traced("OrderControllerV7.request()")
+    public String order(String itemId) {
+        if (itemId.equals("ex")) {
+            throw new IllegalStateException("예외 발생!");
+        }
+        return "ok";
+    }
+}
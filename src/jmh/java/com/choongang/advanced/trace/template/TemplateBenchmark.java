@@ -0,0 +1,154 @@
+package com.choongang.advanced.trace.template;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.logtrace.LogTrace;
+import com.choongang.advanced.trace.logtrace.ThreadLocalLogTrace;
+import com.choongang.advanced.trace.sink.TraceSink;
+import com.choongang.advanced.trace.templatecallback.TraceCallback;
+import com.choongang.advanced.trace.templatecallback.TraceTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 span 하나를 여는 방식별 비용을 비교합니다.
+ *
+ * direct               : V3 처럼 try/catch 로 begin/end 직접 호출 (기준값)
+ * abstractTemplate     : V4 처럼 호출마다 AbstractTemplate 익명 클래스를 생성
+ * callbackAnonymous    : V5 TraceTemplate 에 호출마다 TraceCallback 익명 클래스를 생성
+ * callbackLambda       : V5 TraceTemplate 에 itemId 를 캡처하는 람다 전달
+ * generated            : V7 처럼 @Traced 로 컴파일 시점에 생성한 하위 클래스 (TracedOrderCall)
+ *
+ * 템플릿 자체의 비용만 보도록 출력하지 않는 sink 를 사용합니다. 호출당 할당량은 gc.alloc.rate.norm 으로 비교합니다.
+ *
+ * ./gradlew jmh -Pjmh.includes=TemplateBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TemplateBenchmark {
+
+    LogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), new TraceSink() {
+        @Override
+        public void begin(TraceStatus status) {
+        }
+
+        @Override
+        public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+        }
+    }, false);
+    TraceTemplate traceTemplate = new TraceTemplate(trace);
+    OrderCall generated = new TracedOrderCall(trace);
+    String itemId = "itemA";
+
+    @Benchmark
+    @Threads(1)
+    public String direct_1thread() {
+        return direct(itemId);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String direct_maxThreads() {
+        return direct(itemId);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String abstractTemplate_1thread() {
+        return abstractTemplate(itemId);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String abstractTemplate_maxThreads() {
+        return abstractTemplate(itemId);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String callbackAnonymous_1thread() {
+        return callbackAnonymous(itemId);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String callbackAnonymous_maxThreads() {
+        return callbackAnonymous(itemId);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String callbackLambda_1thread() {
+        return callbackLambda(itemId);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String callbackLambda_maxThreads() {
+        return callbackLambda(itemId);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String generated_1thread() {
+        return generated.order(itemId);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String generated_maxThreads() {
+        return generated.order(itemId);
+    }
+
+    private String direct(String itemId) {
+        TraceStatus status = null;
+        try {
+            status = trace.begin("OrderControllerV3.request()");
+            String result = order(itemId);
+            trace.end(status);
+            return result;
+        } catch (Exception e) {
+            trace.exception(status, e);
+            throw e;
+        }
+    }
+
+    private String abstractTemplate(String itemId) {
+        AbstractTemplate<String> template = new AbstractTemplate<>(trace) {
+            @Override
+            protected String call() {
+                return order(itemId);
+            }
+        };
+        return template.execute("OrderControllerV4.request()");
+    }
+
+    private String callbackAnonymous(String itemId) {
+        return traceTemplate.execute("OrderControllerV5.request()", new TraceCallback<>() {
+            @Override
+            public String call() {
+                return order(itemId);
+            }
+        });
+    }
+
+    private String callbackLambda(String itemId) {
+        return traceTemplate.execute("OrderControllerV5.request()", () -> order(itemId));
+    }
+
+    private static String order(String itemId) {
+        if (itemId.equals("ex")) {
+            throw new IllegalStateException("예외 발생!");
+        }
+        return "ok";
+    }
+}
@@ -1,17 +1,218 @@
 package com.choongang.advanced;
 
-import com.choongang.advanced.trace.logtrace.FieldLogTrace;
+import com.choongang.advanced.trace.CoarseTraceClock;
+import com.choongang.advanced.trace.NodeCounterTraceIdGenerator;
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceClock;
+import com.choongang.advanced.trace.TraceIdGenerator;
+import com.choongang.advanced.trace.inflight.InFlightRegistry;
+import com.choongang.advanced.trace.inflight.InFlightTraceSink;
+import com.choongang.advanced.trace.inflight.StackSampler;
 import com.choongang.advanced.trace.logtrace.LogTrace;
+import com.choongang.advanced.trace.logtrace.NoopLogTrace;
+import com.choongang.advanced.trace.logtrace.SamplingLogTrace;
+import com.choongang.advanced.trace.logtrace.ScopedLogTrace;
+import com.choongang.advanced.trace.logtrace.SwitchableLogTrace;
 import com.choongang.advanced.trace.logtrace.ThreadLocalLogTrace;
+import com.choongang.advanced.trace.metrics.MetricsTraceSink;
+import com.choongang.advanced.trace.metrics.SpanMetricsRegistry;
+import com.choongang.advanced.trace.sampling.ProbabilitySampler;
+import com.choongang.advanced.trace.sampling.RateLimitingSampler;
+import com.choongang.advanced.trace.sampling.TraceSampler;
+import com.choongang.advanced.trace.sink.AsyncTraceSink;
+import com.choongang.advanced.trace.sink.BackpressurePolicy;
+import com.choongang.advanced.trace.sink.LogTraceSink;
+import com.choongang.advanced.trace.sink.TailSamplingTraceSink;
+import com.choongang.advanced.trace.sink.TraceSink;
+import com.choongang.advanced.trace.sink.binary.BinaryTraceSink;
+import com.choongang.advanced.trace.usage.UsageTraceSink;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class LogTraceConfig {
 
+     /**
+      * 실행 중에 /trace/mode 로 바꿀 수 있는 추적 구현 (SwitchableLogTrace)
+      *
+      * threadLocal : ThreadLocalLogTrace + trace.sink 출력
+      * sampled     : 헤드 기반 샘플링. trace.sampling.per-second > 0 이면 초당 최대 N개, 아니면 trace.sampling.probability 확률
+      *               (둘 다 기본값이면 10%)
+      * async       : ThreadLocalLogTrace + 링 버퍼 비동기 출력 (trace.sink=async 이면 traceSink, 아니면 asyncModeTraceSink)
+      * scoped      : ScopedLogTrace + trace.sink 출력. 컨텍스트를 ThreadLocal 대신 ScopedValue 에 묶음 (가상 스레드용)
+      * noop        : 아무것도 하지 않음
+      *
+      * 시작 모드는 trace.mode, 없으면 샘플링 설정이 있을 때 sampled, 아니면 threadLocal 입니다.
+      * 전환 뒤 trace.mode.drain-seconds 동안은 진행 중인 트랜잭션을 시작한 구현으로 끝냅니다.
+      * 모든 모드는 같은 시계(traceClock)와 ID 생성기(traceIdGenerator)를 사용합니다.
+      * trace.context.reuse=true 이면 ThreadLocalLogTrace 가 스레드별 TraceContext 를 재사용해 span 마다 TraceId / TraceStatus 를 만들지 않습니다.
+      */
+     @Bean
+     public SwitchableLogTrace logTrace(@Qualifier("traceSink") TraceSink traceSink,
+                                        TraceClock traceClock,
+                                        TraceIdGenerator traceIdGenerator,
+                                        @Value("${trace.context.reuse:false}") boolean reuseContext,
+                                        AsyncTraceSink asyncModeTraceSink,
+                                        @Value("${trace.sink:log}") String sink,
+                                        SpanMetricsRegistry spanMetricsRegistry,
+                                        @Value("${trace.metrics.enabled:true}") boolean metricsEnabled,
+                                        InFlightRegistry inFlightRegistry,
+                                        @Value("${trace.inflight.enabled:true}") boolean inFlightEnabled,
+                                        @Value("${trace.usage.enabled:false}") boolean usageEnabled,
+                                        @Value("${trace.sampling.probability:1.0}") double probability,
+                                        @Value("${trace.sampling.per-second:0}") int perSecond,
+                                        @Value("${trace.mode:}") String mode,
+                                        @Value("${trace.mode.drain-seconds:10}") long drainSeconds) {
+         boolean samplingConfigured = perSecond > 0 || probability < 1.0;
+         TraceSampler sampler = perSecond > 0 ? new RateLimitingSampler(perSecond) : new ProbabilitySampler(probability < 1.0 ? probability : 0.1);
+         TraceSink asyncSink = "async".equals(sink) ? traceSink : observe(asyncModeTraceSink, metricsEnabled ? spanMetricsRegistry : null, inFlightEnabled ? inFlightRegistry : null, usageEnabled);
+
+         Map<String, LogTrace> modes = new LinkedHashMap<>();
+         modes.put("threadLocal", new ThreadLocalLogTrace(traceIdGenerator, traceClock, traceSink, reuseContext));
+         modes.put("sampled", new SamplingLogTrace(new ThreadLocalLogTrace(traceIdGenerator, traceClock, traceSink, reuseContext), sampler));
+         modes.put("async", new ThreadLocalLogTrace(traceIdGenerator, traceClock, asyncSink, reuseContext));
+         modes.put("scoped", new ScopedLogTrace(traceIdGenerator, traceClock, traceSink));
+         modes.put("noop", new NoopLogTrace());
+
+         String initialMode = !mode.isEmpty() ? mode : samplingConfigured ? "sampled" : "threadLocal";
+         return new SwitchableLogTrace(modes, initialMode, drainSeconds, TimeUnit.SECONDS);
+     }
+
+     /**
+      * trace.id.generator=random : ThreadLocalRandom 64비트 ID (기본)
+      * trace.id.generator=node   : 상위 16비트 trace.id.node-id + 하위 48비트 카운터. 서버마다 node-id 를 다르게 주면 서버 사이에서도 충돌하지 않음
+      */
+     @Bean
+     public TraceIdGenerator traceIdGenerator(@Value("${trace.id.generator:random}") String generator,
+                                              @Value("${trace.id.node-id:0}") int nodeId) {
+         if ("node".equals(generator)) {
+             return new NodeCounterTraceIdGenerator(nodeId);
+         }
+         return new RandomTraceIdGenerator();
+     }
+
+     /**
+      * trace.clock=system : 매번 System.nanoTime() (기본, 정밀)
+      * trace.clock=coarse : trace.clock.tick-ms 마다 갱신하는 CoarseTraceClock. 읽기 비용이 작지만 tick 보다 짧은 span 은 0 으로 측정될 수 있음
+      *                      (종료 시 close() 자동 호출로 tick 스레드 종료)
+      */
+     @Bean
+     public TraceClock traceClock(@Value("${trace.clock:system}") String clock,
+                                  @Value("${trace.clock.tick-ms:1}") long tickMs) {
+         if ("coarse".equals(clock)) {
+             return new CoarseTraceClock(tickMs, TimeUnit.MILLISECONDS);
+         }
+         return new SystemTraceClock();
+     }
+
+     /**
+      * 비동기 출력. trace.sink=async 이면 traceSink 가 같은 인스턴스를 씁니다.
+      * 소비 스레드는 처음 기록될 때 시작하므로 async 모드를 쓰지 않으면 스레드를 만들지 않습니다. (종료 시 close() 자동 호출)
+      */
+     @Bean
+     public AsyncTraceSink asyncModeTraceSink(@Value("${trace.async.buffer-size:8192}") int bufferSize,
+                                              @Value("${trace.async.policy:DROP}") BackpressurePolicy policy) {
+         return new AsyncTraceSink(bufferSize, policy);
+     }
+
+     /**
+      * trace.sink=log   : 요청 스레드에서 바로 로그 출력 (기본)
+      * trace.sink=async : 링 버퍼에 넣고 전용 스레드에서 출력 (AsyncTraceSink, 종료 시 close() 자동 호출)
+      * trace.sink=binary : 메모리 매핑 세그먼트 파일에 바이너리 레코드로 기록 (TraceLogDecoder 로 복원)
+      *
+      * trace.tail.enabled=true 이면 위 출력 앞에 TailSamplingTraceSink 를 두어 느리거나 실패한 트랜잭션만 출력합니다.
+      * trace.metrics.enabled=true 이면 그 바깥에 MetricsTraceSink 를 두어 모든 span 의 지연 시간을 집계합니다. (/trace/metrics)
+      * trace.inflight.enabled=true 이면 그 바깥에 InFlightTraceSink 를 두어 진행 중인 span 을 모읍니다. (/trace/inflight)
+      * trace.usage.enabled=true 이면 가장 바깥에 UsageTraceSink 를 두어 span 별 CPU 시간 / 할당 바이트를 출력과 통계에 더합니다.
+      */
+     @Bean
+     public TraceSink traceSink(@Value("${trace.sink:log}") String sink,
+                                AsyncTraceSink asyncModeTraceSink,
+                                @Value("${trace.binary.directory:trace-segments}") String binaryDirectory,
+                                @Value("${trace.binary.segment-size:67108864}") int segmentSize,
+                                @Value("${trace.binary.max-segments:16}") int maxSegments,
+                                @Value("${trace.tail.enabled:false}") boolean tailEnabled,
+                                @Value("${trace.tail.slow-threshold-ms:500}") long slowThresholdMs,
+                                @Value("${trace.tail.sample-rate:0.01}") double tailSampleRate,
+                                @Value("${trace.tail.buffer-size:256}") int tailBufferSize,
+                                @Value("${trace.tail.max-pending-traces:4096}") int tailMaxPendingTraces,
+                                @Value("${trace.tail.max-pending-age-ms:60000}") long tailMaxPendingAgeMs,
+                                @Value("${trace.metrics.enabled:true}") boolean metricsEnabled,
+                                SpanMetricsRegistry spanMetricsRegistry,
+                                @Value("${trace.inflight.enabled:true}") boolean inFlightEnabled,
+                                InFlightRegistry inFlightRegistry,
+                                @Value("${trace.usage.enabled:false}") boolean usageEnabled) throws IOException {
+         TraceSink traceSink;
+         if ("async".equals(sink)) {
+             traceSink = asyncModeTraceSink;
+         } else if ("binary".equals(sink)) {
+             traceSink = new BinaryTraceSink(Paths.get(binaryDirectory), segmentSize, maxSegments);
+         } else {
+             traceSink = new LogTraceSink();
+         }
+
+         if (tailEnabled) {
+             traceSink = new TailSamplingTraceSink(traceSink, TimeUnit.MILLISECONDS.toNanos(slowThresholdMs), tailSampleRate, tailBufferSize,
+                     tailMaxPendingTraces, TimeUnit.MILLISECONDS.toNanos(tailMaxPendingAgeMs));
+         }
+         return observe(traceSink, metricsEnabled ? spanMetricsRegistry : null, inFlightEnabled ? inFlightRegistry : null, usageEnabled);
+     }
+
+     /**
+      * 출력 앞에 지연 시간 집계(MetricsTraceSink), 진행 중 span 등록(InFlightTraceSink), CPU / 할당 측정(UsageTraceSink)을 씌웁니다. null 이면 생략
+      */
+     private static TraceSink observe(TraceSink traceSink, SpanMetricsRegistry spanMetricsRegistry, InFlightRegistry inFlightRegistry, boolean usageEnabled) {
+         if (spanMetricsRegistry != null) {
+             traceSink = new MetricsTraceSink(traceSink, spanMetricsRegistry);
+         }
+         if (inFlightRegistry != null) {
+             traceSink = new InFlightTraceSink(traceSink, inFlightRegistry);
+         }
+         if (usageEnabled) {
+             traceSink = new UsageTraceSink(traceSink);
+         }
+         return traceSink;
+     }
+
+     /**
+      * span 별 지연 시간 히스토그램. trace.metrics.window-seconds 마다 롤링 윈도우를 교체합니다.
+      */
+     @Bean
+     public SpanMetricsRegistry spanMetricsRegistry(@Value("${trace.metrics.window-seconds:60}") long windowSeconds) {
+         return new SpanMetricsRegistry(windowSeconds, TimeUnit.SECONDS);
+     }
+
+     /**
+      * 진행 중인 span 목록. trace.inflight.stuck-threshold-ms 넘게 열린 span 을 감시 스레드가 경고합니다.
+      */
+     @Bean
+     public InFlightRegistry inFlightRegistry(@Value("${trace.inflight.capacity:4096}") int capacity,
+                                              @Value("${trace.inflight.stuck-threshold-ms:5000}") long stuckThresholdMs,
+                                              @Value("${trace.inflight.check-interval-ms:1000}") long checkIntervalMs) {
+         return new InFlightRegistry(capacity, stuckThresholdMs, checkIntervalMs, TimeUnit.MILLISECONDS);
+     }
+
+     /**
+      * 예산을 넘긴 span 의 스택 샘플링. 데몬 스레드 하나를 모든 요청이 공유합니다.
+      */
      @Bean
-     public LogTrace logTrace() {
-         //return new FieldLogTrace();
-            return new ThreadLocalLogTrace();
+     @ConditionalOnProperty(name = "trace.profile.enabled", havingValue = "true", matchIfMissing = true)
+     public StackSampler stackSampler(InFlightRegistry inFlightRegistry,
+                                      @Value("${trace.profile.budget-ms:3000}") long budgetMs,
+                                      @Value("${trace.profile.budgets:}") String budgets,
+                                      @Value("${trace.profile.interval-ms:50}") long intervalMs,
+                                      @Value("${trace.profile.max-depth:12}") int maxDepth,
+                                      @Value("${trace.profile.max-stacks:16}") int maxStacks) {
+         return new StackSampler(inFlightRegistry, budgetMs, StackSampler.parseBudgets(budgets), intervalMs, TimeUnit.MILLISECONDS, maxDepth, maxStacks);
      }
 }
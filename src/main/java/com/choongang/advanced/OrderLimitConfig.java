@@ -0,0 +1,33 @@
+package com.choongang.advanced;
+
+import com.choongang.advanced.app.limit.AdaptiveConcurrencyLimiter;
+import com.choongang.advanced.app.limit.ConcurrencyLimitFilter;
+import com.choongang.advanced.trace.logtrace.LogTrace;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnProperty(name = "order.limit.enabled", havingValue = "true")
+public class OrderLimitConfig {
+
+     @Bean
+     public AdaptiveConcurrencyLimiter concurrencyLimiter(@Value("${order.limit.initial:20}") int initialLimit,
+                                                          @Value("${order.limit.min:5}") int minLimit,
+                                                          @Value("${order.limit.max:200}") int maxLimit) {
+         return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit);
+     }
+
+     /**
+      * 주문 컨트롤러(/v0 ~ /v6) 요청에만 동시 처리 한도를 적용합니다. (/trace/metrics, /limit 등 조회용 경로는 제외)
+      */
+     @Bean
+     public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, LogTrace trace) {
+         FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(new ConcurrencyLimitFilter(limiter, trace));
+         registration.addUrlPatterns("/v0/*", "/v1/*", "/v2/*", "/v3/*", "/v4/*", "/v5/*", "/v6/*");
+         registration.setOrder(0);
+         return registration;
+     }
+}
@@ -0,0 +1,24 @@
+package com.choongang.advanced;
+
+import com.choongang.advanced.app.store.OrderLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+public class OrderStoreConfig {
+
+     /**
+      * order.wal.enabled=true 이면 V6 저장소가 1초 대기 대신 로컬 주문 로그(WAL)에 기록합니다. (종료 시 close() 자동 호출)
+      */
+     @Bean
+     @ConditionalOnProperty(name = "order.wal.enabled", havingValue = "true")
+     public OrderLog orderLog(@Value("${order.wal.directory:order-wal}") String directory,
+                              @Value("${order.wal.segment-size:67108864}") int segmentSize) throws IOException {
+         return new OrderLog(Paths.get(directory), segmentSize);
+     }
+}
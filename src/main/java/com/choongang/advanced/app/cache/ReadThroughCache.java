@@ -0,0 +1,170 @@
+package com.choongang.advanced.app.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * 크기 제한, TTL, LRU 방식 제거를 지원하는 비동기 read-through 캐시입니다.
+ *
+ * 값 대신 로딩 future 를 저장하므로, 같은 키를 동시에 요청해도 loader 는 한 번만 호출되고 나머지 요청은 그 future 를 함께 기다립니다.
+ * 로딩이 실패하면 저장하지 않아 다음 요청이 다시 로드합니다.
+ *
+ * 조회는 ConcurrentHashMap 에서 락 없이 읽습니다. LRU 순서는 별도의 access-order LinkedHashMap 에 두고,
+ * 조회 시에는 tryLock 에 성공할 때만 순서를 갱신합니다. (경합이 심할 때는 순서 갱신을 건너뛰는 근사 LRU)
+ * 새 항목을 넣을 때는 락을 잡고 maxSize 를 넘는 만큼 가장 오래 사용하지 않은 항목부터 제거합니다.
+ */
+public class ReadThroughCache<K, V> {
+
+    private final Function<K, CompletableFuture<V>> loader;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier ticker;
+
+    private final ConcurrentHashMap<K, Node<V>> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock lruLock = new ReentrantLock();
+    private final LinkedHashMap<K, Node<V>> lru = new LinkedHashMap<>(16, 0.75f, true); // lruLock 으로 보호
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+
+    public ReadThroughCache(Function<K, CompletableFuture<V>> loader, int maxSize, long ttlNanos) {
+        this(loader, maxSize, ttlNanos, System::nanoTime);
+    }
+
+    public ReadThroughCache(Function<K, CompletableFuture<V>> loader, int maxSize, long ttlNanos, LongSupplier ticker) {
+        this.loader = loader;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+        this.ticker = ticker;
+    }
+
+    public CompletableFuture<V> get(K key) {
+        Node<V> node = entries.get(key);
+        if (node != null && !node.isExpired(ticker.getAsLong())) {
+            hitCount.increment();
+            touch(key);
+            return node.value;
+        }
+        return load(key, node);
+    }
+
+    private CompletableFuture<V> load(K key, Node<V> expired) {
+        Node<V> candidate = new Node<>();
+        Node<V> node = entries.compute(key, (k, existing) ->
+                existing != null && existing != expired && !existing.isExpired(ticker.getAsLong()) ? existing : candidate);
+        if (node != candidate) {
+            hitCount.increment(); // 다른 스레드가 먼저 로딩을 시작함
+            touch(key);
+            return node.value;
+        }
+
+        missCount.increment();
+        if (expired != null) {
+            expirationCount.increment();
+        }
+        insert(key, candidate);
+
+        CompletableFuture<V> loading;
+        try {
+            loading = loader.apply(key); // compute 밖에서 호출하므로 같은 bin 의 다른 키를 막지 않음
+        } catch (RuntimeException e) {
+            loading = CompletableFuture.failedFuture(e);
+        }
+        loading.whenComplete((value, e) -> {
+            if (e != null) {
+                remove(key, candidate); // 실패한 로딩은 캐시하지 않음
+                candidate.value.completeExceptionally(e);
+            } else {
+                candidate.expiresAtNanos = ticker.getAsLong() + ttlNanos;
+                candidate.value.complete(value);
+            }
+        });
+        return candidate.value;
+    }
+
+    private void touch(K key) {
+        if (lruLock.tryLock()) {
+            try {
+                lru.get(key);
+            } finally {
+                lruLock.unlock();
+            }
+        }
+    }
+
+    private void insert(K key, Node<V> node) {
+        lruLock.lock();
+        try {
+            lru.put(key, node);
+            Iterator<Map.Entry<K, Node<V>>> eldest = lru.entrySet().iterator();
+            while (lru.size() > maxSize && eldest.hasNext()) {
+                Map.Entry<K, Node<V>> entry = eldest.next();
+                eldest.remove();
+                if (entries.remove(entry.getKey(), entry.getValue())) {
+                    evictionCount.increment();
+                }
+            }
+        } finally {
+            lruLock.unlock();
+        }
+    }
+
+    private void remove(K key, Node<V> node) {
+        entries.remove(key, node);
+        lruLock.lock();
+        try {
+            lru.remove(key, node);
+        } finally {
+            lruLock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lruLock.lock();
+        try {
+            lru.clear();
+            entries.clear();
+        } finally {
+            lruLock.unlock();
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    public long getExpirationCount() {
+        return expirationCount.sum();
+    }
+
+    private static class Node<V> {
+
+        private final CompletableFuture<V> value = new CompletableFuture<>();
+        private volatile long expiresAtNanos = Long.MAX_VALUE; // 로딩이 끝나야 TTL 시작
+
+        boolean isExpired(long now) {
+            return expiresAtNanos != Long.MAX_VALUE && now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.choongang.advanced.app.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 관측한 응답 시간으로 동시 처리 한도를 조절하는 limiter (gradient 방식)
+ *
+ * 요청이 끝날 때마다 그 요청의 응답 시간(rtt)과 장기 평균 응답 시간(longRtt, EWMA)을 비교합니다.
+ *   gradient = clamp(0.5, 1.0, TOLERANCE * longRtt / rtt)
+ *   newLimit = limit * gradient + sqrt(limit)
+ * 응답 시간이 평소와 비슷하면 gradient 가 1 이라 한도가 sqrt(limit) 만큼씩 늘고,
+ * 평소보다 TOLERANCE 배 넘게 느려지면 한도를 줄여 대기열이 쌓이기 전에 초과 요청을 거절합니다.
+ * 새 한도는 SMOOTHING 비율로만 반영하고 minLimit ~ maxLimit 으로 제한합니다.
+ *
+ * acquire() 는 CAS 한 번으로 끝나고, 한도 계산만 요청 종료 시 synchronized 로 합니다.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double TOLERANCE = 1.5;
+    private static final double LONG_RTT_ALPHA = 2.0 / (600 + 1); // 최근 약 600개 요청의 EWMA
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final LongSupplier ticker;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder acceptedCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+    private volatile int limit;
+
+    // 아래 필드는 synchronized(this) 안에서만 사용
+    private double estimatedLimit;
+    private double longRttNanos; // 0 이면 아직 표본 없음
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, System::nanoTime);
+    }
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, LongSupplier ticker) {
+        if (minLimit < 1 || minLimit > maxLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.ticker = ticker;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * 처리 중인 요청이 한도보다 적으면 자리를 잡고 Permit 을 반환합니다. 한도에 찼으면 null
+     * 반환된 Permit 은 요청이 끝났을 때 정확히 한 번 release 해야 합니다.
+     */
+    public Permit acquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejectedCount.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                acceptedCount.increment();
+                return new Permit(ticker.getAsLong(), current + 1);
+            }
+        }
+    }
+
+    private void onComplete(long rttNanos, int inFlightAtStart) {
+        inFlight.decrementAndGet();
+        if (rttNanos > 0) {
+            update(rttNanos, inFlightAtStart);
+        }
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart) {
+        if (longRttNanos == 0) {
+            longRttNanos = rttNanos;
+        } else {
+            longRttNanos += (rttNanos - longRttNanos) * LONG_RTT_ALPHA;
+        }
+        // 과부하가 풀린 직후에는 장기 평균이 너무 높게 남아 있으므로 EWMA 를 기다리지 않고 빠르게 내림
+        if (longRttNanos > rttNanos * 2) {
+            longRttNanos *= 0.95;
+        }
+        // 한도의 절반도 쓰지 않았으면 한도가 병목이 아니므로 늘리지 않음
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / rttNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        estimatedLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAcceptedCount() {
+        return acceptedCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount.sum();
+    }
+
+    /**
+     * 허용된 요청 하나. release() 할 때 acquire 이후 걸린 시간을 응답 시간 표본으로 사용합니다.
+     */
+    public class Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        public void release() {
+            onComplete(ticker.getAsLong() - startNanos, inFlightAtStart);
+        }
+    }
+}
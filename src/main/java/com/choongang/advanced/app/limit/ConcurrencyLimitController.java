@@ -0,0 +1,32 @@
+package com.choongang.advanced.app.limit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 동시 처리 한도 상태 조회
+ *
+ * GET /limit : limit(현재 한도), inFlight(처리 중), accepted(허용 누적), rejected(503 거절 누적)
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "order.limit.enabled", havingValue = "true")
+public class ConcurrencyLimitController {
+
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    @GetMapping("/limit")
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("limit", (long) limiter.getLimit());
+        stats.put("inFlight", (long) limiter.getInFlight());
+        stats.put("accepted", limiter.getAcceptedCount());
+        stats.put("rejected", limiter.getRejectedCount());
+        return stats;
+    }
+}
@@ -0,0 +1,99 @@
+package com.choongang.advanced.app.limit;
+
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.logtrace.LogTrace;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 주문 컨트롤러 앞단의 입장 제어(admission control) 필터
+ *
+ * 처리 중인 요청이 AdaptiveConcurrencyLimiter 의 한도에 차 있으면 컨트롤러를 호출하지 않고 바로 503 으로 응답합니다.
+ * 거절은 "ConcurrencyLimitFilter.reject()" span 의 예외로 추적 로그에 남으므로 /trace/metrics 에서도 오류로 집계됩니다.
+ *
+ * V6 처럼 비동기로 처리되는 요청은 doFilter 가 먼저 반환되므로, 비동기 처리가 끝날 때(AsyncListener.onComplete) 자리를 반납합니다.
+ */
+public class ConcurrencyLimitFilter implements Filter {
+
+    private static final String REJECT_MESSAGE = "ConcurrencyLimitFilter.reject()";
+
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final LogTrace trace;
+
+    public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter, LogTrace trace) {
+        this.limiter = limiter;
+        this.trace = trace;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+        if (permit == null) {
+            reject(response);
+            return;
+        }
+
+        boolean async = false;
+        try {
+            chain.doFilter(request, response);
+            async = request.isAsyncStarted();
+            if (async) {
+                request.getAsyncContext().addListener(new ReleaseListener(permit));
+            }
+        } finally {
+            if (!async) {
+                permit.release();
+            }
+        }
+    }
+
+    private void reject(ServletResponse response) throws IOException {
+        // span 이름에는 숫자를 넣지 않음 (span 별 통계가 이름으로 묶이므로), 한도와 처리 중 요청 수는 예외 메시지로 남김
+        TraceStatus status = trace.begin(REJECT_MESSAGE);
+        trace.exception(status, new RejectedExecutionException("limit=" + limiter.getLimit() + " inFlight=" + limiter.getInFlight()));
+
+        HttpServletResponse httpResponse = (HttpServletResponse) response;
+        httpResponse.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        httpResponse.setHeader("Retry-After", "1");
+        httpResponse.setContentType("text/plain");
+        httpResponse.getWriter().write("busy");
+    }
+
+    /**
+     * 비동기 요청이 끝나면 자리를 반납합니다. onTimeout / onError 뒤에도 onComplete 는 항상 호출됩니다.
+     */
+    private static class ReleaseListener implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimiter.Permit permit;
+
+        ReleaseListener(AdaptiveConcurrencyLimiter.Permit permit) {
+            this.permit = permit;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            permit.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.choongang.advanced.app.singleflight;
+
+import com.choongang.advanced.trace.logtrace.LogTrace;
+import com.choongang.advanced.trace.templatecallback.TraceCallback;
+import com.choongang.advanced.trace.templatecallback.TraceTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 같은 키로 동시에 들어온 호출을 하나의 실행으로 합칩니다. (single-flight)
+ *
+ * 처음 들어온 호출만 작업을 실행하고, 실행 중에 같은 키로 들어온 호출은 그 결과(또는 예외)를 함께 받습니다.
+ * 실행 중인 작업은 키별 future 로 ConcurrentHashMap 에 두며 putIfAbsent 로만 경쟁하므로 락이 없습니다.
+ * 작업이 끝나면 바로 맵에서 빠지므로 결과를 캐시하지는 않습니다.
+ *
+ * 합류한 호출은 "{name} joined" span 으로 기다린 시간을 추적 로그에 남깁니다.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final TraceTemplate traceTemplate;
+    private final String joinMessage;
+
+    private final LongAdder executedCount = new LongAdder();
+    private final LongAdder joinedCount = new LongAdder();
+
+    public SingleFlight(String name, LogTrace trace) {
+        this.traceTemplate = new TraceTemplate(trace);
+        this.joinMessage = name + " joined";
+    }
+
+    public V execute(K key, TraceCallback<V> task) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            joinedCount.increment();
+            return traceTemplate.execute(joinMessage, () -> await(existing));
+        }
+
+        executedCount.increment();
+        try {
+            V result = task.call();
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 실행 중인 작업의 결과를 기다립니다. 작업이 던진 예외는 감싸지 않고 그대로 던집니다.
+     */
+    private static <V> V await(CompletableFuture<V> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    public long getExecutedCount() {
+        return executedCount.sum();
+    }
+
+    public long getJoinedCount() {
+        return joinedCount.sum();
+    }
+}
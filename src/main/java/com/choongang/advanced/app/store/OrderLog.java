@@ -0,0 +1,460 @@
+package com.choongang.advanced.app.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 주문을 디스크에 순서대로 이어 붙이는 append-only 로그(WAL)입니다.
+ *
+ * <pre>
+ * 세그먼트 파일 (orders-00000.wal, orders-00001.wal ...)
+ *   헤더 16 bytes : magic(int) version(int) baseSequence(long, 이 세그먼트 첫 레코드의 순번)
+ *   레코드       : length(int) checksum(int, CRC32C(sequence + payload)) sequence(long) payload(UTF-8 itemId)
+ * </pre>
+ *
+ * 그룹 커밋: append() 는 요청을 큐에 넣고 바로 future 를 반환합니다. 전용 writer 스레드가 큐에 쌓인 요청을 한꺼번에 꺼내
+ * 한 번의 write + force() 로 기록한 뒤 모두 완료시킵니다. force() 하는 동안 들어온 요청은 다음 묶음이 되므로,
+ * 동시 요청이 많을수록 fsync 한 번이 더 많은 주문에 나뉘어 적용됩니다.
+ *
+ * 세그먼트가 segmentSize 를 넘으면 force() 후 닫고 다음 세그먼트를 만듭니다. 닫힌 세그먼트는 모두 디스크에 반영된 상태이므로,
+ * 시작 시 복구는 마지막 세그먼트만 처음부터 검사해 체크섬이 맞지 않거나 잘린 꼬리 레코드를 잘라냅니다.
+ * 헤더를 쓰기 전에 중단되어 비어 있거나 헤더보다 짧은 마지막 세그먼트는 빈 세그먼트로 보고 지운 뒤 다시 만듭니다.
+ *
+ * 묶음 쓰기가 실패하면 위치와 순번을 되돌리고 쓰던 부분을 잘라내 다음 묶음이 깨진 레코드 뒤에 붙지 않게 합니다.
+ * force() 가 실패했거나 잘라내기도 실패하면 디스크 상태를 믿을 수 없으므로 로그를 멈추고(fail-stop) 이후 append() 는 모두 실패시킵니다.
+ */
+public class OrderLog implements AutoCloseable {
+
+    static final int MAGIC = 0x4f52444c; // "ORDL"
+    static final int VERSION = 1;
+    static final int SEGMENT_HEADER_SIZE = 16;
+    static final int RECORD_HEADER_SIZE = 16;
+    static final int MAX_PAYLOAD_SIZE = 64 * 1024;
+
+    private static final String SEGMENT_PREFIX = "orders-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private static final PendingAppend CLOSE = new PendingAppend(new byte[0]); // writer 종료 신호
+
+    private final Path directory;
+    private final int segmentSize;
+    private final SegmentOpener opener;
+    private final BlockingQueue<PendingAppend> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile Exception failure; // fail-stop 원인. null 이면 정상
+
+    // writer 스레드만 접근
+    private FileChannel channel;
+    private long position;
+    private int segmentIndex;
+    private long nextSequence;
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final CRC32C checksum = new CRC32C();
+
+    private final LongAdder appendCount = new LongAdder();
+    private final LongAdder forceCount = new LongAdder();
+
+    public OrderLog(Path directory, int segmentSize) throws IOException {
+        this(directory, segmentSize, FileChannel::open);
+    }
+
+    OrderLog(Path directory, int segmentSize, SegmentOpener opener) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.opener = opener;
+        Files.createDirectories(directory);
+        recover();
+
+        this.writer = new Thread(this::writeLoop, "order-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * @return 디스크에 반영(force)된 뒤 해당 주문의 순번으로 완료되는 future
+     */
+    public CompletableFuture<Long> append(String itemId) {
+        byte[] payload = itemId.getBytes(StandardCharsets.UTF_8);
+        if (payload.length > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("itemId가 너무 깁니다. length=" + payload.length);
+        }
+        PendingAppend pending = new PendingAppend(payload);
+        if (!running) {
+            pending.future.completeExceptionally(new IllegalStateException("주문 로그가 닫혔습니다."));
+            return pending.future;
+        }
+        if (failure != null) {
+            pending.future.completeExceptionally(stopped());
+            return pending.future;
+        }
+        queue.add(pending);
+        return pending.future;
+    }
+
+    /**
+     * 다음에 기록될 주문의 순번 (복구 직후에는 지금까지 기록된 주문 수와 같습니다)
+     */
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    public long getAppendCount() {
+        return appendCount.sum();
+    }
+
+    /**
+     * force() 호출 횟수. getAppendCount() / getForceCount() 가 그룹 커밋 한 번에 묶인 평균 주문 수입니다.
+     */
+    public long getForceCount() {
+        return forceCount.sum();
+    }
+
+    private void writeLoop() {
+        List<PendingAppend> batch = new ArrayList<>();
+        boolean closing = false;
+        while (!closing) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue; // 인터럽트로는 멈추지 않음 (쓰는 도중 인터럽트되면 FileChannel 이 닫힘)
+            }
+            queue.drainTo(batch);
+            closing = batch.remove(CLOSE);
+            if (!batch.isEmpty()) {
+                commit(batch);
+            }
+            batch.clear();
+        }
+
+        queue.drainTo(batch); // close() 와 경합해 늦게 들어온 요청
+        for (PendingAppend pending : batch) {
+            pending.future.completeExceptionally(new IllegalStateException("주문 로그가 닫혔습니다."));
+        }
+    }
+
+    private void commit(List<PendingAppend> batch) {
+        if (failure != null) {
+            fail(batch, stopped());
+            return;
+        }
+        int batchSize = 0;
+        for (PendingAppend pending : batch) {
+            batchSize += RECORD_HEADER_SIZE + pending.payload.length;
+        }
+        try {
+            if (position + batchSize > segmentSize && position > SEGMENT_HEADER_SIZE) {
+                roll();
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = e; // 세그먼트 교체 중 실패: 어느 세그먼트에 이어 써야 할지 알 수 없음
+            fail(batch, e);
+            return;
+        }
+
+        long startPosition = position;
+        long startSequence = nextSequence;
+        try {
+            write(batch, batchSize);
+        } catch (IOException | RuntimeException e) {
+            rollback(startPosition, startSequence);
+            fail(batch, e);
+            return;
+        }
+        try {
+            channel.force(false); // 묶음 전체에 fsync 한 번
+        } catch (IOException | RuntimeException e) {
+            // fsync 실패 뒤에는 페이지 캐시와 디스크가 어긋났을 수 있어 다시 시도해도 믿을 수 없음
+            rollback(startPosition, startSequence);
+            failure = e;
+            fail(batch, e);
+            return;
+        }
+        forceCount.increment();
+        appendCount.add(batch.size());
+        for (PendingAppend pending : batch) {
+            pending.future.complete(pending.sequence);
+        }
+    }
+
+    /**
+     * 실패한 묶음이 쓴 부분을 잘라내고 위치와 순번을 묶음 시작 전으로 되돌립니다. 잘라내지 못하면 로그를 멈춥니다.
+     */
+    private void rollback(long startPosition, long startSequence) {
+        position = startPosition;
+        nextSequence = startSequence;
+        try {
+            if (channel.size() > startPosition) {
+                channel.truncate(startPosition);
+            }
+        } catch (IOException | RuntimeException e) {
+            failure = e;
+        }
+    }
+
+    private static void fail(List<PendingAppend> batch, Exception e) {
+        for (PendingAppend pending : batch) {
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private IllegalStateException stopped() {
+        return new IllegalStateException("주문 로그 쓰기에 실패해 멈췄습니다.", failure);
+    }
+
+    private void write(List<PendingAppend> batch, int batchSize) throws IOException {
+        if (writeBuffer.capacity() < batchSize) {
+            writeBuffer = ByteBuffer.allocateDirect(Math.max(batchSize, writeBuffer.capacity() * 2));
+        }
+
+        writeBuffer.clear();
+        for (PendingAppend pending : batch) {
+            pending.sequence = nextSequence++;
+            writeBuffer.putInt(pending.payload.length);
+            writeBuffer.putInt(checksum(pending.sequence, pending.payload));
+            writeBuffer.putLong(pending.sequence);
+            writeBuffer.put(pending.payload);
+        }
+        writeBuffer.flip();
+        long writePosition = position;
+        while (writeBuffer.hasRemaining()) {
+            writePosition += channel.write(writeBuffer, writePosition);
+        }
+        position = writePosition;
+    }
+
+    private void roll() throws IOException {
+        channel.force(true);
+        channel.close();
+        openSegment(segmentIndex + 1, nextSequence);
+    }
+
+    private void openSegment(int index, long baseSequence) throws IOException {
+        Path file = directory.resolve(segmentFileName(index));
+        channel = opener.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        syncDirectory(); // 새 파일의 디렉토리 항목도 디스크에 반영
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(baseSequence).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        channel.force(true);
+        segmentIndex = index;
+        position = SEGMENT_HEADER_SIZE;
+    }
+
+    private void syncDirectory() throws IOException {
+        if (System.getProperty("os.name").startsWith("Windows")) {
+            return; // Windows 는 디렉토리를 FileChannel 로 열 수 없음
+        }
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        }
+    }
+
+    /**
+     * 마지막 세그먼트의 유효한 끝을 찾아 이어서 쓸 위치와 다음 순번을 복구합니다.
+     */
+    private void recover() throws IOException {
+        List<Path> segments = segmentFiles(directory);
+        if (segments.isEmpty()) {
+            openSegment(0, 0L);
+            return;
+        }
+
+        Path last = segments.get(segments.size() - 1);
+        if (isUnwrittenSegment(last)) {
+            // 파일을 만든 뒤 헤더를 쓰기 전에 중단됨: 이전 세그먼트가 끝난 순번으로 다시 만듦
+            Files.delete(last);
+            syncDirectory();
+            long baseSequence = 0L;
+            if (segments.size() > 1) {
+                Path previous = segments.get(segments.size() - 2);
+                try (FileChannel previousChannel = FileChannel.open(previous, StandardOpenOption.READ)) {
+                    List<OrderLogEntry> entries = new ArrayList<>();
+                    readSegment(previousChannel, previous, entries);
+                    baseSequence = readBaseSequence(previousChannel, previous) + entries.size();
+                }
+            }
+            openSegment(segmentIndex(last), baseSequence);
+            nextSequence = baseSequence;
+            return;
+        }
+
+        channel = opener.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segmentIndex = segmentIndex(last);
+        List<OrderLogEntry> entries = new ArrayList<>();
+        long validEnd = readSegment(channel, last, entries);
+        if (validEnd < channel.size()) {
+            channel.truncate(validEnd); // 쓰다가 중단된 꼬리 레코드 제거
+            channel.force(true);
+        }
+        position = validEnd;
+        nextSequence = readBaseSequence(channel, last) + entries.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        queue.add(CLOSE); // 이미 들어온 요청은 모두 기록한 뒤 종료
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure == null && channel.isOpen()) {
+            channel.force(true);
+        }
+        channel.close();
+    }
+
+    /**
+     * 디렉토리의 모든 주문을 순서대로 읽습니다. 마지막 세그먼트의 잘린 꼬리 레코드는 건너뜁니다.
+     */
+    public static List<OrderLogEntry> readAll(Path directory) throws IOException {
+        List<OrderLogEntry> entries = new ArrayList<>();
+        List<Path> segments = segmentFiles(directory);
+        for (Path segment : segments) {
+            if (segment.equals(segments.get(segments.size() - 1)) && isUnwrittenSegment(segment)) {
+                continue; // 헤더를 쓰기 전에 중단된 마지막 세그먼트
+            }
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                readSegment(channel, segment, entries);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * @return 마지막으로 유효한 레코드의 끝 위치
+     */
+    private static long readSegment(FileChannel channel, Path segment, List<OrderLogEntry> entries) throws IOException {
+        long size = channel.size();
+        if (size < SEGMENT_HEADER_SIZE) {
+            throw new IOException("주문 로그 세그먼트 형식이 아닙니다. file=" + segment);
+        }
+        // 매핑하지 않고 읽음 (매핑이 남아 있으면 일부 OS 에서 복구 시 truncate 가 실패함)
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("주문 로그 세그먼트 형식이 아닙니다. file=" + segment);
+        }
+
+        long expectedSequence = buffer.getLong(8);
+        int position = SEGMENT_HEADER_SIZE;
+        CRC32C checksum = new CRC32C();
+        while (position + RECORD_HEADER_SIZE <= size) {
+            int length = buffer.getInt(position);
+            if (length < 0 || length > MAX_PAYLOAD_SIZE || position + RECORD_HEADER_SIZE + length > size) {
+                break; // 잘린 레코드
+            }
+            long sequence = buffer.getLong(position + 8);
+            byte[] payload = new byte[length];
+            buffer.get(position + RECORD_HEADER_SIZE, payload);
+            if (sequence != expectedSequence || buffer.getInt(position + 4) != checksum(checksum, sequence, payload)) {
+                break; // 쓰다가 중단된 레코드
+            }
+            entries.add(new OrderLogEntry(sequence, new String(payload, StandardCharsets.UTF_8)));
+            expectedSequence++;
+            position += RECORD_HEADER_SIZE + length;
+        }
+        return position;
+    }
+
+    /**
+     * 헤더가 다 쓰이지 않은 세그먼트 (크기가 헤더보다 작거나, 헤더 크기인데 magic 이 없음)
+     */
+    private static boolean isUnwrittenSegment(Path segment) throws IOException {
+        long size = Files.size(segment);
+        if (size < SEGMENT_HEADER_SIZE) {
+            return true;
+        }
+        if (size > SEGMENT_HEADER_SIZE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+            channel.read(header, 0);
+            return header.getInt(0) != MAGIC;
+        }
+    }
+
+    private static long readBaseSequence(FileChannel channel, Path segment) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_SIZE);
+        if (channel.read(header, 0) < SEGMENT_HEADER_SIZE) {
+            throw new IOException("주문 로그 세그먼트 형식이 아닙니다. file=" + segment);
+        }
+        return header.getLong(8);
+    }
+
+    private int checksum(long sequence, byte[] payload) {
+        return checksum(checksum, sequence, payload);
+    }
+
+    private static int checksum(CRC32C checksum, long sequence, byte[] payload) {
+        checksum.reset();
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            checksum.update((int) (sequence >>> shift));
+        }
+        checksum.update(payload, 0, payload.length);
+        return (int) checksum.getValue();
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static String segmentFileName(int index) {
+        return String.format("%s%05d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    private static int segmentIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * 세그먼트 파일을 여는 방법 (테스트에서 쓰기 실패를 흉내 낼 때 교체)
+     */
+    interface SegmentOpener {
+
+        FileChannel open(Path file, OpenOption... options) throws IOException;
+    }
+
+    private static class PendingAppend {
+
+        private final byte[] payload;
+        private final CompletableFuture<Long> future = new CompletableFuture<>();
+        private long sequence;
+
+        PendingAppend(byte[] payload) {
+            this.payload = payload;
+        }
+    }
+}
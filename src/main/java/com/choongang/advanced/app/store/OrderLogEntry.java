@@ -0,0 +1,23 @@
+package com.choongang.advanced.app.store;
+
+/**
+ * 주문 로그에 기록된 주문 하나
+ */
+public class OrderLogEntry {
+
+    private final long sequence;
+    private final String itemId;
+
+    public OrderLogEntry(long sequence, String itemId) {
+        this.sequence = sequence;
+        this.itemId = itemId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+}
@@ -1,10 +1,12 @@
 package com.choongang.advanced.app.v5;
 
+import com.choongang.advanced.app.singleflight.SingleFlight;
 import com.choongang.advanced.trace.logtrace.LogTrace;
 import com.choongang.advanced.trace.template.AbstractTemplate;
 import com.choongang.advanced.trace.templatecallback.TraceCallback;
 import com.choongang.advanced.trace.templatecallback.TraceTemplate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -12,10 +14,13 @@ public class OrderServiceV5 {
 
     private final OrderRepositoryV5 orderRepository;
     private final TraceTemplate traceTemplate;      // 템플릿 콜백을 사용하기 위한 템플릿 객체
+    private final SingleFlight<String, Void> saveFlight; // 같은 상품의 동시 저장을 하나로 합침 (사용하지 않으면 null)
 
-    public OrderServiceV5(OrderRepositoryV5 orderRepository, LogTrace trace) {
+    public OrderServiceV5(OrderRepositoryV5 orderRepository, LogTrace trace,
+                          @Value("${order.single-flight.enabled:false}") boolean singleFlightEnabled) {
         this.orderRepository = orderRepository;
         this.traceTemplate = new TraceTemplate(trace); // 템플릿 객체 생성
+        this.saveFlight = singleFlightEnabled ? new SingleFlight<>("OrderRepositoryV5.save()", trace) : null;
     }
 
     /**
@@ -29,6 +34,16 @@ public class OrderServiceV5 {
         traceTemplate.execute("OrderServiceV5.orderItem()", new TraceCallback<Void>() {
             @Override
             public Void call() {
+                if (saveFlight != null) {
+                    // 같은 itemId 로 실행 중인 저장이 있으면 새로 저장하지 않고 그 결과를 기다림
+                    return saveFlight.execute(itemId, new TraceCallback<Void>() {
+                        @Override
+                        public Void call() {
+                            orderRepository.save(itemId);
+                            return null;
+                        }
+                    });
+                }
                 orderRepository.save(itemId);
                 return null;
             }
@@ -0,0 +1,134 @@
+package com.choongang.advanced.app.v6;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 여러 요청 스레드가 하나씩 넣는 항목을 모아 batchFunction 을 한 번만 호출합니다. (micro-batch)
+ *
+ * 첫 항목이 들어온 뒤 linger 가 지나거나 maxBatchSize 개가 모이면 묶음을 보냅니다.
+ * 따라서 항목 하나가 기다리는 시간은 최대 linger 입니다.
+ * 묶음 하나는 maxBatchSize 개를 넘지 않으며, 보내는 사이에 더 쌓인 항목은 다음 묶음으로 넘깁니다.
+ * batchFunction 은 입력과 같은 순서, 같은 개수의 결과를 돌려줘야 하며, 묶음 전체가 실패하거나 결과 개수가 다르면 모든 항목이 같은 예외로 실패합니다.
+ * 묶음은 항상 전용 스레드에서 보내므로 어느 요청의 추적 컨텍스트에도 속하지 않습니다.
+ */
+public class MicroBatcher<T, R> implements AutoCloseable {
+
+    private final Function<List<T>, CompletableFuture<List<R>>> batchFunction;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final ScheduledExecutorService scheduler;
+
+    // this 로 보호
+    private List<T> items = new ArrayList<>();
+    private List<CompletableFuture<R>> futures = new ArrayList<>();
+    private long generation; // 묶음을 보낼 때마다 증가. 이미 보낸 묶음의 linger 타이머를 무시하기 위해 사용
+
+    private final LongAdder batchCount = new LongAdder();
+    private final LongAdder itemCount = new LongAdder();
+
+    public MicroBatcher(Function<List<T>, CompletableFuture<List<R>>> batchFunction, int maxBatchSize, long linger, TimeUnit unit) {
+        this.batchFunction = batchFunction;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = unit.toNanos(linger);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "micro-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public CompletableFuture<R> submit(T item) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        synchronized (this) {
+            items.add(item);
+            futures.add(future);
+            long current = generation;
+            if (items.size() == maxBatchSize) {
+                scheduler.execute(() -> flush(current));
+            } else if (items.size() == 1) {
+                scheduler.schedule(() -> flush(current), lingerNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        return future;
+    }
+
+    private void flush(long expectedGeneration) {
+        List<T> batch;
+        List<CompletableFuture<R>> batchFutures;
+        synchronized (this) {
+            if (generation != expectedGeneration || items.isEmpty()) {
+                return; // 이미 다른 경로로 보냄
+            }
+            if (items.size() <= maxBatchSize) {
+                batch = items;
+                batchFutures = futures;
+                items = new ArrayList<>();
+                futures = new ArrayList<>();
+            } else {
+                batch = new ArrayList<>(items.subList(0, maxBatchSize));
+                batchFutures = new ArrayList<>(futures.subList(0, maxBatchSize));
+                items.subList(0, maxBatchSize).clear();
+                futures.subList(0, maxBatchSize).clear();
+            }
+            generation++;
+            if (!items.isEmpty()) {
+                rearm(); // 남은 항목은 다음 묶음으로
+            }
+        }
+        batchCount.increment();
+        itemCount.add(batch.size());
+
+        CompletableFuture<List<R>> results;
+        try {
+            results = batchFunction.apply(batch);
+        } catch (RuntimeException e) {
+            results = CompletableFuture.failedFuture(e);
+        }
+        if (results == null) {
+            results = CompletableFuture.failedFuture(new IllegalStateException("batchFunction 이 null 을 반환했습니다."));
+        }
+        results.whenComplete((list, e) -> {
+            Throwable failure = e;
+            if (failure == null && (list == null || list.size() != batchFutures.size())) {
+                failure = new IllegalStateException("batchFunction 결과 개수가 입력과 다릅니다. expected=" + batchFutures.size() + ", actual=" + (list == null ? null : list.size()));
+            }
+            for (int i = 0; i < batchFutures.size(); i++) {
+                if (failure != null) {
+                    batchFutures.get(i).completeExceptionally(failure);
+                } else {
+                    batchFutures.get(i).complete(list.get(i));
+                }
+            }
+        });
+    }
+
+    // this 를 잡은 상태에서 호출
+    private void rearm() {
+        long current = generation;
+        if (items.size() >= maxBatchSize) {
+            scheduler.execute(() -> flush(current));
+        } else {
+            scheduler.schedule(() -> flush(current), lingerNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    public long getItemCount() {
+        return itemCount.sum();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdown();
+    }
+}
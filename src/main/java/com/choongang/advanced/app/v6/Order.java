@@ -0,0 +1,17 @@
+package com.choongang.advanced.app.v6;
+
+/**
+ * 저장소에서 조회한 주문
+ */
+public class Order {
+
+    private final String itemId;
+
+    public Order(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+}
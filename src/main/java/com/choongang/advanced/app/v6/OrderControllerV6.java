@@ -0,0 +1,69 @@
+package com.choongang.advanced.app.v6;
+
+import com.choongang.advanced.trace.logtrace.LogTrace;
+import com.choongang.advanced.trace.templatecallback.TraceTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 논블로킹 주문 경로
+ *
+ * V0 ~ V5 는 저장소의 Thread.sleep(1000) 동안 Tomcat 요청 스레드를 붙잡고 있어 처리량이 (스레드 수 / 1초) 로 제한됩니다.
+ * V6 는 CompletableFuture 를 반환하므로 Spring MVC 가 비동기 요청으로 처리하고, 요청 스레드는 바로 풀로 돌아갑니다.
+ * 각 span 은 future 가 끝날 때 닫히므로 추적 로그는 V5 와 같은 트리로 남습니다.
+ */
+@RestController
+public class OrderControllerV6 {
+
+    private final OrderServiceV6 orderService;
+    private final TraceTemplate traceTemplate;
+
+    public OrderControllerV6(OrderServiceV6 orderService, LogTrace trace) {
+        this.orderService = orderService;
+        this.traceTemplate = new TraceTemplate(trace);
+    }
+
+    /**
+     * 주문 요청
+     * @param itemId 상품 아이디
+     * @return 주문 결과 ("ok")
+     */
+    @GetMapping("/v6/request")
+    public CompletableFuture<String> request(String itemId) {
+        return traceTemplate.executeFuture("OrderControllerV6.request()",
+                () -> orderService.orderItem(itemId).thenApply(result -> "ok"));
+    }
+
+    /**
+     * 배치 주문 요청 (/v6/batch?itemIds=a,b,c)
+     * @param itemIds 상품 아이디 목록
+     * @return 항목별 주문 결과. "ex" 같은 실패 항목이 있어도 전체 요청은 성공으로 응답합니다.
+     */
+    @GetMapping("/v6/batch")
+    public CompletableFuture<List<OrderResult>> requestBatch(@RequestParam List<String> itemIds) {
+        return traceTemplate.executeFuture("OrderControllerV6.requestBatch()", () -> orderService.orderItems(itemIds));
+    }
+
+    /**
+     * 주문 조회
+     * @param itemId 상품 아이디
+     * @return 주문. 같은 상품을 다시 조회하면 캐시에서 바로 응답합니다.
+     */
+    @GetMapping("/v6/order")
+    public CompletableFuture<Order> find(String itemId) {
+        return traceTemplate.executeFuture("OrderControllerV6.find()", () -> orderService.findOrder(itemId));
+    }
+
+    /**
+     * 주문 조회 캐시 통계 (size, hits, misses, evictions, expirations)
+     */
+    @GetMapping("/v6/order/cache")
+    public Map<String, Long> cacheStats() {
+        return orderService.cacheStats();
+    }
+}
@@ -0,0 +1,118 @@
+package com.choongang.advanced.app.v6;
+
+import com.choongang.advanced.app.store.OrderLog;
+import com.choongang.advanced.trace.logtrace.LogTrace;
+import com.choongang.advanced.trace.templatecallback.TraceTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Repository
+public class OrderRepositoryV6 implements AutoCloseable {
+
+    // 1초 뒤에 작업을 실행하는 Executor. 대기하는 동안 스레드를 점유하지 않음 (JDK 공용 스케줄러 + ForkJoinPool)
+    private static final Executor IO_DELAY = CompletableFuture.delayedExecutor(1000, TimeUnit.MILLISECONDS);
+
+    private final TraceTemplate traceTemplate;
+    private final OrderLog orderLog; // order.wal.enabled=true 일 때만 존재. 없으면 1초 대기로 저장을 흉내냄
+    private final MicroBatcher<String, OrderResult> batcher; // 동시에 들어온 save() 를 saveAll() 한 번으로 묶음
+
+    public OrderRepositoryV6(LogTrace trace,
+                             Optional<OrderLog> orderLog,
+                             @Value("${order.batch.max-size:64}") int maxBatchSize,
+                             @Value("${order.batch.linger-ms:5}") long lingerMs) {
+        this.traceTemplate = new TraceTemplate(trace);
+        this.orderLog = orderLog.orElse(null);
+        this.batcher = new MicroBatcher<>(this::saveAll, maxBatchSize, lingerMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 주문 아이템 저장
+     * @param itemId 상품 아이디
+     * @return 저장이 끝나면 완료되는 future. 동시에 들어온 다른 save() 와 묶여 한 번의 왕복으로 저장됩니다.
+     */
+    public CompletableFuture<Void> save(String itemId) {
+        return traceTemplate.executeFuture("OrderRepositoryV6.save()", () -> batcher.submit(itemId).thenApply(result -> {
+            if (!result.isSuccess()) {
+                throw new IllegalStateException(result.getError());
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * 주문 아이템 여러 개를 한 번의 왕복(1초)으로 저장합니다.
+     * @param itemIds 상품 아이디 목록
+     * @return 입력과 같은 순서의 항목별 결과. "ex" 나 null 항목은 그 항목만 실패로 기록됩니다.
+     */
+    public CompletableFuture<List<OrderResult>> saveAll(List<String> itemIds) {
+        if (orderLog != null) {
+            return traceTemplate.executeFuture("OrderRepositoryV6.saveAll()", () -> appendAll(itemIds));
+        }
+        return traceTemplate.executeFuture("OrderRepositoryV6.saveAll()", () -> CompletableFuture.supplyAsync(() -> {
+            List<OrderResult> results = new ArrayList<>(itemIds.size());
+            for (String itemId : itemIds) {
+                // 저장 로직
+                OrderResult invalid = validate(itemId);
+                results.add(invalid != null ? invalid : OrderResult.ok(itemId));
+            }
+            return results;
+        }, IO_DELAY)); // 1초 후 완료되는 I/O 흉내
+    }
+
+    /**
+     * 주문 조회
+     * @param itemId 상품 아이디
+     * @return 1초(저장소 왕복) 뒤에 완료되는 future. "ex" 는 예외로 완료됩니다.
+     */
+    public CompletableFuture<Order> findByItemId(String itemId) {
+        return traceTemplate.executeFuture("OrderRepositoryV6.findByItemId()", () -> {
+            if ("ex".equals(itemId)) {
+                throw new IllegalStateException("예외 발생!");
+            }
+            return CompletableFuture.supplyAsync(() -> new Order(itemId), IO_DELAY); // 1초 후 완료되는 I/O 흉내
+        });
+    }
+
+    /**
+     * 주문 로그에 기록합니다. 한 묶음의 항목은 대부분 같은 그룹 커밋(fsync 한 번)에 들어갑니다.
+     */
+    private CompletableFuture<List<OrderResult>> appendAll(List<String> itemIds) {
+        List<CompletableFuture<OrderResult>> results = new ArrayList<>(itemIds.size());
+        for (String itemId : itemIds) {
+            OrderResult invalid = validate(itemId);
+            if (invalid != null) {
+                results.add(CompletableFuture.completedFuture(invalid));
+            } else {
+                results.add(orderLog.append(itemId).handle((sequence, e) -> e == null ? OrderResult.ok(itemId) : OrderResult.fail(itemId, e.getMessage())));
+            }
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .thenApply(done -> results.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    /**
+     * 저장할 수 없는 항목이면 실패 결과, 아니면 null. 묶음 안의 다른 항목에 영향을 주지 않도록 예외 대신 결과로 돌려줍니다.
+     */
+    private static OrderResult validate(String itemId) {
+        if (itemId == null) {
+            return OrderResult.fail(null, "itemId 가 없습니다.");
+        }
+        if (itemId.equals("ex")) {
+            return OrderResult.fail(itemId, "예외 발생!");
+        }
+        return null;
+    }
+
+    @Override
+    public void close() {
+        batcher.close();
+    }
+}
@@ -0,0 +1,37 @@
+package com.choongang.advanced.app.v6;
+
+/**
+ * 주문 항목 하나의 처리 결과. 배치 주문에서 항목별 성공/실패를 따로 알려주기 위해 사용합니다.
+ */
+public class OrderResult {
+
+    private final String itemId;
+    private final boolean success;
+    private final String error; // 성공이면 null
+
+    private OrderResult(String itemId, boolean success, String error) {
+        this.itemId = itemId;
+        this.success = success;
+        this.error = error;
+    }
+
+    public static OrderResult ok(String itemId) {
+        return new OrderResult(itemId, true, null);
+    }
+
+    public static OrderResult fail(String itemId, String error) {
+        return new OrderResult(itemId, false, error);
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
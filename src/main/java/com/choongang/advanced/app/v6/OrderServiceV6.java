@@ -0,0 +1,66 @@
+package com.choongang.advanced.app.v6;
+
+import com.choongang.advanced.app.cache.ReadThroughCache;
+import com.choongang.advanced.trace.logtrace.LogTrace;
+import com.choongang.advanced.trace.templatecallback.TraceTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class OrderServiceV6 {
+
+    private final OrderRepositoryV6 orderRepository;
+    private final TraceTemplate traceTemplate;
+    private final ReadThroughCache<String, Order> orderCache; // 자주 조회하는 주문은 저장소 왕복(1초) 없이 응답
+
+    public OrderServiceV6(OrderRepositoryV6 orderRepository, LogTrace trace,
+                          @Value("${order.cache.max-size:10000}") int cacheMaxSize,
+                          @Value("${order.cache.ttl-seconds:60}") long cacheTtlSeconds) {
+        this.orderRepository = orderRepository;
+        this.traceTemplate = new TraceTemplate(trace);
+        this.orderCache = new ReadThroughCache<>(orderRepository::findByItemId, cacheMaxSize, TimeUnit.SECONDS.toNanos(cacheTtlSeconds));
+    }
+
+    /**
+     * 주문 아이템
+     * @param itemId 상품 아이디
+     * @return 저장까지 끝나면 완료되는 future. 호출 스레드는 기다리지 않습니다.
+     */
+    public CompletableFuture<Void> orderItem(String itemId) {
+        return traceTemplate.executeFuture("OrderServiceV6.orderItem()", () -> orderRepository.save(itemId));
+    }
+
+    /**
+     * 주문 아이템 여러 개
+     * @param itemIds 상품 아이디 목록
+     * @return 항목별 결과. 일부 항목이 실패해도 나머지는 저장됩니다.
+     */
+    public CompletableFuture<List<OrderResult>> orderItems(List<String> itemIds) {
+        return traceTemplate.executeFuture("OrderServiceV6.orderItems()", () -> orderRepository.saveAll(itemIds));
+    }
+
+    /**
+     * 주문 조회 (read-through 캐시)
+     * @param itemId 상품 아이디
+     * @return 캐시에 있으면 바로, 없으면 저장소에서 읽은 뒤 완료되는 future. 같은 키를 동시에 조회해도 저장소는 한 번만 읽습니다.
+     */
+    public CompletableFuture<Order> findOrder(String itemId) {
+        return traceTemplate.executeFuture("OrderServiceV6.findOrder()", () -> orderCache.get(itemId));
+    }
+
+    public Map<String, Long> cacheStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("size", (long) orderCache.size());
+        stats.put("hits", orderCache.getHitCount());
+        stats.put("misses", orderCache.getMissCount());
+        stats.put("evictions", orderCache.getEvictionCount());
+        stats.put("expirations", orderCache.getExpirationCount());
+        return stats;
+    }
+}
@@ -0,0 +1,32 @@
+package com.choongang.advanced.app.v7;
+
+import com.choongang.advanced.trace.annotation.Traced;
+import org.springframework.web.bind.annotation.GetMapping;
+
+/**
+ * 컴파일 시점에 생성한 추적 코드를 사용하는 주문 경로
+ *
+ * V3 처럼 비즈니스 로직과 추적 코드가 섞이지도 않고, V4 / V5 처럼 호출마다 템플릿이나 콜백 객체를 만들지도 않습니다.
+ * TracedProcessor 가 @Traced 메서드를 try/catch 로 감싼 하위 클래스(TracedOrderControllerV7)를 생성하고,
+ * 요청 매핑이 있으므로 그 클래스가 @RestController 로 등록됩니다.
+ */
+public class OrderControllerV7 {
+
+    private final OrderServiceV7 orderService;
+
+    public OrderControllerV7(OrderServiceV7 orderService) {
+        this.orderService = orderService;
+    }
+
+    /**
+     * 주문 요청
+     * @param itemId 상품 아이디
+     * @return 결과
+     */
+    @GetMapping("/v7/request")
+    @Traced("OrderControllerV7.request()")
+    public String request(String itemId) {
+        orderService.orderItem(itemId);
+        return "ok";
+    }
+}
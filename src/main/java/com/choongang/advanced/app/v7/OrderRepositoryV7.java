@@ -0,0 +1,31 @@
+package com.choongang.advanced.app.v7;
+
+import com.choongang.advanced.trace.annotation.Traced;
+
+/**
+ * @Traced 로 추적하는 저장소
+ * 스테레오타입을 붙이지 않습니다. 컴파일할 때 생성되는 TracedOrderRepositoryV7 이 빈으로 등록됩니다.
+ */
+public class OrderRepositoryV7 {
+
+    /**
+     * 주문 아이템 저장
+     * @param itemId 상품 아이디
+     */
+    @Traced("OrderRepositoryV7.save()")
+    public void save(String itemId) {
+        // 저장 로직
+        if (itemId.equals("ex")) {
+            throw new IllegalStateException("예외 발생!");
+        }
+        sleep(1000); // 1초 대기
+    }
+
+    private void sleep(int millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
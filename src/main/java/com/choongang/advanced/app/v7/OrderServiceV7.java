@@ -0,0 +1,24 @@
+package com.choongang.advanced.app.v7;
+
+import com.choongang.advanced.trace.annotation.Traced;
+
+/**
+ * @Traced 로 추적하는 서비스 (TracedOrderServiceV7 이 빈으로 등록됨)
+ */
+public class OrderServiceV7 {
+
+    private final OrderRepositoryV7 orderRepository;
+
+    public OrderServiceV7(OrderRepositoryV7 orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * 주문 아이템
+     * @param itemId 상품 아이디
+     */
+    @Traced("OrderServiceV7.orderItem()")
+    public void orderItem(String itemId) {
+        orderRepository.save(itemId);
+    }
+}
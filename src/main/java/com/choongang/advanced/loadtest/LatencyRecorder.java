@@ -0,0 +1,51 @@
+package com.choongang.advanced.loadtest;
+
+import com.choongang.advanced.trace.metrics.HistogramSnapshot;
+import com.choongang.advanced.trace.metrics.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 부하 테스트 응답 시간 기록기 (마이크로초 단위 LatencyHistogram)
+ *
+ * coordinated omission 보정: 닫힌 루프에서는 느린 응답을 기다리는 동안 보내지 못한 요청이 측정에서 빠지므로,
+ * 응답 시간이 예정 간격(expectedInterval)보다 길면 그 사이에 보냈어야 할 요청들의 응답 시간(latency - k * interval)을 함께 기록합니다.
+ * (HdrHistogram recordValueWithExpectedInterval 과 같은 방식)
+ * 열린 루프는 예정 시각부터 응답 시간을 재므로 보정이 필요 없습니다.
+ */
+public class LatencyRecorder {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LongAdder completed = new LongAdder(); // 보정으로 채운 값은 제외한 실제 응답 수
+    private final LongAdder errors = new LongAdder();
+
+    public void record(long latencyNanos, boolean error) {
+        histogram.record(latencyNanos / 1_000, error);
+        completed.increment();
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    public void recordCorrected(long latencyNanos, long expectedIntervalNanos, boolean error) {
+        record(latencyNanos, error);
+        if (expectedIntervalNanos <= 0) {
+            return;
+        }
+        for (long missing = latencyNanos - expectedIntervalNanos; missing >= expectedIntervalNanos; missing -= expectedIntervalNanos) {
+            histogram.record(missing / 1_000, false);
+        }
+    }
+
+    public HistogramSnapshot snapshot() {
+        return histogram.snapshot();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,193 @@
+package com.choongang.advanced.loadtest;
+
+import com.choongang.advanced.AdvancedApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * /v0/request ~ /v5/request, /v7/request 에 같은 부하를 차례로 걸어 추적 방식별 처리량과 응답 시간을 비교하는 부하 생성기입니다.
+ *
+ * <pre>
+ * ./gradlew loadTest --args="--mode=open --rate=50 --duration=20"
+ * ./gradlew loadTest --args="--mode=closed --rate=50 --concurrency=25 --trace.sink=async"
+ * </pre>
+ *
+ * --mode=open   : 열린 루프. 초당 rate 개를 일정 간격으로 보내고 응답을 기다리지 않습니다. 응답 시간은 예정 시각부터 잽니다.
+ * --mode=closed : 닫힌 루프. concurrency 개 작업자가 각자 (concurrency / rate) 초 간격으로 보내되 응답을 받은 뒤에 다음 요청을 보냅니다.
+ *                 응답이 늦어 못 보낸 요청은 LatencyRecorder 가 coordinated omission 보정으로 채웁니다.
+ * --url         : 이미 떠 있는 서버를 대상으로 함. 없으면 내장 서버를 임의 포트로 띄웁니다.
+ * --versions, --warmup(초), --duration(초) 외의 인자(--trace.sink=async 등)는 내장 서버의 설정으로 넘깁니다.
+ *
+ * 부하 생성기와 서버가 같은 JVM 의 CPU 를 나눠 쓰므로, 절대값보다 v0 대비 차이를 보는 용도입니다.
+ */
+public class LoadGenerator {
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicLong itemSequence = new AtomicLong();
+
+    private final String baseUrl;
+    private final String mode;
+    private final double rate;
+    private final int concurrency;
+
+    public LoadGenerator(String baseUrl, String mode, double rate, int concurrency) {
+        if (!mode.equals("open") && !mode.equals("closed")) {
+            throw new IllegalArgumentException("mode 는 open 또는 closed 입니다. mode=" + mode);
+        }
+        if (rate <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("rate, concurrency 는 0 보다 커야 합니다.");
+        }
+        this.baseUrl = baseUrl;
+        this.mode = mode;
+        this.rate = rate;
+        this.concurrency = concurrency;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String mode = "open";
+        double rate = 50;
+        int concurrency = 25;
+        long warmupSeconds = 5;
+        long durationSeconds = 20;
+        String url = null;
+        List<String> versions = List.of("v0", "v1", "v2", "v3", "v4", "v5", "v7");
+        List<String> serverArgs = new ArrayList<>();
+        serverArgs.add("--server.port=0");
+
+        for (String arg : args) {
+            String[] pair = arg.split("=", 2);
+            String value = pair.length == 2 ? pair[1] : "";
+            switch (pair[0]) {
+                case "--mode" -> mode = value;
+                case "--rate" -> rate = Double.parseDouble(value);
+                case "--concurrency" -> concurrency = Integer.parseInt(value);
+                case "--warmup" -> warmupSeconds = Long.parseLong(value);
+                case "--duration" -> durationSeconds = Long.parseLong(value);
+                case "--url" -> url = value;
+                case "--versions" -> versions = Arrays.asList(value.split(","));
+                default -> serverArgs.add(arg);
+            }
+        }
+
+        ConfigurableApplicationContext context = null;
+        if (url == null) {
+            context = SpringApplication.run(AdvancedApplication.class, serverArgs.toArray(new String[0]));
+            url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        }
+        try {
+            LoadGenerator generator = new LoadGenerator(url, mode, rate, concurrency);
+            List<LoadResult> results = new ArrayList<>();
+            for (String version : versions) {
+                generator.run(version, TimeUnit.SECONDS.toNanos(warmupSeconds));
+                results.add(generator.run(version, TimeUnit.SECONDS.toNanos(durationSeconds)));
+            }
+            System.out.printf("%nmode=%s rate=%.1f/s concurrency=%d duration=%ds%n%n", mode, rate, concurrency, durationSeconds);
+            System.out.print(LoadReport.format(results));
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+    }
+
+    /**
+     * version 엔드포인트에 durationNanos 동안 부하를 걸고, 보낸 요청의 응답이 모두 올 때까지 기다립니다.
+     */
+    public LoadResult run(String version, long durationNanos) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        long start = System.nanoTime();
+        if (mode.equals("open")) {
+            runOpen(version, start, durationNanos, recorder);
+        } else {
+            runClosed(version, start, durationNanos, recorder);
+        }
+        return new LoadResult(version, recorder.getCompleted(), recorder.getErrors(), System.nanoTime() - start, recorder.snapshot());
+    }
+
+    private void runOpen(String version, long start, long durationNanos, LatencyRecorder recorder) throws InterruptedException {
+        long interval = (long) (1_000_000_000L / rate);
+        Phaser outstanding = new Phaser(1);
+        for (long intended = start; intended - start < durationNanos; intended += interval) {
+            parkUntil(intended);
+            long intendedStart = intended; // 보내는 쪽이 늦어져도 예정 시각부터 재므로 지연이 측정에서 빠지지 않음
+            outstanding.register();
+            client.sendAsync(request(version), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        recorder.record(System.nanoTime() - intendedStart, e != null || response.statusCode() != 200);
+                        outstanding.arriveAndDeregister();
+                    });
+        }
+        outstanding.arriveAndAwaitAdvance();
+    }
+
+    private void runClosed(String version, long start, long durationNanos, LatencyRecorder recorder) throws InterruptedException {
+        long interval = (long) (concurrency * 1_000_000_000L / rate); // 작업자 하나의 예정 간격
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            long offset = interval * i / concurrency; // 작업자들의 시작을 고르게 분산
+            workers.execute(() -> {
+                try {
+                    for (long next = start + offset; next - start < durationNanos; next += interval) {
+                        parkUntil(next);
+                        long sent = System.nanoTime();
+                        boolean error = !send(version);
+                        long now = System.nanoTime();
+                        recorder.recordCorrected(now - sent, interval, error);
+                        if (now - next > interval) {
+                            next += (now - next) / interval * interval; // 늦어서 못 보낸 요청은 보정 값으로 대신하고 건너뜀
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        workers.shutdown();
+    }
+
+    private boolean send(String version) {
+        try {
+            return client.send(request(version), HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private HttpRequest request(String version) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/" + version + "/request?itemId=item" + itemSequence.incrementAndGet()))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private static void parkUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
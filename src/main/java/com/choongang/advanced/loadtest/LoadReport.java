@@ -0,0 +1,60 @@
+package com.choongang.advanced.loadtest;
+
+import java.util.List;
+
+/**
+ * 버전별 결과 표와, 추적하지 않는 v0 대비 각 추적 방식이 더한 처리량 / 꼬리 지연 차이를 출력합니다.
+ *
+ * <pre>
+ * version  req/s    p50(ms)  p90(ms)  p99(ms)  p99.9(ms)  max(ms)  errors
+ * v0       49.9     1001.5   1002.4   1004.1   1010.7     1012.3   0
+ * v5       49.8     1002.0   1003.1   1009.8   1020.4     1021.0   0
+ *
+ * delta vs v0  req/s    p50(ms)  p99(ms)  p99.9(ms)
+ * v5           -0.2%    +0.5     +5.7     +9.7
+ * </pre>
+ */
+public class LoadReport {
+
+    static final String BASELINE = "v0";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    public static String format(List<LoadResult> results) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-8s %-8s %-8s %-8s %-8s %-10s %-8s %s%n", "version", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "errors"));
+        for (LoadResult result : results) {
+            sb.append(String.format("%-8s %-8.1f", result.getVersion(), result.getThroughput()));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                sb.append(String.format(i == PERCENTILES.length - 1 ? " %-10.1f" : " %-8.1f", millis(result.latencyAt(PERCENTILES[i]))));
+            }
+            sb.append(String.format(" %-8.1f %d%n", millis(result.getMaxLatency()), result.getErrors()));
+        }
+
+        LoadResult baseline = results.stream().filter(result -> result.getVersion().equals(BASELINE)).findFirst().orElse(null);
+        if (baseline == null) {
+            return sb.toString();
+        }
+        sb.append(String.format("%n%-12s %-8s %-8s %-8s %s%n", "delta vs " + BASELINE, "req/s", "p50(ms)", "p99(ms)", "p99.9(ms)"));
+        for (LoadResult result : results) {
+            if (result == baseline) {
+                continue;
+            }
+            double throughputDelta = baseline.getThroughput() == 0 ? 0.0
+                    : (result.getThroughput() - baseline.getThroughput()) / baseline.getThroughput() * 100;
+            sb.append(String.format("%-12s %-8s %-8s %-8s %s%n", result.getVersion(),
+                    String.format("%+.1f%%", throughputDelta),
+                    latencyDelta(result, baseline, 50),
+                    latencyDelta(result, baseline, 99),
+                    latencyDelta(result, baseline, 99.9)));
+        }
+        return sb.toString();
+    }
+
+    private static String latencyDelta(LoadResult result, LoadResult baseline, double percentile) {
+        return String.format("%+.1f", millis(result.latencyAt(percentile) - baseline.latencyAt(percentile)));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+}
@@ -0,0 +1,47 @@
+package com.choongang.advanced.loadtest;
+
+import com.choongang.advanced.trace.metrics.HistogramSnapshot;
+
+/**
+ * 엔드포인트 하나의 측정 결과 (응답 시간은 마이크로초)
+ */
+public class LoadResult {
+
+    private final String version;
+    private final long completed;
+    private final long errors;
+    private final long elapsedNanos;
+    private final HistogramSnapshot latency;
+
+    public LoadResult(String version, long completed, long errors, long elapsedNanos, HistogramSnapshot latency) {
+        this.version = version;
+        this.completed = completed;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.latency = latency;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0.0 : completed * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public long latencyAt(double percentile) {
+        return latency.valueAtPercentile(percentile);
+    }
+
+    public long getMaxLatency() {
+        return latency.getMax();
+    }
+}
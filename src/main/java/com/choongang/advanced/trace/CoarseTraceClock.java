@@ -0,0 +1,45 @@
+package com.choongang.advanced.trace;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 백그라운드 데몬 스레드가 tick 마다 System.nanoTime()을 읽어 캐시해 두는 저비용 시계입니다.
+ * 요청 스레드는 volatile 필드 하나만 읽으므로 매우 뜨거운 경로에서 사용할 수 있지만,
+ * 정밀도는 tick 간격으로 떨어집니다. (tick 보다 짧은 span 은 0으로 측정될 수 있음)
+ */
+public class CoarseTraceClock implements TraceClock, AutoCloseable {
+
+    private final long tickNanos;
+    private final Thread ticker;
+    private volatile long now = System.nanoTime();
+    private volatile boolean running = true;
+
+    public CoarseTraceClock(long tick, TimeUnit unit) {
+        if (tick <= 0) {
+            throw new IllegalArgumentException("tick은 0보다 커야 합니다. tick=" + tick);
+        }
+        this.tickNanos = unit.toNanos(tick);
+        this.ticker = new Thread(this::tick, "trace-coarse-clock");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    private void tick() {
+        while (running) {
+            now = System.nanoTime();
+            LockSupport.parkNanos(tickNanos);
+        }
+    }
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+}
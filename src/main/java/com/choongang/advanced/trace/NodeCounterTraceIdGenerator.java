@@ -0,0 +1,41 @@
+package com.choongang.advanced.trace;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 노드 ID + 카운터 방식의 ID 생성기입니다.
+ * 상위 16비트는 노드(서버) ID, 하위 48비트는 카운터입니다.
+ * 같은 노드 안에서는 충돌이 없고, 노드 ID만 다르게 주면 여러 서버 사이에서도 충돌하지 않습니다.
+ *
+ * 카운터는 스레드마다 BLOCK_SIZE 만큼 미리 할당받아 사용하므로
+ * 공유 AtomicLong 은 BLOCK_SIZE 번에 한 번만 접근합니다.
+ */
+public class NodeCounterTraceIdGenerator implements TraceIdGenerator {
+
+    private static final int NODE_BITS = 16;
+    private static final int COUNTER_BITS = Long.SIZE - NODE_BITS;
+    private static final long COUNTER_MASK = (1L << COUNTER_BITS) - 1;
+    private static final int BLOCK_SIZE = 1024;
+
+    private final long nodePrefix;
+    private final AtomicLong nextBlock = new AtomicLong();
+    private final ThreadLocal<long[]> block = ThreadLocal.withInitial(() -> new long[2]); // [다음 값, 블록 끝]
+
+    public NodeCounterTraceIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId >= (1 << NODE_BITS)) {
+            throw new IllegalArgumentException("nodeId는 0 ~ 65535 사이여야 합니다. nodeId=" + nodeId);
+        }
+        this.nodePrefix = (long) nodeId << COUNTER_BITS;
+    }
+
+    @Override
+    public long nextId() {
+        long[] range = block.get();
+        if (range[0] == range[1]) {
+            long start = nextBlock.getAndAdd(BLOCK_SIZE);
+            range[0] = start == 0 ? 1 : start; // 0은 "ID 없음"으로 예약
+            range[1] = start + BLOCK_SIZE;
+        }
+        return nodePrefix | (range[0]++ & COUNTER_MASK);
+    }
+}
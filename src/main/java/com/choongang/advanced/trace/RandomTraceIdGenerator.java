@@ -0,0 +1,20 @@
+package com.choongang.advanced.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * ThreadLocalRandom 기반의 기본 ID 생성기입니다.
+ * UUID.randomUUID()는 공유 SecureRandom을 사용하기 때문에 요청이 몰리면 경합이 생기지만,
+ * ThreadLocalRandom은 스레드마다 시드를 따로 가지므로 락 없이 64비트 ID를 만들 수 있습니다.
+ */
+public class RandomTraceIdGenerator implements TraceIdGenerator {
+
+    @Override
+    public long nextId() {
+        long id;
+        do {
+            id = ThreadLocalRandom.current().nextLong();
+        } while (id == 0L); // 0은 "ID 없음"으로 예약
+        return id;
+    }
+}
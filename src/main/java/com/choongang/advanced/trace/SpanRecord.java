@@ -0,0 +1,69 @@
+package com.choongang.advanced.trace;
+
+/**
+ * 끝난 span 하나의 기록입니다. TraceTreeRenderer 의 입력으로 사용합니다.
+ */
+public class SpanRecord {
+
+    private final long traceId;
+    private final long spanId; // 0 이면 알 수 없음
+    private final long parentSpanId; // 루트 span 이면 0
+    private final int level;
+    private final String name;
+    private final String exception; // 정상 종료면 null
+    private final long startNanos;
+    private final long endNanos;
+
+    public SpanRecord(long traceId, long spanId, long parentSpanId, int level, String name, String exception,
+                      long startNanos, long endNanos) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.level = level;
+        this.name = name;
+        this.exception = exception;
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+    }
+
+    /**
+     * 끝난 span 의 TraceStatus 로 기록을 만듭니다.
+     */
+    public static SpanRecord of(TraceStatus status, long stopTimeNanos, Exception e) {
+        TraceId traceId = status.getTraceId();
+        return new SpanRecord(traceId.getIdValue(), traceId.getSpanId(), traceId.getParentSpanId(), traceId.getLevel(),
+                status.getMessage(), e == null ? null : e.toString(), status.getStartTimeNanos(), stopTimeNanos);
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public long getSpanId() {
+        return spanId;
+    }
+
+    public long getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getException() {
+        return exception;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+}
@@ -0,0 +1,38 @@
+package com.choongang.advanced.trace;
+
+/**
+ * span 하나가 쓴 스레드 CPU 시간과 할당 바이트입니다. (UsageTraceSink 가 채움)
+ *
+ * total 은 span 이 열려 있는 동안 그 스레드의 증가량, self 는 total 에서 같은 스레드의 자식 span total 을 뺀 값입니다.
+ * 할당 바이트를 잴 수 없는 JVM 이면 allocatedBytes, selfAllocatedBytes 는 -1 입니다.
+ */
+public class SpanUsage {
+
+    private final long cpuTimeNanos;
+    private final long selfCpuTimeNanos;
+    private final long allocatedBytes;
+    private final long selfAllocatedBytes;
+
+    public SpanUsage(long cpuTimeNanos, long selfCpuTimeNanos, long allocatedBytes, long selfAllocatedBytes) {
+        this.cpuTimeNanos = cpuTimeNanos;
+        this.selfCpuTimeNanos = selfCpuTimeNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.selfAllocatedBytes = selfAllocatedBytes;
+    }
+
+    public long getCpuTimeNanos() {
+        return cpuTimeNanos;
+    }
+
+    public long getSelfCpuTimeNanos() {
+        return selfCpuTimeNanos;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getSelfAllocatedBytes() {
+        return selfAllocatedBytes;
+    }
+}
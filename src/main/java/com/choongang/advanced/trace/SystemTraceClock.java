@@ -0,0 +1,12 @@
+package com.choongang.advanced.trace;
+
+/**
+ * System.nanoTime()을 그대로 사용하는 정밀 시계입니다.
+ */
+public class SystemTraceClock implements TraceClock {
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+}
@@ -0,0 +1,13 @@
+package com.choongang.advanced.trace;
+
+/**
+ * span 시간 측정에 사용하는 단조 증가(monotonic) 시계입니다.
+ * 벽시계(System.currentTimeMillis())와 달리 NTP 보정 등으로 뒤로 가지 않으므로 음수 시간이 나오지 않습니다.
+ *
+ * @see SystemTraceClock 정밀 모드
+ * @see CoarseTraceClock 캐시된 tick 모드
+ */
+public interface TraceClock {
+
+    long nanoTime(); // 임의 기준점으로부터의 나노초. 두 값의 차이만 의미가 있다.
+}
@@ -0,0 +1,106 @@
+package com.choongang.advanced.trace;
+
+import java.util.Arrays;
+
+/**
+ * 스레드마다 하나씩 두고 계속 재사용하는 가변 추적 컨텍스트입니다.
+ *
+ * level 별 TraceId, TraceStatus 를 배열로 미리 만들어 두기 때문에
+ * 한 번 도달한 깊이 안에서는 begin/end 가 객체를 새로 만들지 않습니다.
+ * 각 level 의 시작 시간은 해당 level 의 TraceStatus 에 primitive long 으로 저장됩니다.
+ *
+ * 주의: 반환한 TraceStatus 는 다음 요청에서 다시 사용되므로 end/exception 이후에는 보관하면 안 됩니다.
+ */
+public class TraceContext {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final TraceIdGenerator idGenerator;
+    private TraceId[] traceIds = new TraceId[0];
+    private TraceStatus[] statuses = new TraceStatus[0];
+    private int depth; // 현재 열려 있는 span 수 (0 이면 진행 중인 트랜잭션 없음)
+    private long currentId;
+
+    public TraceContext(TraceIdGenerator idGenerator) {
+        this.idGenerator = idGenerator;
+        ensureCapacity(INITIAL_CAPACITY);
+    }
+
+    /**
+     * 새 span 을 엽니다. 진행 중인 트랜잭션이 없으면 새 트랜잭션 ID를 발급합니다.
+     */
+    public TraceStatus push(String message, long startTimeNanos) {
+        if (depth == 0) {
+            currentId = idGenerator.nextId();
+        }
+        if (depth == statuses.length) {
+            ensureCapacity(depth * 2);
+        }
+        long parentSpanId = depth == 0 ? 0L : traceIds[depth - 1].getSpanId();
+        traceIds[depth].reuse(currentId, TraceId.nextSpanId(), parentSpanId);
+        TraceStatus status = statuses[depth];
+        status.reuse(startTimeNanos, message);
+        depth++;
+        return status;
+    }
+
+    /**
+     * span 을 닫습니다.
+     * 순서가 어긋나 상위 span 이 먼저 닫히면 아직 열려 있던 하위 span 도 함께 닫힌 것으로 처리하고,
+     * 이미 닫힌 span 을 다시 닫으려 하면 아무것도 바꾸지 않고 false 를 반환합니다.
+     */
+    public boolean pop(TraceStatus status) {
+        int level = status.getTraceId().getLevel();
+        if (level >= depth || statuses[level] != status) {
+            return false;
+        }
+        depth = level;
+        return true;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * 가장 안쪽에 열려 있는 span 의 TraceId 복사본. 다른 스레드로 넘길 때 사용합니다. 진행 중인 트랜잭션이 없으면 null
+     */
+    public TraceId snapshot() {
+        if (depth == 0) {
+            return null;
+        }
+        TraceId current = traceIds[depth - 1];
+        return new TraceId(currentId, depth - 1, current.getSpanId(), current.getParentSpanId());
+    }
+
+    /**
+     * 다른 스레드에서 캡처한 span 을 부모로 이어서 추적합니다. 비어 있는 컨텍스트에서만 사용합니다.
+     * 부모 level 까지의 자리는 채워 두기만 하고, 이후 push 는 parent 의 다음 level 부터 시작합니다.
+     */
+    public void attach(TraceId parent) {
+        int parentDepth = parent.getLevel() + 1;
+        if (parentDepth > statuses.length) {
+            ensureCapacity(Math.max(parentDepth, statuses.length * 2));
+        }
+        currentId = parent.getIdValue();
+        traceIds[parent.getLevel()].reuse(currentId, parent.getSpanId(), parent.getParentSpanId()); // 자식 span 의 parentSpanId
+        depth = parentDepth;
+    }
+
+    /**
+     * 진행 중인 span 을 모두 버립니다.
+     */
+    public void clear() {
+        depth = 0;
+    }
+
+    private void ensureCapacity(int capacity) {
+        int oldCapacity = statuses.length;
+        traceIds = Arrays.copyOf(traceIds, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        for (int level = oldCapacity; level < capacity; level++) {
+            traceIds[level] = new TraceId(level);
+            statuses[level] = new TraceStatus(traceIds[level], 0L, null);
+        }
+    }
+}
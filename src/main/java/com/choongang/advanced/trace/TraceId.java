@@ -1,31 +1,83 @@
 package com.choongang.advanced.trace;
 
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * 트랜잭션 ID(id) 와 깊이(level), 그리고 span 하나를 구분하는 spanId 와 부모 span 의 parentSpanId 를 가집니다.
+ * span 이 여러 스레드에서 끝나거나 순서가 섞여 출력되어도 spanId / parentSpanId 로 트리를 다시 만들 수 있습니다. (TraceTreeRenderer)
+ */
 public class TraceId {
-    private String id; // 트랜잭션 ID
-    private int level; // 깊이
+
+    private static final TraceIdGenerator DEFAULT_GENERATOR = new RandomTraceIdGenerator();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private long id; // 트랜잭션 ID (TraceContext 재사용 모드에서만 변경)
+    private final int level; // 깊이
+    private String hexId; // 로그 출력 시점에 한 번만 만드는 16진수 문자열
+    private long spanId; // 0 이면 알 수 없음 (이전 형식의 레코드)
+    private long parentSpanId; // 루트 span 이면 0
+    private final TraceId parent; // 닫을 때 돌아갈 부모 (createPreviousId)
 
     public TraceId() {
-        this.id = createId();
-        this.level = 0;
+        this(DEFAULT_GENERATOR);
+    }
+
+    public TraceId(TraceIdGenerator generator) {
+        this(generator.nextId(), 0, null, nextSpanId(), 0L, null);
+    }
+
+    /**
+     * 이미 알고 있는 트랜잭션 ID와 깊이로 TraceId 를 다시 만듭니다. span ID 는 알 수 없음(0)으로 둡니다.
+     */
+    public TraceId(long id, int level) {
+        this(id, level, 0L, 0L);
     }
 
-    private TraceId(String id, int level) {
+    /**
+     * 이미 알고 있는 값으로 TraceId 를 다시 만듭니다. (버퍼에 모아 둔 span 을 다시 출력할 때 사용)
+     */
+    public TraceId(long id, int level, long spanId, long parentSpanId) {
+        this(id, level, null, spanId, parentSpanId, null);
+    }
+
+    // TraceContext 가 level 별로 미리 만들어 두고 재사용하는 인스턴스
+    TraceId(int level) {
+        this(0L, level, null, 0L, 0L, null);
+    }
+
+    private TraceId(long id, int level, String hexId, long spanId, long parentSpanId, TraceId parent) {
         this.id = id;
         this.level = level;
+        this.hexId = hexId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.parent = parent;
     }
 
-    private String createId() {
-        return UUID.randomUUID().toString().substring(0, 8);
+    /**
+     * 재사용 인스턴스에 새 트랜잭션 ID와 span ID를 설정합니다. TraceContext 에서만 사용합니다.
+     */
+    void reuse(long id, long spanId, long parentSpanId) {
+        if (this.id != id) {
+            this.id = id;
+            this.hexId = null;
+        }
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
     }
 
     public TraceId createNextId() {
-        return new TraceId(id, level + 1);
+        return new TraceId(id, level + 1, hexId, nextSpanId(), spanId, this);
     }
 
+    /**
+     * 부모 span 의 TraceId 를 반환합니다. 부모를 모르면 (다시 만든 인스턴스) 같은 트랜잭션의 level - 1 을 새로 만듭니다.
+     */
     public TraceId createPreviousId() {
-        return new TraceId(id, level - 1);
+        if (parent != null) {
+            return parent;
+        }
+        return new TraceId(id, level - 1, hexId, 0L, 0L, null);
     }
 
     public boolean isFirstLevel() {
@@ -33,10 +85,58 @@ public class TraceId {
     }
 
     public String getId() {
+        String hex = hexId;
+        if (hex == null) {
+            hex = toHexId(id);
+            hexId = hex;
+        }
+        return hex;
+    }
+
+    public long getIdValue() {
         return id;
     }
 
     public int getLevel() {
         return level;
     }
+
+    public long getSpanId() {
+        return spanId;
+    }
+
+    public long getParentSpanId() {
+        return parentSpanId;
+    }
+
+    /**
+     * 로그 인자로 TraceId 자체를 넘기면 로그 레벨이 꺼져 있을 때는 문자열 변환이 일어나지 않습니다.
+     */
+    @Override
+    public String toString() {
+        return getId();
+    }
+
+    /**
+     * 0 이 아닌 span ID. 같은 트랜잭션 안에서만 구분되면 되므로 스레드별 난수로 충분합니다.
+     */
+    static long nextSpanId() {
+        long spanId;
+        do {
+            spanId = ThreadLocalRandom.current().nextLong();
+        } while (spanId == 0L);
+        return spanId;
+    }
+
+    /**
+     * 트랜잭션 ID를 로그에 출력하는 16자리 16진수 문자열로 변환합니다.
+     */
+    public static String toHexId(long value) {
+        char[] chars = new char[16];
+        for (int i = chars.length - 1; i >= 0; i--) {
+            chars[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return new String(chars);
+    }
 }
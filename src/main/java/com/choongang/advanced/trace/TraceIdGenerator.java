@@ -0,0 +1,13 @@
+package com.choongang.advanced.trace;
+
+/**
+ * 트랜잭션 ID 생성 전략입니다.
+ * TraceId는 ID를 primitive long 으로 보관하고, 로그가 실제로 출력될 때만 16진수 문자열로 변환합니다.
+ *
+ * @see RandomTraceIdGenerator
+ * @see NodeCounterTraceIdGenerator
+ */
+public interface TraceIdGenerator {
+
+    long nextId(); // 새로운 트랜잭션 ID를 생성하는 메서드
+}
@@ -0,0 +1,130 @@
+package com.choongang.advanced.trace;
+
+import java.util.List;
+
+/**
+ * 추적 로그 한 줄을 만드는 공용 인코더입니다.
+ *
+ * <pre>
+ * [0000000000000abc] |   |-->OrderRepositoryV5.save()
+ * [0000000000000abc] |   |<--OrderRepositoryV5.save() time=1002345us
+ * [0000000000000abc] |   |<X-OrderRepositoryV5.save() time=12us ex=java.lang.IllegalStateException: 예외 발생!
+ * [0000000000000abc] |   |<--OrderRepositoryV5.save() time=1002345us cpu=85us(self=85us) alloc=2048B(self=2048B)   (trace.usage.enabled=true)
+ * </pre>
+ *
+ * 들여쓰기("|   ...|-->")는 level, 접두사 종류별로 미리 만들어 두고, 줄은 스레드별로 재사용하는 StringBuilder 에 씁니다.
+ * 반환된 StringBuilder 는 같은 스레드에서 다음 encode 를 호출하기 전까지만 유효합니다.
+ */
+public final class TraceLineEncoder {
+
+    public static final String START_PREFIX = "-->";
+    public static final String COMPLETE_PREFIX = "<--";
+    public static final String EX_PREFIX = "<X-";
+
+    private static final int CACHED_LEVELS = 32;
+    private static final String[] START_SPACES = createSpaces(START_PREFIX);
+    private static final String[] COMPLETE_SPACES = createSpaces(COMPLETE_PREFIX);
+    private static final String[] EX_SPACES = createSpaces(EX_PREFIX);
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    private TraceLineEncoder() {
+    }
+
+    public static StringBuilder encodeBegin(long traceId, int level, String message) {
+        StringBuilder sb = start(traceId);
+        appendSpace(sb, START_SPACES, START_PREFIX, level);
+        return sb.append(message);
+    }
+
+    /**
+     * @param e 정상 종료면 null
+     */
+    public static StringBuilder encodeComplete(long traceId, int level, String message, long resultTimeUs, Exception e) {
+        StringBuilder sb = start(traceId);
+        if (e == null) {
+            appendSpace(sb, COMPLETE_SPACES, COMPLETE_PREFIX, level);
+            return sb.append(message).append(" time=").append(resultTimeUs).append("us");
+        }
+        appendSpace(sb, EX_SPACES, EX_PREFIX, level);
+        return sb.append(message).append(" time=").append(resultTimeUs).append("us ex=").append(e);
+    }
+
+    /**
+     * 예외 객체 없이 예외 설명 문자열만 있는 경우(바이너리 로그 디코딩 등)
+     */
+    public static StringBuilder encodeException(long traceId, int level, String message, long resultTimeUs, String exception) {
+        StringBuilder sb = start(traceId);
+        appendSpace(sb, EX_SPACES, EX_PREFIX, level);
+        return sb.append(message).append(" time=").append(resultTimeUs).append("us ex=").append(exception);
+    }
+
+    /**
+     * 완료 줄 뒤에 CPU 시간과 할당 바이트를 붙입니다. " cpu=120us(self=80us) alloc=2048B(self=1024B)"
+     */
+    public static StringBuilder appendUsage(StringBuilder sb, SpanUsage usage) {
+        sb.append(" cpu=").append(usage.getCpuTimeNanos() / 1_000).append("us(self=").append(usage.getSelfCpuTimeNanos() / 1_000).append("us)");
+        if (usage.getAllocatedBytes() >= 0) {
+            sb.append(" alloc=").append(usage.getAllocatedBytes()).append("B(self=").append(usage.getSelfAllocatedBytes()).append("B)");
+        }
+        return sb;
+    }
+
+    /**
+     * 완료 줄 뒤에 스택 샘플을 붙입니다. 첫 줄은 같은 줄에, 나머지는 같은 트랜잭션 ID 로 다음 줄에 씁니다.
+     * <pre>
+     * [0000000000000abc] |   |<--OrderRepositoryV5.save() time=3001234us samples=58 interval=50ms
+     * [0000000000000abc]    41 ( 70%) TIMED_WAITING java.lang.Thread.sleep <- ...OrderRepositoryV5.save:25 <- ...
+     * </pre>
+     */
+    public static StringBuilder appendProfile(StringBuilder sb, long traceId, List<String> profile) {
+        for (int i = 0; i < profile.size(); i++) {
+            if (i == 0) {
+                sb.append(' ');
+            } else {
+                appendTraceId(sb.append('\n'), traceId);
+            }
+            sb.append(profile.get(i));
+        }
+        return sb;
+    }
+
+    private static StringBuilder start(long traceId) {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        return appendTraceId(sb, traceId);
+    }
+
+    private static StringBuilder appendTraceId(StringBuilder sb, long traceId) {
+        sb.append('[');
+        for (int shift = 60; shift >= 0; shift -= 4) {
+            sb.append(HEX[(int) ((traceId >>> shift) & 0xF)]);
+        }
+        return sb.append("] ");
+    }
+
+    private static void appendSpace(StringBuilder sb, String[] cached, String prefix, int level) {
+        if (level < CACHED_LEVELS) {
+            sb.append(cached[level]);
+            return;
+        }
+        sb.append(buildSpace(prefix, level));
+    }
+
+    private static String[] createSpaces(String prefix) {
+        String[] spaces = new String[CACHED_LEVELS];
+        for (int level = 0; level < CACHED_LEVELS; level++) {
+            spaces[level] = buildSpace(prefix, level);
+        }
+        return spaces;
+    }
+
+    private static String buildSpace(String prefix, int level) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < level; i++) {
+            sb.append(i == level - 1 ? "|" + prefix : "|   ");
+        }
+        return sb.toString();
+    }
+}
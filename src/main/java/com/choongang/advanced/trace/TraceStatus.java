@@ -1,26 +1,74 @@
 package com.choongang.advanced.trace;
 
+import java.util.List;
+
 public class TraceStatus {
 
     private TraceId traceId; // 트랜잭션 ID
-    private Long startTimeMs; // 시작 시간
+    private long startTimeNanos; // 시작 시간 (TraceClock 기준 나노초)
     private String message; // 메시지
+    private SpanUsage usage; // CPU 시간 / 할당 바이트. 측정하지 않으면 null (UsageTraceSink)
+    private List<String> profile; // 스택 샘플 출력 줄. 샘플이 없으면 null (InFlightTraceSink)
+    private Object owner; // 이 상태를 반환한 LogTrace. SwitchableLogTrace 가 종료를 시작한 구현으로 보낼 때 사용
 
-    public TraceStatus(TraceId traceId, Long startTimeMs, String message) {
+    public TraceStatus(TraceId traceId, long startTimeNanos, String message) {
         this.traceId = traceId;
-        this.startTimeMs = startTimeMs;
+        this.startTimeNanos = startTimeNanos;
+        this.message = message;
+    }
+
+    /**
+     * 재사용 인스턴스의 값을 교체합니다. TraceContext 에서만 사용합니다.
+     */
+    void reuse(long startTimeNanos, String message) {
+        this.startTimeNanos = startTimeNanos;
         this.message = message;
+        this.usage = null;
+        this.profile = null;
     }
 
     public TraceId getTraceId() {
         return traceId;
     }
 
-    public Long getStartTimeMs() {
-        return startTimeMs;
+    public long getStartTimeNanos() {
+        return startTimeNanos;
     }
 
     public String getMessage() {
         return message;
     }
+
+    public SpanUsage getUsage() {
+        return usage;
+    }
+
+    /**
+     * span 을 닫을 때 출력 전에 설정합니다.
+     */
+    public void setUsage(SpanUsage usage) {
+        this.usage = usage;
+    }
+
+    public Object getOwner() {
+        return owner;
+    }
+
+    /**
+     * LogTrace 구현이 begin / detach 에서 반환하기 전에 자신으로 설정합니다. 감싸는 구현은 자신으로 덮어씁니다.
+     */
+    public void setOwner(Object owner) {
+        this.owner = owner;
+    }
+
+    public List<String> getProfile() {
+        return profile;
+    }
+
+    /**
+     * span 을 닫을 때 출력 전에 설정합니다.
+     */
+    public void setProfile(List<String> profile) {
+        this.profile = profile;
+    }
 }
@@ -0,0 +1,101 @@
+package com.choongang.advanced.trace;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 순서 없이 섞여 들어온 span 기록으로 트랜잭션별 --> / <-- 트리 로그를 다시 만듭니다.
+ *
+ * span ID 가 있으면 parentSpanId 로 트리를 만들고 형제 span 은 시작 시간 순으로 출력하므로,
+ * 여러 스레드에서 동시에 실행된 하위 span 도 부모 아래에 하나씩 묶여 출력됩니다.
+ * span ID 가 없는 이전 형식의 기록은 시작 시간과 level 만으로 순서를 추정합니다.
+ */
+public final class TraceTreeRenderer {
+
+    private static final Comparator<SpanRecord> START_ORDER =
+            Comparator.comparingLong(SpanRecord::getStartNanos).thenComparingInt(SpanRecord::getLevel);
+
+    private TraceTreeRenderer() {
+    }
+
+    public static List<String> render(Collection<SpanRecord> spans) {
+        Map<Long, List<SpanRecord>> traces = spans.stream()
+                .sorted(START_ORDER)
+                .collect(LinkedHashMap::new, (map, span) -> map.computeIfAbsent(span.getTraceId(), id -> new ArrayList<>()).add(span), Map::putAll);
+
+        List<String> lines = new ArrayList<>();
+        for (List<SpanRecord> trace : traces.values()) {
+            if (trace.stream().allMatch(span -> span.getSpanId() != 0L)) {
+                renderTree(trace, lines);
+            } else {
+                renderByLevel(trace, lines);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * trace 는 시작 시간 순으로 정렬되어 있어야 합니다. 부모가 없는 span(루트 또는 부모 기록이 유실된 span)부터 출력합니다.
+     */
+    private static void renderTree(List<SpanRecord> trace, List<String> lines) {
+        Map<Long, SpanRecord> bySpanId = new HashMap<>();
+        for (SpanRecord span : trace) {
+            bySpanId.put(span.getSpanId(), span);
+        }
+        Map<Long, List<SpanRecord>> children = new HashMap<>();
+        List<SpanRecord> roots = new ArrayList<>();
+        for (SpanRecord span : trace) {
+            if (bySpanId.containsKey(span.getParentSpanId())) {
+                children.computeIfAbsent(span.getParentSpanId(), id -> new ArrayList<>()).add(span);
+            } else {
+                roots.add(span);
+            }
+        }
+        for (SpanRecord root : roots) {
+            renderSubtree(root, root.getLevel(), children, lines);
+        }
+    }
+
+    private static void renderSubtree(SpanRecord span, int level, Map<Long, List<SpanRecord>> children, List<String> lines) {
+        lines.add(beginLine(span, level));
+        for (SpanRecord child : children.getOrDefault(span.getSpanId(), List.of())) {
+            renderSubtree(child, level + 1, children, lines);
+        }
+        lines.add(completeLine(span, level));
+    }
+
+    private static void renderByLevel(List<SpanRecord> trace, List<String> lines) {
+        Deque<SpanRecord> open = new ArrayDeque<>();
+        for (SpanRecord span : trace) {
+            while (!open.isEmpty() && open.peek().getLevel() >= span.getLevel()) {
+                SpanRecord closed = open.pop();
+                lines.add(completeLine(closed, closed.getLevel()));
+            }
+            lines.add(beginLine(span, span.getLevel()));
+            open.push(span);
+        }
+        while (!open.isEmpty()) {
+            SpanRecord closed = open.pop();
+            lines.add(completeLine(closed, closed.getLevel()));
+        }
+    }
+
+    private static String beginLine(SpanRecord span, int level) {
+        return TraceLineEncoder.encodeBegin(span.getTraceId(), level, span.getName()).toString();
+    }
+
+    private static String completeLine(SpanRecord span, int level) {
+        long resultTimeUs = (span.getEndNanos() - span.getStartNanos()) / 1_000;
+        if (span.getException() == null) {
+            return TraceLineEncoder.encodeComplete(span.getTraceId(), level, span.getName(), resultTimeUs, null).toString();
+        }
+        return TraceLineEncoder.encodeException(span.getTraceId(), level, span.getName(), resultTimeUs, span.getException()).toString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.choongang.advanced.trace.concurrent;
+
+import com.choongang.advanced.trace.logtrace.LogTrace;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 작업을 제출하는 시점의 추적 컨텍스트를 캡처해, 작업 스레드에서 실행하는 동안 복원하는 ExecutorService 입니다.
+ * 작업이 끝나면 작업 스레드의 컨텍스트는 원래대로 돌아가므로 스레드 풀에 상태가 남지 않습니다.
+ *
+ * submit, invokeAll 등은 모두 execute 를 거치므로 execute 에서만 감싸면 됩니다.
+ * CompletableFuture 의 xxxAsync 메서드에 넘기면 각 단계도 같은 트랜잭션으로 추적됩니다.
+ */
+public class TraceExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final LogTrace trace;
+
+    public TraceExecutorService(ExecutorService delegate, LogTrace trace) {
+        this.delegate = delegate;
+        this.trace = trace;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        delegate.execute(trace.wrap(command));
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
@@ -1,6 +1,9 @@
 package com.choongang.advanced.trace.hellotrace;
 
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceClock;
 import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceLineEncoder;
 import com.choongang.advanced.trace.TraceStatus;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -9,15 +12,15 @@ import org.springframework.stereotype.Component;
 @Component
 public class HelloTraceV1 {
 
-    private static final String START_PREFIX = "-->";
-    private static final String COMPLETE_PREFIX = "<--";
-    private static final String EX_PREFIX = "<X-";
+    private final TraceClock clock = new SystemTraceClock(); // span 시간 측정용 단조 시계
 
     public TraceStatus begin(String message) {
         TraceId traceId = new TraceId();
-        long startTimeMs = System.currentTimeMillis();
-        log.info("[{}] {}{}", traceId.getId(), addSpace(START_PREFIX, traceId.getLevel()), message);
-        return new TraceStatus(traceId, startTimeMs, message);
+        long startTimeNanos = clock.nanoTime();
+        if (log.isInfoEnabled()) {
+            log.info(TraceLineEncoder.encodeBegin(traceId.getIdValue(), traceId.getLevel(), message).toString());
+        }
+        return new TraceStatus(traceId, startTimeNanos, message);
     }
 
     public void end(TraceStatus status) {
@@ -25,26 +28,16 @@ public class HelloTraceV1 {
     }
 
     private void complete(TraceStatus status, Exception e) {
-        long stopTimeMs = System.currentTimeMillis();
-        long resultTimeMs = stopTimeMs - status.getStartTimeMs();
+        long stopTimeNanos = clock.nanoTime();
+        long resultTimeUs = (stopTimeNanos - status.getStartTimeNanos()) / 1_000;
         TraceId traceId = status.getTraceId();
 
-        if (e == null) {
-            log.info("[{}] {}{} time={}ms", traceId.getId(), addSpace(COMPLETE_PREFIX, traceId.getLevel()), status.getMessage(), resultTimeMs);
-        } else {
-            log.info("[{}] {}{} time={}ms ex={}", traceId.getId(), addSpace(EX_PREFIX, traceId.getLevel()), status.getMessage(), resultTimeMs, e.toString());
+        if (log.isInfoEnabled()) {
+            log.info(TraceLineEncoder.encodeComplete(traceId.getIdValue(), traceId.getLevel(), status.getMessage(), resultTimeUs, e).toString());
         }
 
     }
 
-    private static String addSpace(String prefix, int level) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < level; i++) {
-            sb.append(i == level - 1 ? "|" + prefix : "|   ");
-        }
-        return sb.toString();
-    }
-
     public void exception(TraceStatus status, Exception e) {
         complete(status, e);
     }
@@ -0,0 +1,30 @@
+package com.choongang.advanced.trace.inflight;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 진행 중인 span 조회
+ *
+ * GET /trace/inflight : 열린 span 수, 등록하지 못한 수, 멈춘 것으로 경고한 수, 트랜잭션별 열린 span 트리
+ */
+@RestController
+@RequiredArgsConstructor
+public class InFlightController {
+
+    private final InFlightRegistry registry;
+
+    @GetMapping("/trace/inflight")
+    public Map<String, Object> inflight() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("open", registry.size());
+        result.put("dropped", registry.getDroppedCount());
+        result.put("stuck", registry.getStuckCount());
+        result.put("spans", registry.dump());
+        return result;
+    }
+}
@@ -0,0 +1,242 @@
+package com.choongang.advanced.trace.inflight;
+
+import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceLineEncoder;
+import com.choongang.advanced.trace.TraceStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 지금 열려 있는 span 목록입니다. 트랜잭션별로 모으면 진행 중인 루트 트랜잭션과 그 span 스택(트리)이 됩니다.
+ *
+ * 크기가 고정된 AtomicReferenceArray 를 spanId 해시로 여는 주소 방식 테이블로 씁니다.
+ * 등록은 빈 칸 CAS 한 번, 해제는 같은 spanId 칸을 찾아 CAS 한 번이고 잠금이나 추가 메모리 할당(OpenSpan 제외)이 없습니다.
+ * 탐색 길이를 MAX_PROBES 로 제한하므로 가득 차면 등록하지 않고 droppedCount 만 올립니다. (메모리는 capacity 칸으로 고정)
+ *
+ * 감시 스레드가 checkInterval 마다 열린 지 stuckThreshold 를 넘은 span 을 찾아 그 트랜잭션의 트리와 함께 한 번씩 경고합니다.
+ */
+@Slf4j
+public class InFlightRegistry implements AutoCloseable {
+
+    static final int MAX_PROBES = 16;
+
+    private final AtomicReferenceArray<OpenSpan> slots;
+    private final int mask;
+    private final long stuckThresholdNanos;
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder stuckCount = new LongAdder();
+    private final ScheduledExecutorService watchdog; // checkInterval <= 0 이면 null
+
+    /**
+     * @param capacity 2의 거듭제곱으로 올림
+     * @param checkInterval 0 이하면 감시 스레드를 띄우지 않음
+     */
+    public InFlightRegistry(int capacity, long stuckThreshold, long checkInterval, TimeUnit unit) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity 는 0 보다 커야 합니다. capacity=" + capacity);
+        }
+        int size = Math.max(MAX_PROBES, Integer.highestOneBit(capacity - 1) << 1);
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.stuckThresholdNanos = unit.toNanos(stuckThreshold);
+        if (checkInterval > 0) {
+            this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "trace-inflight-watchdog");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.watchdog.scheduleWithFixedDelay(() -> checkStuck(System.nanoTime()), checkInterval, checkInterval, unit);
+        } else {
+            this.watchdog = null;
+        }
+    }
+
+    public void register(TraceStatus status) {
+        TraceId traceId = status.getTraceId();
+        long spanId = traceId.getSpanId();
+        if (spanId == 0L) {
+            return; // 구분할 수 없는 span (NoopLogTrace 등)
+        }
+        OpenSpan span = new OpenSpan(traceId.getIdValue(), spanId, traceId.getParentSpanId(), traceId.getLevel(),
+                status.getMessage(), status.getStartTimeNanos(), Thread.currentThread());
+        int start = index(spanId);
+        for (int i = 0; i < MAX_PROBES; i++) {
+            int slot = (start + i) & mask;
+            if (slots.get(slot) == null && slots.compareAndSet(slot, null, span)) {
+                return;
+            }
+        }
+        droppedCount.increment();
+    }
+
+    /**
+     * 해제로 생긴 빈 칸 뒤에 다른 span 이 있을 수 있으므로 빈 칸에서 멈추지 않고 MAX_PROBES 칸을 모두 봅니다.
+     * @return 지운 span. 등록되지 않았으면 null
+     */
+    public OpenSpan unregister(TraceStatus status) {
+        long spanId = status.getTraceId().getSpanId();
+        if (spanId == 0L) {
+            return null;
+        }
+        int start = index(spanId);
+        for (int i = 0; i < MAX_PROBES; i++) {
+            int slot = (start + i) & mask;
+            OpenSpan span = slots.get(slot);
+            if (span != null && span.getSpanId() == spanId) {
+                return slots.compareAndSet(slot, span, null) ? span : null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * span 이 시작 스레드를 떠났음을 표시합니다. 이후 StackSampler 는 이 span 을 샘플링하지 않습니다.
+     */
+    public void markDetached(TraceStatus status) {
+        long spanId = status.getTraceId().getSpanId();
+        if (spanId == 0L) {
+            return;
+        }
+        int start = index(spanId);
+        for (int i = 0; i < MAX_PROBES; i++) {
+            OpenSpan span = slots.get((start + i) & mask);
+            if (span != null && span.getSpanId() == spanId) {
+                span.detached = true;
+                return;
+            }
+        }
+    }
+
+    public List<OpenSpan> snapshot() {
+        List<OpenSpan> spans = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            OpenSpan span = slots.get(i);
+            if (span != null) {
+                spans.add(span);
+            }
+        }
+        return spans;
+    }
+
+    public int size() {
+        return snapshot().size();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    public long getStuckCount() {
+        return stuckCount.sum();
+    }
+
+    /**
+     * 트랜잭션별 열린 span 트리. 먼저 시작한 트랜잭션부터 출력합니다.
+     * <pre>
+     * [0000000000000abc] OrderControllerV5.request() elapsed=5123ms thread=http-nio-8080-exec-1 STUCK
+     * [0000000000000abc] |-->OrderServiceV5.orderItem() elapsed=5122ms thread=http-nio-8080-exec-1 STUCK
+     * </pre>
+     */
+    public List<String> dump() {
+        long now = System.nanoTime();
+        List<String> lines = new ArrayList<>();
+        for (List<OpenSpan> spans : groupByTrace(snapshot()).values()) {
+            appendTree(lines, spans, now);
+        }
+        return lines;
+    }
+
+    /**
+     * 열린 지 stuckThreshold 를 넘었고 아직 경고하지 않은 span 이 있는 트랜잭션을 경고합니다.
+     */
+    void checkStuck(long nowNanos) {
+        for (List<OpenSpan> spans : groupByTrace(snapshot()).values()) {
+            boolean found = false;
+            for (OpenSpan span : spans) {
+                if (!span.reported && isStuck(span, nowNanos)) {
+                    span.reported = true;
+                    stuckCount.increment();
+                    found = true;
+                }
+            }
+            if (found) {
+                List<String> lines = new ArrayList<>();
+                appendTree(lines, spans, nowNanos);
+                log.warn("{}ms 넘게 끝나지 않은 span 이 있습니다.\n{}", TimeUnit.NANOSECONDS.toMillis(stuckThresholdNanos), String.join("\n", lines));
+            }
+        }
+    }
+
+    private boolean isStuck(OpenSpan span, long nowNanos) {
+        return nowNanos - span.getStartTimeNanos() > stuckThresholdNanos;
+    }
+
+    private static Map<Long, List<OpenSpan>> groupByTrace(List<OpenSpan> spans) {
+        spans.sort(Comparator.comparingLong(OpenSpan::getStartTimeNanos));
+        Map<Long, List<OpenSpan>> traces = new LinkedHashMap<>();
+        for (OpenSpan span : spans) {
+            traces.computeIfAbsent(span.getTraceId(), key -> new ArrayList<>()).add(span);
+        }
+        return traces;
+    }
+
+    /**
+     * parentSpanId 로 트리를 만들어 깊이 우선으로 출력합니다.
+     * 부모가 목록에 없으면(루트이거나 부모를 등록하지 못함) 그 span 부터 새 트리로 봅니다.
+     */
+    private void appendTree(List<String> lines, List<OpenSpan> spans, long nowNanos) {
+        Set<Long> spanIds = new HashSet<>();
+        Map<Long, List<OpenSpan>> children = new HashMap<>();
+        for (OpenSpan span : spans) {
+            spanIds.add(span.getSpanId());
+        }
+        List<OpenSpan> roots = new ArrayList<>();
+        for (OpenSpan span : spans) {
+            if (spanIds.contains(span.getParentSpanId())) {
+                children.computeIfAbsent(span.getParentSpanId(), key -> new ArrayList<>()).add(span);
+            } else {
+                roots.add(span);
+            }
+        }
+        for (OpenSpan root : roots) {
+            appendSpan(lines, root, children, nowNanos);
+        }
+    }
+
+    private void appendSpan(List<String> lines, OpenSpan span, Map<Long, List<OpenSpan>> children, long nowNanos) {
+        StringBuilder line = TraceLineEncoder.encodeBegin(span.getTraceId(), span.getLevel(), span.getMessage())
+                .append(" elapsed=").append(span.elapsedMillis(nowNanos)).append("ms thread=").append(span.getThreadName());
+        if (isStuck(span, nowNanos)) {
+            line.append(" STUCK");
+        }
+        lines.add(line.toString());
+        for (OpenSpan child : children.getOrDefault(span.getSpanId(), List.of())) {
+            appendSpan(lines, child, children, nowNanos);
+        }
+    }
+
+    private int index(long spanId) {
+        long h = spanId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    @Override
+    public void close() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+    }
+}
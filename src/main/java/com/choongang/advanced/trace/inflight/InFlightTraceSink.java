@@ -0,0 +1,55 @@
+package com.choongang.advanced.trace.inflight;
+
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.sink.TraceSink;
+
+/**
+ * span 이 시작되면 InFlightRegistry 에 등록하고 끝나면 지운 뒤 target 으로 넘기는 데코레이터입니다.
+ * 테일 샘플링보다 바깥에 두어야 출력이 보류된 span 도 진행 중 목록에 나타납니다.
+ *
+ * 끝난 span 에 StackSampler 가 모은 스택 샘플이 있으면 TraceStatus.setProfile 로 붙여 target 으로 넘깁니다.
+ * 출력(log / async)은 완료 줄 뒤에 같은 트랜잭션 ID 로 붙여 쓰고, 테일 샘플링이 버린 트랜잭션의 샘플은 출력되지 않습니다.
+ * (binary 출력은 고정 길이 레코드라 샘플을 기록하지 않습니다.)
+ * <pre>
+ * [0000000000000abc] |   |<--OrderRepositoryV5.save() time=3001234us samples=58 interval=50ms
+ * [0000000000000abc]    41 ( 70%) TIMED_WAITING java.lang.Thread.sleep <- ...OrderRepositoryV5.save:25 <- ...
+ * </pre>
+ */
+public class InFlightTraceSink implements TraceSink, AutoCloseable {
+
+    private final TraceSink target;
+    private final InFlightRegistry registry;
+
+    public InFlightTraceSink(TraceSink target, InFlightRegistry registry) {
+        this.target = target;
+        this.registry = registry;
+    }
+
+    @Override
+    public void begin(TraceStatus status) {
+        registry.register(status);
+        target.begin(status);
+    }
+
+    @Override
+    public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+        OpenSpan span = registry.unregister(status);
+        if (span != null && span.profile != null) {
+            status.setProfile(span.profile.format());
+        }
+        target.complete(status, stopTimeNanos, e);
+    }
+
+    @Override
+    public void detach(TraceStatus status) {
+        registry.markDetached(status);
+        target.detach(status);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (target instanceof AutoCloseable) {
+            ((AutoCloseable) target).close();
+        }
+    }
+}
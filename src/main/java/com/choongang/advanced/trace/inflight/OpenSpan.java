@@ -0,0 +1,77 @@
+package com.choongang.advanced.trace.inflight;
+
+/**
+ * 아직 끝나지 않은 span 하나의 복사본입니다. (TraceStatus 는 재사용될 수 있으므로 필요한 값만 복사)
+ */
+public class OpenSpan {
+
+    private final long traceId;
+    private final long spanId;
+    private final long parentSpanId; // 루트 span 이면 0
+    private final int level;
+    private final String message;
+    private final long startTimeNanos;
+    private final Thread thread; // span 을 연 스레드
+    private final String threadName; // 열 때의 스레드 이름
+    volatile boolean reported; // 감시 스레드가 이미 경고했는지
+    volatile boolean detached; // detach 되어 thread 가 더는 이 span 을 실행하지 않음 (스택 샘플링 제외)
+    volatile StackProfile profile; // 예산을 넘겨 스택 샘플링을 시작하면 생성 (StackSampler)
+
+    OpenSpan(long traceId, long spanId, long parentSpanId, int level, String message, long startTimeNanos, Thread thread) {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.level = level;
+        this.message = message;
+        this.startTimeNanos = startTimeNanos;
+        this.thread = thread;
+        this.threadName = thread.getName();
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public long getSpanId() {
+        return spanId;
+    }
+
+    public long getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getStartTimeNanos() {
+        return startTimeNanos;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    Thread getThread() {
+        return thread;
+    }
+
+    /**
+     * 스택 샘플이 없으면 null
+     */
+    public StackProfile getProfile() {
+        return profile;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    public long elapsedMillis(long nowNanos) {
+        return (nowNanos - startTimeNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,65 @@
+package com.choongang.advanced.trace.inflight;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * span 하나에서 모은 스택 샘플입니다. 같은 스택(스레드 상태 + 위쪽 프레임)끼리 횟수를 셉니다.
+ * 서로 다른 스택은 maxStacks 개까지만 보관하고 나머지는 other 로 셉니다.
+ */
+public class StackProfile {
+
+    private final long intervalMillis;
+    private final int maxStacks;
+    private final Map<String, Integer> counts = new HashMap<>(); // this 로 보호
+    private int samples;
+    private int other;
+
+    StackProfile(long intervalMillis, int maxStacks) {
+        this.intervalMillis = intervalMillis;
+        this.maxStacks = maxStacks;
+    }
+
+    synchronized void add(String stack) {
+        samples++;
+        Integer count = counts.get(stack);
+        if (count != null) {
+            counts.put(stack, count + 1);
+        } else if (counts.size() < maxStacks) {
+            counts.put(stack, 1);
+        } else {
+            other++;
+        }
+    }
+
+    public synchronized int getSamples() {
+        return samples;
+    }
+
+    /**
+     * 많이 잡힌 스택부터
+     * <pre>
+     * samples=58 interval=50ms
+     *   41 ( 70%) TIMED_WAITING java.lang.Thread.sleep <- com.choongang...OrderRepositoryV5.save:25 <- ...
+     * </pre>
+     */
+    public synchronized List<String> format() {
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        List<String> lines = new ArrayList<>();
+        lines.add("samples=" + samples + " interval=" + intervalMillis + "ms");
+        for (Map.Entry<String, Integer> entry : entries) {
+            lines.add(line(entry.getValue(), entry.getKey()));
+        }
+        if (other > 0) {
+            lines.add(line(other, "(other)"));
+        }
+        return lines;
+    }
+
+    private String line(int count, String stack) {
+        return String.format("%5d (%3d%%) %s", count, count * 100 / samples, stack);
+    }
+}
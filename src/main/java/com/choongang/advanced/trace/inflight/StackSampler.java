@@ -0,0 +1,132 @@
+package com.choongang.advanced.trace.inflight;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 예산(budget)보다 오래 열려 있는 span 의 스레드 스택을 낮은 빈도로 샘플링합니다.
+ *
+ * 모든 요청이 데몬 스레드 하나("trace-stack-sampler")를 공유합니다. interval 마다 InFlightRegistry 의 열린 span 을 훑고
+ * 예산을 넘긴 span 이 있을 때만 그 스레드의 스택을 읽으므로, 예산 안에 끝나는 span 에는 샘플링 비용이 없습니다.
+ * 같은 스레드의 중첩 span 이 함께 예산을 넘기면 스택은 한 번만 읽어 모든 span 의 StackProfile 에 더합니다.
+ * 모은 샘플은 span 이 끝날 때 InFlightTraceSink 가 완료 기록에 붙여 출력합니다.
+ *
+ * span 을 연 스레드를 샘플링하므로 detach 된 span (executeFuture 등) 은 샘플링하지 않습니다.
+ * 시작 스레드는 이미 다른 요청을 처리하고 있어 그 스택은 이 span 과 상관이 없기 때문입니다. detach 전에 모은 샘플은 남깁니다.
+ */
+public class StackSampler implements AutoCloseable {
+
+    private final InFlightRegistry registry;
+    private final long defaultBudgetNanos;
+    private final Map<String, Long> budgetNanos; // span 이름별 예산
+    private final long intervalMillis;
+    private final int maxDepth;
+    private final int maxStacks;
+    private final ScheduledExecutorService sampler; // interval <= 0 이면 null
+
+    /**
+     * @param budgets span 이름(메시지)별 예산. 없으면 defaultBudget
+     * @param interval 0 이하면 샘플링 스레드를 띄우지 않음
+     * @param maxDepth 스택 하나에서 남길 위쪽 프레임 수
+     * @param maxStacks span 하나에서 구분해 셀 서로 다른 스택 수
+     */
+    public StackSampler(InFlightRegistry registry, long defaultBudget, Map<String, Long> budgets, long interval, TimeUnit unit,
+                        int maxDepth, int maxStacks) {
+        this.registry = registry;
+        this.defaultBudgetNanos = unit.toNanos(defaultBudget);
+        this.budgetNanos = new HashMap<>();
+        budgets.forEach((name, budget) -> budgetNanos.put(name, unit.toNanos(budget)));
+        this.intervalMillis = unit.toMillis(interval);
+        this.maxDepth = maxDepth;
+        this.maxStacks = maxStacks;
+        if (interval > 0) {
+            this.sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "trace-stack-sampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.sampler.scheduleWithFixedDelay(() -> sample(System.nanoTime()), interval, interval, unit);
+        } else {
+            this.sampler = null;
+        }
+    }
+
+    /**
+     * "OrderRepositoryV5.save()=200,OrderServiceV5.orderItem()=500" 형식의 span 이름별 예산을 읽습니다.
+     */
+    public static Map<String, Long> parseBudgets(String budgets) {
+        Map<String, Long> result = new HashMap<>();
+        for (String entry : budgets.split(",")) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                continue;
+            }
+            result.put(entry.substring(0, separator).trim(), Long.parseLong(entry.substring(separator + 1).trim()));
+        }
+        return result;
+    }
+
+    void sample(long nowNanos) {
+        Map<Thread, String> stacks = null; // 이번 회차에 읽은 스레드별 스택
+        for (OpenSpan span : registry.snapshot()) {
+            if (span.detached) {
+                continue;
+            }
+            long budget = budgetNanos.getOrDefault(span.getMessage(), defaultBudgetNanos);
+            if (nowNanos - span.getStartTimeNanos() <= budget) {
+                continue;
+            }
+            Thread thread = span.getThread();
+            if (stacks == null) {
+                stacks = new HashMap<>();
+            }
+            String stack = stacks.computeIfAbsent(thread, this::describe);
+            if (stack == null) {
+                continue; // 이미 끝난 스레드
+            }
+            StackProfile profile = span.profile;
+            if (profile == null) {
+                profile = new StackProfile(intervalMillis, maxStacks);
+                span.profile = profile;
+            }
+            profile.add(stack);
+        }
+    }
+
+    /**
+     * 스레드 상태와 위쪽 maxDepth 개 프레임. "TIMED_WAITING java.lang.Thread.sleep <- ...OrderRepositoryV5.save:25"
+     */
+    private String describe(Thread thread) {
+        Thread.State state = thread.getState();
+        StackTraceElement[] frames = thread.getStackTrace();
+        if (state == Thread.State.TERMINATED || frames.length == 0) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(state.name()).append(' ');
+        int depth = Math.min(frames.length, maxDepth);
+        for (int i = 0; i < depth; i++) {
+            if (i > 0) {
+                sb.append(" <- ");
+            }
+            StackTraceElement frame = frames[i];
+            sb.append(frame.getClassName()).append('.').append(frame.getMethodName());
+            if (frame.getLineNumber() > 0) {
+                sb.append(':').append(frame.getLineNumber());
+            }
+        }
+        if (frames.length > depth) {
+            sb.append(" <- ...");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+}
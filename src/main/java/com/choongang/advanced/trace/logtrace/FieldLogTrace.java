@@ -1,25 +1,36 @@
 package com.choongang.advanced.trace.logtrace;
 
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceClock;
 import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceLineEncoder;
 import com.choongang.advanced.trace.TraceStatus;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class FieldLogTrace implements LogTrace{
 
-    private static final String START_PREFIX = "-->";
-    private static final String COMPLETE_PREFIX = "<--";
-    private static final String EX_PREFIX = "<X-";
-
     private TraceId traceIdHolder; // TraceId를 보관하는 필드
 
+    private final TraceClock clock; // span 시간 측정용 단조 시계
+
+    public FieldLogTrace() {
+        this(new SystemTraceClock());
+    }
+
+    public FieldLogTrace(TraceClock clock) {
+        this.clock = clock;
+    }
+
     @Override
     public TraceStatus begin(String message) {
         syncTraceId();
         TraceId traceId = traceIdHolder;
-        long startTimeMs = System.currentTimeMillis();
-        log.info("[{}] {}{}", traceId.getId(), addSpace(START_PREFIX, traceId.getLevel()), message);
-        return new TraceStatus(traceId, startTimeMs, message);
+        long startTimeNanos = clock.nanoTime();
+        if (log.isInfoEnabled()) {
+            log.info(TraceLineEncoder.encodeBegin(traceId.getIdValue(), traceId.getLevel(), message).toString());
+        }
+        return new TraceStatus(traceId, startTimeNanos, message);
     }
 
     private void syncTraceId() {
@@ -36,14 +47,12 @@ public class FieldLogTrace implements LogTrace{
     }
 
     private void complete(TraceStatus status, Exception e) {
-        Long stopTimeMs = System.currentTimeMillis();
-        long resultTimeMs = stopTimeMs - status.getStartTimeMs();
+        long stopTimeNanos = clock.nanoTime();
+        long resultTimeUs = (stopTimeNanos - status.getStartTimeNanos()) / 1_000;
         TraceId traceId = status.getTraceId();
 
-        if (e == null) {
-            log.info("[{}] {}{} time={}ms", traceId.getId(), addSpace(COMPLETE_PREFIX, traceId.getLevel()), status.getMessage(), resultTimeMs);
-        } else {
-            log.info("[{}] {}{} time={}ms ex={}", traceId.getId(), addSpace(EX_PREFIX, traceId.getLevel()), status.getMessage(), resultTimeMs, e.toString());
+        if (log.isInfoEnabled()) {
+            log.info(TraceLineEncoder.encodeComplete(traceId.getIdValue(), traceId.getLevel(), status.getMessage(), resultTimeUs, e).toString());
         }
 
         releaseTraceId();
@@ -63,11 +72,8 @@ public class FieldLogTrace implements LogTrace{
         complete(status, e);
     }
 
-    private static String addSpace(String prefix, int level) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < level; i++) {
-            sb.append(i == level - 1 ? "|" + prefix : "|   ");
-        }
-        return sb.toString();
+    @Override
+    public boolean isActive() {
+        return traceIdHolder != null;
     }
 }
@@ -2,13 +2,86 @@ package com.choongang.advanced.trace.logtrace;
 
 import com.choongang.advanced.trace.TraceStatus;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 public interface LogTrace {
 
+    /**
+     * 반환하는 상태에는 TraceStatus.setOwner(this) 로 자신을 표시합니다. (SwitchableLogTrace 가 종료를 이 구현으로 보냄)
+     */
     TraceStatus begin(String message);
 
     void end(TraceStatus status);
 
     void exception(TraceStatus status, Exception e);
 
+    /**
+     * message 로 span 을 열고 body 를 실행한 뒤 닫습니다. body 가 예외를 던지면 예외로 닫고 다시 던집니다. (TraceTemplate.execute)
+     * 기본 구현은 begin / end 를 호출합니다. body 실행 동안 컨텍스트를 스코프에 묶는 구현(ScopedLogTrace)은 재정의합니다.
+     */
+    default <T> T execute(String message, Supplier<T> body) {
+        TraceStatus status = begin(message);
+        T result;
+        try {
+            result = body.get();
+        } catch (RuntimeException e) {
+            exception(status, e);
+            throw e;
+        }
+        end(status);
+        return result;
+    }
+
+    /**
+     * body 가 반환한 future 가 끝날 때 span 을 닫습니다. 호출 스레드의 컨텍스트는 body 가 반환하면 원래대로 돌아갑니다. (TraceTemplate.executeFuture)
+     */
+    default <T> CompletableFuture<T> executeFuture(String message, Supplier<CompletableFuture<T>> body) {
+        TraceStatus status = begin(message);
+        CompletableFuture<T> future;
+        try {
+            future = body.get();
+        } catch (RuntimeException e) {
+            exception(status, e);
+            throw e;
+        }
+        TraceStatus detached = detach(status);
+        return future.whenComplete((result, e) -> endDetached(detached, TraceExceptions.toException(e)));
+    }
+
+    /**
+     * 현재 스레드의 추적 컨텍스트를 캡처해, 다른 스레드에서 task 를 실행하는 동안 복원하는 Runnable 을 반환합니다.
+     * task 가 끝나면 실행 스레드의 컨텍스트는 원래대로 돌아갑니다.
+     * 기본 구현은 컨텍스트를 전파하지 않습니다.
+     */
+    default Runnable wrap(Runnable task) {
+        return task;
+    }
+
+    /**
+     * 비동기 span: begin 한 span 을 열어 둔 채로 현재 스레드의 컨텍스트만 begin 이전으로 되돌립니다.
+     * 반환한 TraceStatus 를 작업이 끝났을 때 endDetached 로 닫습니다. (어느 스레드에서 호출해도 됩니다)
+     */
+    default TraceStatus detach(TraceStatus status) {
+        return status;
+    }
+
+    /**
+     * detach 한 span 을 닫습니다. 스레드의 컨텍스트는 건드리지 않습니다. 정상 종료면 e == null
+     */
+    default void endDetached(TraceStatus status, Exception e) {
+        if (e == null) {
+            end(status);
+        } else {
+            exception(status, e);
+        }
+    }
+
+    /**
+     * 현재 스레드에 이 구현으로 시작해 아직 끝나지 않은 트랜잭션이 있는지 여부
+     */
+    default boolean isActive() {
+        return false;
+    }
 
 }
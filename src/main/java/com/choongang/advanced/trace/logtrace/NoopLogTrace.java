@@ -0,0 +1,35 @@
+package com.choongang.advanced.trace.logtrace;
+
+import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceStatus;
+
+/**
+ * 아무것도 하지 않는 LogTrace 입니다.
+ *
+ * 시간 측정, 포맷팅, 객체 생성, ThreadLocal 접근이 모두 없고 begin 은 항상 공유 NOOP 상태를 반환합니다.
+ * 스레드 상태를 두지 않으므로 isActive() 는 항상 false 입니다.
+ */
+public class NoopLogTrace implements LogTrace {
+
+    /**
+     * 모든 span 이 공유하는 상태 객체
+     */
+    public static final TraceStatus NOOP = new TraceStatus(new TraceId(0L, 0), 0L, "noop");
+
+    @Override
+    public TraceStatus begin(String message) {
+        return NOOP;
+    }
+
+    @Override
+    public void end(TraceStatus status) {
+    }
+
+    @Override
+    public void exception(TraceStatus status, Exception e) {
+    }
+
+    @Override
+    public void endDetached(TraceStatus status, Exception e) {
+    }
+}
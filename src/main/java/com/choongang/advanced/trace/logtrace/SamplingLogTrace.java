@@ -0,0 +1,137 @@
+package com.choongang.advanced.trace.logtrace;
+
+import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.sampling.TraceSampler;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 헤드 기반 샘플링 데코레이터입니다.
+ *
+ * 스레드에 진행 중인 트랜잭션이 없을 때(루트 begin) 한 번만 샘플링 여부를 결정합니다.
+ * 추적하지 않기로 한 트랜잭션의 하위 begin/end 는 target 을 호출하지 않고 공유 unsampled 상태만 반환하므로
+ * 포맷팅, 시간 측정, 객체 생성이 없습니다. 깊이는 계속 세기 때문에 다음 트랜잭션과 섞이지 않습니다.
+ */
+public class SamplingLogTrace implements LogTrace {
+
+    private final TraceStatus unsampled = new TraceStatus(new TraceId(() -> 0L), 0L, "unsampled"); // 추적하지 않는 트랜잭션의 span 이 공유
+    private final LogTrace target;
+    private final TraceSampler sampler;
+    private final ThreadLocal<int[]> stateHolder = ThreadLocal.withInitial(() -> new int[2]); // [깊이, 추적 여부(1/0)]
+
+    private final LongAdder sampledCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+
+    public SamplingLogTrace(LogTrace target, TraceSampler sampler) {
+        this.target = target;
+        this.sampler = sampler;
+        this.unsampled.setOwner(this);
+    }
+
+    /**
+     * 추적하지 않기로 한 트랜잭션의 span 인지 여부
+     */
+    public boolean isUnsampled(TraceStatus status) {
+        return status == unsampled;
+    }
+
+    @Override
+    public TraceStatus begin(String message) {
+        int[] state = stateHolder.get();
+        if (state[0] == 0) {
+            boolean sampled = sampler.sample(message);
+            state[1] = sampled ? 1 : 0;
+            (sampled ? sampledCount : droppedCount).increment();
+        }
+        if (state[1] == 0) {
+            state[0]++;
+            return unsampled;
+        }
+
+        TraceStatus status = target.begin(message); // 예외가 나면 깊이를 올리지 않음
+        status.setOwner(this);
+        state[0]++;
+        return status;
+    }
+
+    @Override
+    public void end(TraceStatus status) {
+        if (status != unsampled) {
+            target.end(status);
+        }
+        release(status);
+    }
+
+    @Override
+    public void exception(TraceStatus status, Exception e) {
+        if (status != unsampled) {
+            target.exception(status, e);
+        }
+        release(status);
+    }
+
+    @Override
+    public TraceStatus detach(TraceStatus status) {
+        TraceStatus detached = status == unsampled ? unsampled : target.detach(status);
+        detached.setOwner(this);
+        release(status);
+        return detached;
+    }
+
+    @Override
+    public void endDetached(TraceStatus status, Exception e) {
+        if (status != unsampled) {
+            target.endDetached(status, e);
+        }
+    }
+
+    @Override
+    public boolean isActive() {
+        return stateHolder.get()[0] > 0;
+    }
+
+    /**
+     * 샘플링 결정도 함께 넘깁니다. 추적하지 않는 트랜잭션의 작업은 다른 스레드에서도 추적하지 않습니다.
+     */
+    @Override
+    public Runnable wrap(Runnable task) {
+        int[] state = stateHolder.get();
+        if (state[0] == 0) {
+            return task;
+        }
+        int sampled = state[1];
+        Runnable inner = sampled == 1 ? target.wrap(task) : task;
+        return () -> {
+            int[] workerState = stateHolder.get();
+            int previousDepth = workerState[0];
+            int previousSampled = workerState[1];
+            workerState[0] = 1;
+            workerState[1] = sampled;
+            try {
+                inner.run();
+            } finally {
+                workerState[0] = previousDepth;
+                workerState[1] = previousSampled;
+            }
+        };
+    }
+
+    private void release(TraceStatus status) {
+        if (status == null) {
+            return; // begin 자체가 실패한 경우
+        }
+        int[] state = stateHolder.get();
+        if (status == unsampled ? state[1] == 0 : state[1] == 1) {
+            state[0] = Math.max(0, state[0] - 1);
+        }
+    }
+
+    public long getSampledCount() {
+        return sampledCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+}
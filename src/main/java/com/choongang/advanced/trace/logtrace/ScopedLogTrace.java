@@ -0,0 +1,120 @@
+package com.choongang.advanced.trace.logtrace;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceClock;
+import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceIdGenerator;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.sink.LogTraceSink;
+import com.choongang.advanced.trace.sink.TraceSink;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * 가상 스레드 환경을 위한 LogTrace 입니다.
+ *
+ * ThreadLocalLogTrace 는 스레드마다 TraceId 를 set/remove 하므로, 수많은 가상 스레드가 각자 ThreadLocalMap 엔트리를 갖고
+ * remove() 를 빠뜨리면 값이 남습니다. 이 구현은 execute() (TraceTemplate.execute) 로 span 을 열 때 TraceId 를 ScopedValue
+ * (TraceScope) 에 바인딩하고, 콜백이 끝나면 바인딩이 자동으로 풀립니다. 스코프 밖에서는 아무 상태도 남지 않습니다.
+ *
+ * begin/end 를 직접 호출하는 경우(V3, V4)에는 현재 스코프의 자식 span 으로 기록되지만 스코프를 열지 않으므로,
+ * 그 span 은 다른 span 의 부모가 될 수 없습니다. 중첩 추적이 필요하면 TraceTemplate 을 사용합니다.
+ */
+public class ScopedLogTrace implements LogTrace {
+
+    private final TraceIdGenerator idGenerator;
+    private final TraceClock clock;
+    private final TraceSink sink;
+
+    public ScopedLogTrace() {
+        this(new RandomTraceIdGenerator(), new SystemTraceClock(), new LogTraceSink());
+    }
+
+    public ScopedLogTrace(TraceIdGenerator idGenerator, TraceClock clock, TraceSink sink) {
+        this.idGenerator = idGenerator;
+        this.clock = clock;
+        this.sink = sink;
+    }
+
+    /**
+     * message 로 span 을 열고, body 가 실행되는 동안 그 TraceId 를 스코프에 바인딩합니다.
+     */
+    @Override
+    public <T> T execute(String message, Supplier<T> body) {
+        TraceStatus status = begin(message);
+        T result;
+        try {
+            result = TraceScope.where(status.getTraceId(), body);
+        } catch (RuntimeException e) {
+            exception(status, e);
+            throw e;
+        }
+        end(status);
+        return result;
+    }
+
+    /**
+     * body 가 반환한 future 가 끝날 때 span 을 닫습니다. 스코프 바인딩은 body 가 반환하면 바로 풀립니다.
+     */
+    @Override
+    public <T> CompletableFuture<T> executeFuture(String message, Supplier<CompletableFuture<T>> body) {
+        TraceStatus status = begin(message);
+        CompletableFuture<T> future;
+        try {
+            future = TraceScope.where(status.getTraceId(), body);
+        } catch (RuntimeException e) {
+            exception(status, e);
+            throw e;
+        }
+        TraceStatus detached = detach(status);
+        return future.whenComplete((result, e) -> endDetached(detached, TraceExceptions.toException(e)));
+    }
+
+    @Override
+    public TraceStatus begin(String message) {
+        TraceId parent = TraceScope.current();
+        TraceId traceId = parent == null ? new TraceId(idGenerator) : parent.createNextId();
+        TraceStatus status = new TraceStatus(traceId, clock.nanoTime(), message);
+        status.setOwner(this);
+        sink.begin(status);
+        return status;
+    }
+
+    @Override
+    public void end(TraceStatus status) {
+        sink.complete(status, clock.nanoTime(), null);
+    }
+
+    @Override
+    public void exception(TraceStatus status, Exception e) {
+        sink.complete(status, clock.nanoTime(), e);
+    }
+
+    /**
+     * 스코프에는 남는 상태가 없으므로 출력에만 알립니다.
+     */
+    @Override
+    public TraceStatus detach(TraceStatus status) {
+        sink.detach(status);
+        return status;
+    }
+
+    @Override
+    public boolean isActive() {
+        return TraceScope.current() != null;
+    }
+
+    @Override
+    public Runnable wrap(Runnable task) {
+        TraceId parent = TraceScope.current();
+        if (parent == null) {
+            return task;
+        }
+        return () -> TraceScope.where(parent, () -> {
+            task.run();
+            return null;
+        });
+    }
+}
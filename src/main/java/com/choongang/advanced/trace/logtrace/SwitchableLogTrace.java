@@ -0,0 +1,176 @@
+package com.choongang.advanced.trace.logtrace;
+
+import com.choongang.advanced.trace.TraceStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 실행 중에 LogTrace 구현을 바꿀 수 있는 위임 LogTrace 입니다. (/trace/mode)
+ *
+ * 현재 구현은 불변 State 하나에 담아 volatile 필드 하나로 바꿉니다. 평소에는 호출마다 그 volatile 읽기 한 번이 더해집니다.
+ *
+ * 각 구현은 반환하는 상태에 자신을 owner 로 표시하므로(TraceStatus.setOwner) end / exception / detach 는 시간과 상관없이 항상 시작한 구현으로 갑니다.
+ * 상태를 감싸지 않으므로 span 마다 객체가 더 생기지 않습니다.
+ * 구현을 바꾼 뒤 drainTimeout 동안은 이전 구현들을 draining 목록에 남겨 두고, 스레드에 이전 구현으로 시작한 트랜잭션이 있으면(isActive)
+ * 새로 여는 자식 span 도 이전 구현으로 보냅니다. drainTimeout 이 지난 뒤에 연 자식 span 은 새 구현의 트랜잭션이 될 뿐, 이미 연 span 의 종료에는 영향이 없습니다.
+ * NoopLogTrace 의 공유 NOOP 상태처럼 owner 가 없는 상태의 종료는 어느 구현에도 보내지 않습니다.
+ * execute / executeFuture 는 시작할 구현에 통째로 넘기므로 ScopedLogTrace 의 스코프 바인딩도 그대로 동작합니다.
+ */
+public class SwitchableLogTrace implements LogTrace {
+
+    private final Map<String, LogTrace> modes;
+    private final long drainTimeoutNanos;
+    private final AtomicReference<State> state; // 값 교체는 switchTo 와 draining 정리에서만
+
+    public SwitchableLogTrace(Map<String, LogTrace> modes, String initialMode, long drainTimeout, TimeUnit unit) {
+        this.modes = new LinkedHashMap<>(modes);
+        this.drainTimeoutNanos = unit.toNanos(drainTimeout);
+        this.state = new AtomicReference<>(new State(initialMode, lookup(initialMode), null, 0L));
+    }
+
+    /**
+     * name 구현으로 바꿉니다. 진행 중인 트랜잭션은 시작한 구현으로 끝납니다.
+     * @throws IllegalArgumentException 등록되지 않은 이름
+     */
+    public void switchTo(String name) {
+        LogTrace next = lookup(name);
+        while (true) {
+            State current = state.get();
+            if (current.trace == next) {
+                return;
+            }
+            List<LogTrace> draining = new ArrayList<>();
+            if (current.draining != null) {
+                for (LogTrace trace : current.draining) {
+                    if (trace != next) {
+                        draining.add(trace);
+                    }
+                }
+            }
+            draining.add(current.trace);
+            State updated = new State(name, next, draining.toArray(new LogTrace[0]), System.nanoTime() + drainTimeoutNanos);
+            if (state.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+
+    public String getMode() {
+        return state.get().name;
+    }
+
+    public Set<String> getModes() {
+        return modes.keySet();
+    }
+
+    @Override
+    public TraceStatus begin(String message) {
+        return owner().begin(message);
+    }
+
+    @Override
+    public <T> T execute(String message, Supplier<T> body) {
+        return owner().execute(message, body);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> executeFuture(String message, Supplier<CompletableFuture<T>> body) {
+        return owner().executeFuture(message, body);
+    }
+
+    @Override
+    public void end(TraceStatus status) {
+        if (ownerOf(status) instanceof LogTrace owner) {
+            owner.end(status);
+        }
+    }
+
+    @Override
+    public void exception(TraceStatus status, Exception e) {
+        if (ownerOf(status) instanceof LogTrace owner) {
+            owner.exception(status, e);
+        }
+    }
+
+    @Override
+    public TraceStatus detach(TraceStatus status) {
+        if (ownerOf(status) instanceof LogTrace owner) {
+            return owner.detach(status);
+        }
+        return status;
+    }
+
+    @Override
+    public void endDetached(TraceStatus status, Exception e) {
+        if (ownerOf(status) instanceof LogTrace owner) {
+            owner.endDetached(status, e);
+        }
+    }
+
+    private static Object ownerOf(TraceStatus status) {
+        return status == null ? null : status.getOwner(); // begin 자체가 실패한 경우 null
+    }
+
+    @Override
+    public Runnable wrap(Runnable task) {
+        return owner().wrap(task);
+    }
+
+    @Override
+    public boolean isActive() {
+        return owner().isActive();
+    }
+
+    private LogTrace owner() {
+        State s = state.get();
+        return s.draining == null ? s.trace : owner(s);
+    }
+
+    /**
+     * 이 스레드의 진행 중인 트랜잭션을 시작한 구현. 없으면 현재 구현
+     * drainTimeout 이 지났으면 draining 목록을 비웁니다.
+     */
+    private LogTrace owner(State s) {
+        if (System.nanoTime() - s.drainDeadlineNanos > 0) {
+            state.compareAndSet(s, new State(s.name, s.trace, null, 0L));
+            return s.trace;
+        }
+        for (LogTrace trace : s.draining) {
+            if (trace.isActive()) {
+                return trace;
+            }
+        }
+        return s.trace;
+    }
+
+    private LogTrace lookup(String name) {
+        LogTrace trace = modes.get(name);
+        if (trace == null) {
+            throw new IllegalArgumentException("알 수 없는 추적 모드입니다. mode=" + name + ", modes=" + modes.keySet());
+        }
+        return trace;
+    }
+
+    private static class State {
+
+        final String name;
+        final LogTrace trace;
+        final LogTrace[] draining; // 평소에는 null
+        final long drainDeadlineNanos;
+
+        State(String name, LogTrace trace, LogTrace[] draining, long drainDeadlineNanos) {
+            this.name = name;
+            this.trace = trace;
+            this.draining = draining;
+            this.drainDeadlineNanos = drainDeadlineNanos;
+        }
+    }
+}
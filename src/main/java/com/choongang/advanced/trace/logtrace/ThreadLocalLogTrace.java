@@ -1,33 +1,86 @@
 package com.choongang.advanced.trace.logtrace;
 
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.TraceContext;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceClock;
 import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceIdGenerator;
 import com.choongang.advanced.trace.TraceStatus;
-import lombok.extern.slf4j.Slf4j;
+import com.choongang.advanced.trace.sink.LogTraceSink;
+import com.choongang.advanced.trace.sink.TraceSink;
 
-@Slf4j
 public class ThreadLocalLogTrace implements LogTrace{
 
-    private static final String START_PREFIX = "-->";
-    private static final String COMPLETE_PREFIX = "<--";
-    private static final String EX_PREFIX = "<X-";
-
     //private TraceId traceIdHolder; // TraceId를 보관하는 필드
     private ThreadLocal<TraceId> traceIdHolder = new ThreadLocal<>(); // ThreadLocal을 사용하여 TraceId를 보관
 
+    private final TraceIdGenerator idGenerator; // 새 트랜잭션 ID 생성 전략
+    private final TraceClock clock; // span 시간 측정용 단조 시계
+    private final TraceSink sink; // 로그 출력 방식 (동기 / 비동기)
+
+    // 재사용 모드: 스레드마다 가변 TraceContext 하나를 계속 재사용 (remove 하지 않음)
+    private final boolean reuseContext;
+    private final ThreadLocal<TraceContext> contextHolder;
+
+    public ThreadLocalLogTrace() {
+        this(new RandomTraceIdGenerator());
+    }
+
+    public ThreadLocalLogTrace(TraceIdGenerator idGenerator) {
+        this(idGenerator, false);
+    }
+
+    /**
+     * @param reuseContext true 이면 begin/end 마다 TraceId, TraceStatus 를 새로 만들지 않고
+     *                     스레드별 TraceContext 의 인스턴스를 재사용합니다.
+     *                     반환된 TraceStatus 는 end/exception 이후 보관하면 안 됩니다.
+     */
+    public ThreadLocalLogTrace(TraceIdGenerator idGenerator, boolean reuseContext) {
+        this(idGenerator, new SystemTraceClock(), reuseContext);
+    }
+
+    /**
+     * @param clock 정밀 모드는 SystemTraceClock, 매우 뜨거운 경로에서는 CoarseTraceClock 을 사용합니다.
+     */
+    public ThreadLocalLogTrace(TraceIdGenerator idGenerator, TraceClock clock, boolean reuseContext) {
+        this(idGenerator, clock, new LogTraceSink(), reuseContext);
+    }
+
+    /**
+     * @param sink 요청 스레드에서 바로 출력하려면 LogTraceSink, 링 버퍼를 거쳐 비동기로 출력하려면 AsyncTraceSink 를 사용합니다.
+     */
+    public ThreadLocalLogTrace(TraceIdGenerator idGenerator, TraceClock clock, TraceSink sink, boolean reuseContext) {
+        this.idGenerator = idGenerator;
+        this.clock = clock;
+        this.sink = sink;
+        this.reuseContext = reuseContext;
+        this.contextHolder = ThreadLocal.withInitial(() -> new TraceContext(idGenerator));
+    }
+
     @Override
     public TraceStatus begin(String message) {
+        if (reuseContext) {
+            TraceStatus status = contextHolder.get().push(message, clock.nanoTime());
+            status.setOwner(this);
+            sink.begin(status);
+            return status;
+        }
+
         syncTraceId();
         TraceId traceId = traceIdHolder.get();
-        long startTimeMs = System.currentTimeMillis();
-        log.info("[{}] {}{}", traceId.getId(), addSpace(START_PREFIX, traceId.getLevel()), message);
-        return new TraceStatus(traceId, startTimeMs, message);
+        long startTimeNanos = clock.nanoTime();
+        TraceStatus status = new TraceStatus(traceId, startTimeNanos, message);
+        status.setOwner(this);
+        sink.begin(status);
+        return status;
     }
 
     private void syncTraceId() {
         // ThreadLocal에서 TraceId를 가져옴
         TraceId traceId = traceIdHolder.get();
         if (traceId == null) {
-            traceIdHolder.set(new TraceId());
+            traceIdHolder.set(new TraceId(idGenerator));
         } else {
             traceIdHolder.set(traceId.createNextId()); // TraceId의 레벨을 하나 올림
         }
@@ -39,18 +92,16 @@ public class ThreadLocalLogTrace implements LogTrace{
     }
 
     private void complete(TraceStatus status, Exception e) {
-        Long stopTimeMs = System.currentTimeMillis();
-        long resultTimeMs = stopTimeMs - status.getStartTimeMs();
-        TraceId traceId = status.getTraceId();
-
-        if (e == null) {
-            log.info("[{}] {}{} time={}ms", traceId.getId(), addSpace(COMPLETE_PREFIX, traceId.getLevel()), status.getMessage(), resultTimeMs);
-        } else {
-            log.info("[{}] {}{} time={}ms ex={}", traceId.getId(), addSpace(EX_PREFIX, traceId.getLevel()), status.getMessage(), resultTimeMs, e.toString());
+        long stopTimeNanos = clock.nanoTime();
+        if (reuseContext) {
+            // 순서가 어긋나게 닫혀도 status 의 level 기준으로 정리. 상위 span 과 함께 이미 닫힌 span 은 출력하지 않음
+            if (contextHolder.get().pop(status)) {
+                sink.complete(status, stopTimeNanos, e);
+            }
+            return;
         }
-
+        sink.complete(status, stopTimeNanos, e);
         releaseTraceId();
-
     }
 
     private void releaseTraceId() {
@@ -68,11 +119,69 @@ public class ThreadLocalLogTrace implements LogTrace{
         complete(status, e);
     }
 
-    private static String addSpace(String prefix, int level) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < level; i++) {
-            sb.append(i == level - 1 ? "|" + prefix : "|   ");
+    @Override
+    public TraceStatus detach(TraceStatus status) {
+        sink.detach(status);
+        if (reuseContext) {
+            // 재사용 인스턴스는 다음 begin 에서 덮어쓰므로 복사본을 넘김
+            TraceId traceId = status.getTraceId();
+            TraceStatus detached = new TraceStatus(new TraceId(traceId.getIdValue(), traceId.getLevel(), traceId.getSpanId(), traceId.getParentSpanId()),
+                    status.getStartTimeNanos(), status.getMessage());
+            detached.setOwner(this);
+            contextHolder.get().pop(status);
+            return detached;
+        }
+        releaseTraceId();
+        return status;
+    }
+
+    @Override
+    public void endDetached(TraceStatus status, Exception e) {
+        sink.complete(status, clock.nanoTime(), e);
+    }
+
+    @Override
+    public boolean isActive() {
+        return reuseContext ? contextHolder.get().getDepth() > 0 : traceIdHolder.get() != null;
+    }
+
+    @Override
+    public Runnable wrap(Runnable task) {
+        if (reuseContext) {
+            TraceId parent = contextHolder.get().snapshot();
+            return parent == null ? task : () -> runInContext(parent, task);
+        }
+
+        TraceId parent = traceIdHolder.get();
+        if (parent == null) {
+            return task;
+        }
+        return () -> {
+            TraceId previous = traceIdHolder.get();
+            traceIdHolder.set(parent);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    traceIdHolder.remove();
+                } else {
+                    traceIdHolder.set(previous);
+                }
+            }
+        };
+    }
+
+    private void runInContext(TraceId parent, Runnable task) {
+        TraceContext previous = contextHolder.get();
+        // 실행 스레드에 진행 중인 트랜잭션이 있으면 (호출 스레드에서 바로 실행되는 경우 등) 재사용 인스턴스를 덮어쓰지 않도록 임시 컨텍스트 사용
+        TraceContext context = previous.getDepth() == 0 ? previous : new TraceContext(idGenerator);
+        context.attach(parent);
+        contextHolder.set(context);
+        try {
+            task.run();
+        } finally {
+            context.clear();
+            contextHolder.set(previous);
         }
-        return sb.toString();
     }
 }
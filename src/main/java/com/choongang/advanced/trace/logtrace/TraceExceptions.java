@@ -0,0 +1,23 @@
+package com.choongang.advanced.trace.logtrace;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * 비동기 span 을 닫을 때 쓰는 예외 변환입니다. (LogTrace.executeFuture, TraceTemplate)
+ */
+public final class TraceExceptions {
+
+    private TraceExceptions() {
+    }
+
+    /**
+     * whenComplete 로 받은 예외를 span 에 기록할 예외로 바꿉니다. CompletionException 은 원인 예외를 꺼냅니다.
+     */
+    public static Exception toException(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause == null || cause instanceof Exception) {
+            return (Exception) cause;
+        }
+        return new CompletionException(cause);
+    }
+}
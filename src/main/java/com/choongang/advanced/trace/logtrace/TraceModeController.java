@@ -0,0 +1,43 @@
+package com.choongang.advanced.trace.logtrace;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 추적 구현 조회 / 전환 (재시작 없이)
+ *
+ * GET  /trace/mode            : 현재 모드와 사용할 수 있는 모드 목록
+ * POST /trace/mode?name=noop  : threadLocal, noop, sampled, async, scoped 중 하나로 전환
+ */
+@RestController
+@RequiredArgsConstructor
+public class TraceModeController {
+
+    private final SwitchableLogTrace logTrace;
+
+    @GetMapping("/trace/mode")
+    public Map<String, Object> mode() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", logTrace.getMode());
+        result.put("modes", logTrace.getModes());
+        return result;
+    }
+
+    @PostMapping("/trace/mode")
+    public Map<String, Object> switchMode(@RequestParam String name) {
+        try {
+            logTrace.switchTo(name);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        return mode();
+    }
+}
@@ -0,0 +1,32 @@
+package com.choongang.advanced.trace.logtrace;
+
+import com.choongang.advanced.trace.TraceId;
+
+import java.util.function.Supplier;
+
+/**
+ * ScopedValue&lt;TraceId&gt; 로 구현한 불변 스코프 바인딩입니다.
+ *
+ * where() 로 바인딩한 TraceId 는 body 가 실행되는 동안에만 보이고, body 가 끝나면 (예외 포함) 반드시 이전 값으로 돌아갑니다.
+ * 바인딩된 값을 바꾸는 API 가 없으므로 remove() 를 잊어 남는 값이 없고, 스레드마다 ThreadLocalMap 엔트리를 만들지 않습니다.
+ *
+ * ScopedValue 는 Java 21 에서 preview API 입니다. (build.gradle 에서 --enable-preview)
+ */
+final class TraceScope {
+
+    private static final ScopedValue<TraceId> CURRENT = ScopedValue.newInstance();
+
+    private TraceScope() {
+    }
+
+    /**
+     * @return 현재 스코프에 바인딩된 TraceId, 없으면 null
+     */
+    static TraceId current() {
+        return CURRENT.isBound() ? CURRENT.get() : null;
+    }
+
+    static <T> T where(TraceId traceId, Supplier<T> body) {
+        return ScopedValue.where(CURRENT, traceId).get(body);
+    }
+}
@@ -0,0 +1,68 @@
+package com.choongang.advanced.trace.metrics;
+
+/**
+ * 특정 시점의 LatencyHistogram 값. 여러 스냅샷을 합쳐(merge) 구간 통계를 만들 수 있습니다.
+ */
+public class HistogramSnapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+    private final long errors;
+
+    HistogramSnapshot(long[] counts, long sum, long max, long errors) {
+        this.counts = counts;
+        this.sum = sum;
+        this.max = max;
+        this.errors = errors;
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        this.count = total;
+    }
+
+    public HistogramSnapshot merge(HistogramSnapshot other) {
+        long[] merged = counts.clone();
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] += other.counts[i];
+        }
+        return new HistogramSnapshot(merged, sum + other.sum, Math.max(max, other.max), errors + other.errors);
+    }
+
+    /**
+     * @param percentile 0 ~ 100
+     * @return 해당 백분위 값 (버킷 상한이므로 실제 값보다 최대 약 6.25% 클 수 있음)
+     */
+    public long valueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(LatencyHistogram.highestValueInBucket(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+}
@@ -0,0 +1,80 @@
+package com.choongang.advanced.trace.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 고정 메모리 log-linear 버킷 히스토그램입니다. (HdrHistogram 방식)
+ *
+ * 2의 거듭제곱 구간마다 16개의 선형 하위 버킷을 두므로 버킷 폭은 구간 시작 값의 1/16 입니다.
+ * 백분위는 버킷의 가장 큰 값으로 보고하므로 실제 값보다 최대 약 6.25% (1/16) 크게 나올 수 있고,
+ * 0 ~ 2^41 (마이크로초 기준 약 25일) 범위를 608개 버킷으로 표현합니다.
+ *
+ * 여러 Tomcat 스레드가 같은 span 을 동시에 기록해도 경합하지 않도록 버킷 배열을 스레드 ID 기준으로
+ * 여러 줄무늬(stripe)로 나누어 두고, 읽을 때 합칩니다. 락은 사용하지 않습니다.
+ */
+public class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    static final int MAX_MSB = 40;
+    static final long MAX_VALUE = (1L << (MAX_MSB + 1)) - 1;
+    static final int BUCKET_COUNT = bucketIndex(MAX_VALUE) + 1;
+
+    private static final int STRIPES = Math.min(16, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors())));
+
+    private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+    private final LongAdder sum = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new AtomicLongArray(BUCKET_COUNT);
+        }
+    }
+
+    public void record(long value, boolean error) {
+        long clamped = Math.min(Math.max(value, 0L), MAX_VALUE);
+        int stripe = (int) (Thread.currentThread().threadId() & (STRIPES - 1));
+        stripes[stripe].incrementAndGet(bucketIndex(clamped));
+        sum.add(clamped);
+        max.accumulate(clamped);
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    public HistogramSnapshot snapshot() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts[i] += stripe.get(i);
+            }
+        }
+        return new HistogramSnapshot(counts, sum.sum(), max.get(), errors.sum());
+    }
+
+    static int bucketIndex(long value) {
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        if (msb < SUB_BUCKET_BITS) {
+            return (int) value; // 작은 값은 그대로 (선형)
+        }
+        int shift = msb - SUB_BUCKET_BITS + 1;
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    /**
+     * 버킷에 들어가는 가장 큰 값
+     */
+    static long highestValueInBucket(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long subBucket = index - (long) shift * SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,44 @@
+package com.choongang.advanced.trace.metrics;
+
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.sink.TraceSink;
+
+/**
+ * 끝난 span 의 시간을 SpanMetricsRegistry 에 기록한 뒤 target 으로 넘기는 데코레이터입니다.
+ * 테일 샘플링보다 바깥에 두어야 출력되지 않는 span 까지 통계에 포함됩니다.
+ * (헤드 샘플링으로 추적하지 않은 트랜잭션은 여기까지 오지 않으므로 통계에서도 빠집니다.)
+ */
+public class MetricsTraceSink implements TraceSink, AutoCloseable {
+
+    private final TraceSink target;
+    private final SpanMetricsRegistry registry;
+
+    public MetricsTraceSink(TraceSink target, SpanMetricsRegistry registry) {
+        this.target = target;
+        this.registry = registry;
+    }
+
+    @Override
+    public void begin(TraceStatus status) {
+        target.begin(status);
+    }
+
+    @Override
+    public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+        long durationUs = (stopTimeNanos - status.getStartTimeNanos()) / 1_000;
+        registry.record(status.getMessage(), durationUs, e != null, status.getUsage());
+        target.complete(status, stopTimeNanos, e);
+    }
+
+    @Override
+    public void detach(TraceStatus status) {
+        target.detach(status);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (target instanceof AutoCloseable) {
+            ((AutoCloseable) target).close();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.choongang.advanced.trace.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * span 별 지연 시간 통계 조회
+ *
+ * GET  /trace/metrics             : 시작(또는 reset) 이후 누적 통계
+ * GET  /trace/metrics?window=true : 최근 롤링 윈도우 통계
+ * POST /trace/metrics/reset       : 통계 초기화
+ */
+@RestController
+@RequiredArgsConstructor
+public class SpanMetricsController {
+
+    private final SpanMetricsRegistry registry;
+
+    @GetMapping("/trace/metrics")
+    public List<SpanStats> metrics(@RequestParam(defaultValue = "false") boolean window) {
+        return registry.stats(window);
+    }
+
+    @PostMapping("/trace/metrics/reset")
+    public String reset() {
+        registry.reset();
+        return "ok";
+    }
+}
@@ -0,0 +1,122 @@
+package com.choongang.advanced.trace.metrics;
+
+import com.choongang.advanced.trace.SpanUsage;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * span 이름(메시지)별 지연 시간 히스토그램 모음입니다. 값은 마이크로초 단위로 기록합니다.
+ *
+ * span 마다 두 가지 통계를 유지합니다.
+ * <ul>
+ *     <li>누적: 시작(또는 reset) 이후 전체</li>
+ *     <li>롤링 윈도우: 직전 윈도우 + 현재 윈도우 (최근 window ~ 2 * window 초)</li>
+ * </ul>
+ * 윈도우 교체는 데몬 스레드 하나가 window 마다 모든 span 에 대해 수행합니다.
+ * CPU 시간 / 할당 바이트가 함께 넘어오면(trace.usage.enabled=true) 같은 두 구간으로 합계를 모아 평균을 냅니다.
+ */
+public class SpanMetricsRegistry implements AutoCloseable {
+
+    private final Map<String, SpanMetrics> metrics = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService rotator;
+
+    public SpanMetricsRegistry(long window, TimeUnit unit) {
+        this.rotator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "trace-metrics-rotator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rotator.scheduleAtFixedRate(this::rotate, window, window, unit);
+    }
+
+    public void record(String name, long durationUs, boolean error) {
+        record(name, durationUs, error, null);
+    }
+
+    /**
+     * @param usage 측정하지 않았으면 null
+     */
+    public void record(String name, long durationUs, boolean error, SpanUsage usage) {
+        SpanMetrics spanMetrics = metrics.get(name);
+        if (spanMetrics == null) {
+            spanMetrics = metrics.computeIfAbsent(name, key -> new SpanMetrics());
+        }
+        spanMetrics.record(durationUs, error, usage);
+    }
+
+    /**
+     * @param window true 면 롤링 윈도우, false 면 누적 통계
+     */
+    public List<SpanStats> stats(boolean window) {
+        return metrics.entrySet().stream()
+                .map(entry -> window
+                        ? SpanStats.of(entry.getKey(), entry.getValue().windowSnapshot(), entry.getValue().windowUsage())
+                        : SpanStats.of(entry.getKey(), entry.getValue().cumulativeSnapshot(), entry.getValue().cumulativeUsage()))
+                .sorted(Comparator.comparing(SpanStats::getName))
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        metrics.clear();
+    }
+
+    void rotate() {
+        for (SpanMetrics spanMetrics : metrics.values()) {
+            spanMetrics.rotate();
+        }
+    }
+
+    @Override
+    public void close() {
+        rotator.shutdownNow();
+    }
+
+    private static class SpanMetrics {
+
+        private final LatencyHistogram cumulative = new LatencyHistogram();
+        private volatile LatencyHistogram current = new LatencyHistogram();
+        private volatile LatencyHistogram previous = new LatencyHistogram();
+        private final UsageAccumulator cumulativeUsage = new UsageAccumulator();
+        private volatile UsageAccumulator currentUsage = new UsageAccumulator();
+        private volatile UsageAccumulator previousUsage = new UsageAccumulator();
+
+        void record(long durationUs, boolean error, SpanUsage usage) {
+            cumulative.record(durationUs, error);
+            current.record(durationUs, error);
+            if (usage != null) {
+                cumulativeUsage.record(usage);
+                currentUsage.record(usage);
+            }
+        }
+
+        void rotate() {
+            previous = current;
+            current = new LatencyHistogram();
+            previousUsage = currentUsage;
+            currentUsage = new UsageAccumulator();
+        }
+
+        HistogramSnapshot cumulativeSnapshot() {
+            return cumulative.snapshot();
+        }
+
+        HistogramSnapshot windowSnapshot() {
+            return previous.snapshot().merge(current.snapshot());
+        }
+
+        UsageSnapshot cumulativeUsage() {
+            return cumulativeUsage.snapshot();
+        }
+
+        UsageSnapshot windowUsage() {
+            return previousUsage.snapshot().merge(currentUsage.snapshot());
+        }
+    }
+}
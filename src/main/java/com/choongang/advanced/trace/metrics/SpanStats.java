@@ -0,0 +1,100 @@
+package com.choongang.advanced.trace.metrics;
+
+/**
+ * span 하나의 지연 시간 통계 (마이크로초). /trace/metrics 응답으로 사용합니다.
+ * CPU 시간 / 할당 바이트는 trace.usage.enabled=true 로 측정한 span(usageCount 개)의 평균이고 total 과 self 를 따로 둡니다.
+ */
+public class SpanStats {
+
+    private final String name;
+    private final long count;
+    private final long errors;
+    private final double meanUs;
+    private final long p50Us;
+    private final long p90Us;
+    private final long p99Us;
+    private final long p999Us;
+    private final long maxUs;
+    private final long usageCount;
+    private final double meanCpuUs;
+    private final double meanSelfCpuUs;
+    private final double meanAllocatedBytes;
+    private final double meanSelfAllocatedBytes;
+
+    private SpanStats(String name, HistogramSnapshot snapshot, UsageSnapshot usage) {
+        this.name = name;
+        this.count = snapshot.getCount();
+        this.errors = snapshot.getErrors();
+        this.meanUs = snapshot.getMean();
+        this.p50Us = snapshot.valueAtPercentile(50);
+        this.p90Us = snapshot.valueAtPercentile(90);
+        this.p99Us = snapshot.valueAtPercentile(99);
+        this.p999Us = snapshot.valueAtPercentile(99.9);
+        this.maxUs = snapshot.getMax();
+        this.usageCount = usage.getCount();
+        this.meanCpuUs = usage.getMeanCpuUs();
+        this.meanSelfCpuUs = usage.getMeanSelfCpuUs();
+        this.meanAllocatedBytes = usage.getMeanAllocatedBytes();
+        this.meanSelfAllocatedBytes = usage.getMeanSelfAllocatedBytes();
+    }
+
+    static SpanStats of(String name, HistogramSnapshot snapshot, UsageSnapshot usage) {
+        return new SpanStats(name, snapshot, usage);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public double getMeanUs() {
+        return meanUs;
+    }
+
+    public long getP50Us() {
+        return p50Us;
+    }
+
+    public long getP90Us() {
+        return p90Us;
+    }
+
+    public long getP99Us() {
+        return p99Us;
+    }
+
+    public long getP999Us() {
+        return p999Us;
+    }
+
+    public long getMaxUs() {
+        return maxUs;
+    }
+
+    public long getUsageCount() {
+        return usageCount;
+    }
+
+    public double getMeanCpuUs() {
+        return meanCpuUs;
+    }
+
+    public double getMeanSelfCpuUs() {
+        return meanSelfCpuUs;
+    }
+
+    public double getMeanAllocatedBytes() {
+        return meanAllocatedBytes;
+    }
+
+    public double getMeanSelfAllocatedBytes() {
+        return meanSelfAllocatedBytes;
+    }
+}
@@ -0,0 +1,29 @@
+package com.choongang.advanced.trace.metrics;
+
+import com.choongang.advanced.trace.SpanUsage;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * span 의 CPU 시간 / 할당 바이트 합계입니다. (trace.usage.enabled=true 일 때만 기록됨)
+ */
+public class UsageAccumulator {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder cpuTimeNanos = new LongAdder();
+    private final LongAdder selfCpuTimeNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder selfAllocatedBytes = new LongAdder();
+
+    public void record(SpanUsage usage) {
+        count.increment();
+        cpuTimeNanos.add(usage.getCpuTimeNanos());
+        selfCpuTimeNanos.add(usage.getSelfCpuTimeNanos());
+        allocatedBytes.add(Math.max(usage.getAllocatedBytes(), 0L));
+        selfAllocatedBytes.add(Math.max(usage.getSelfAllocatedBytes(), 0L));
+    }
+
+    public UsageSnapshot snapshot() {
+        return new UsageSnapshot(count.sum(), cpuTimeNanos.sum(), selfCpuTimeNanos.sum(), allocatedBytes.sum(), selfAllocatedBytes.sum());
+    }
+}
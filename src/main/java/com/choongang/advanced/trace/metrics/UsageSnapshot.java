@@ -0,0 +1,53 @@
+package com.choongang.advanced.trace.metrics;
+
+/**
+ * 특정 시점의 UsageAccumulator 값. 롤링 윈도우는 두 스냅샷을 합쳐(merge) 만듭니다.
+ */
+public class UsageSnapshot {
+
+    private final long count;
+    private final long cpuTimeNanos;
+    private final long selfCpuTimeNanos;
+    private final long allocatedBytes;
+    private final long selfAllocatedBytes;
+
+    UsageSnapshot(long count, long cpuTimeNanos, long selfCpuTimeNanos, long allocatedBytes, long selfAllocatedBytes) {
+        this.count = count;
+        this.cpuTimeNanos = cpuTimeNanos;
+        this.selfCpuTimeNanos = selfCpuTimeNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.selfAllocatedBytes = selfAllocatedBytes;
+    }
+
+    public UsageSnapshot merge(UsageSnapshot other) {
+        return new UsageSnapshot(count + other.count, cpuTimeNanos + other.cpuTimeNanos, selfCpuTimeNanos + other.selfCpuTimeNanos,
+                allocatedBytes + other.allocatedBytes, selfAllocatedBytes + other.selfAllocatedBytes);
+    }
+
+    /**
+     * 측정한 span 수. 0 이면 평균은 모두 0
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanCpuUs() {
+        return mean(cpuTimeNanos) / 1_000;
+    }
+
+    public double getMeanSelfCpuUs() {
+        return mean(selfCpuTimeNanos) / 1_000;
+    }
+
+    public double getMeanAllocatedBytes() {
+        return mean(allocatedBytes);
+    }
+
+    public double getMeanSelfAllocatedBytes() {
+        return mean(selfAllocatedBytes);
+    }
+
+    private double mean(long sum) {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+}
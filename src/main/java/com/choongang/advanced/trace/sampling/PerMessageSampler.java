@@ -0,0 +1,22 @@
+package com.choongang.advanced.trace.sampling;
+
+import java.util.Map;
+
+/**
+ * 루트 메시지(예: "OrderControllerV5.request()")별로 다른 샘플러를 적용하고, 없으면 기본 샘플러를 사용합니다.
+ */
+public class PerMessageSampler implements TraceSampler {
+
+    private final Map<String, TraceSampler> overrides;
+    private final TraceSampler defaultSampler;
+
+    public PerMessageSampler(Map<String, TraceSampler> overrides, TraceSampler defaultSampler) {
+        this.overrides = Map.copyOf(overrides);
+        this.defaultSampler = defaultSampler;
+    }
+
+    @Override
+    public boolean sample(String rootMessage) {
+        return overrides.getOrDefault(rootMessage, defaultSampler).sample(rootMessage);
+    }
+}
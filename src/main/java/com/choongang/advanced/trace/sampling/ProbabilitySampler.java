@@ -0,0 +1,23 @@
+package com.choongang.advanced.trace.sampling;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 주어진 확률(0.0 ~ 1.0)로 트랜잭션을 추적합니다.
+ */
+public class ProbabilitySampler implements TraceSampler {
+
+    private final double probability;
+
+    public ProbabilitySampler(double probability) {
+        if (probability < 0.0 || probability > 1.0) {
+            throw new IllegalArgumentException("probability는 0.0 ~ 1.0 사이여야 합니다. probability=" + probability);
+        }
+        this.probability = probability;
+    }
+
+    @Override
+    public boolean sample(String rootMessage) {
+        return probability >= 1.0 || ThreadLocalRandom.current().nextDouble() < probability;
+    }
+}
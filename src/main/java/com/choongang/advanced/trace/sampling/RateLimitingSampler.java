@@ -0,0 +1,55 @@
+package com.choongang.advanced.trace.sampling;
+
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceClock;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 1초에 최대 maxPerSecond 개의 트랜잭션만 추적합니다.
+ * (초, 이번 초에 허용한 개수)를 long 하나에 묶어 CAS 로 갱신하므로 락이 없습니다.
+ */
+public class RateLimitingSampler implements TraceSampler {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxPerSecond;
+    private final TraceClock clock;
+    private final long origin;
+    private final AtomicLong state = new AtomicLong(); // 상위 32비트: 초, 하위 32비트: 허용 개수
+
+    public RateLimitingSampler(int maxPerSecond) {
+        this(maxPerSecond, new SystemTraceClock());
+    }
+
+    public RateLimitingSampler(int maxPerSecond, TraceClock clock) {
+        if (maxPerSecond <= 0) {
+            throw new IllegalArgumentException("maxPerSecond는 0보다 커야 합니다. maxPerSecond=" + maxPerSecond);
+        }
+        this.maxPerSecond = maxPerSecond;
+        this.clock = clock;
+        this.origin = clock.nanoTime();
+    }
+
+    @Override
+    public boolean sample(String rootMessage) {
+        long second = (clock.nanoTime() - origin) / NANOS_PER_SECOND;
+        while (true) {
+            long current = state.get();
+            if (second > (current >>> 32)) {
+                if (state.compareAndSet(current, (second << 32) | 1)) {
+                    return true; // 새로운 1초의 첫 번째 트랜잭션
+                }
+                continue;
+            }
+            // 창은 앞으로만 움직입니다. 시간을 먼저 읽고 늦게 들어온 스레드(이전 초)는 현재 창의 한도로 셉니다.
+            if ((int) current >= maxPerSecond) {
+                return false;
+            }
+            if (state.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+}
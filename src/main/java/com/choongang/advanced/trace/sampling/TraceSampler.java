@@ -0,0 +1,13 @@
+package com.choongang.advanced.trace.sampling;
+
+/**
+ * 루트 span 의 begin 에서 한 번만 호출되어 이 트랜잭션을 추적할지 결정합니다.
+ *
+ * @see ProbabilitySampler 확률
+ * @see RateLimitingSampler 초당 개수 제한
+ * @see PerMessageSampler 루트 메시지별 개별 설정
+ */
+public interface TraceSampler {
+
+    boolean sample(String rootMessage);
+}
@@ -0,0 +1,162 @@
+package com.choongang.advanced.trace.sink;
+
+import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceLineEncoder;
+import com.choongang.advanced.trace.TraceStatus;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 요청 스레드는 링 버퍼에 이벤트만 넣고, 전용 소비자 스레드 하나가 모아서 로그로 출력합니다.
+ * 요청 스레드가 appender 락이나 디스크 I/O 를 기다리지 않게 하는 것이 목적입니다.
+ * 버퍼가 가득 찼을 때의 동작은 BackpressurePolicy 로 정합니다.
+ *
+ * 소비자 스레드는 첫 이벤트가 들어올 때 시작하므로, 만들어 두기만 하고 쓰지 않는 인스턴스는 스레드를 띄우지 않습니다.
+ * 한 이벤트의 출력이 실패해도(appender, 인코딩 예외) 소비자 스레드는 멈추지 않고 errorCount 만 올립니다.
+ */
+@Slf4j
+public class AsyncTraceSink implements TraceSink, AutoCloseable {
+
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long SAMPLE_MASK = 0x7; // SAMPLE 정책: 버퍼가 절반 이상 차면 트랜잭션 8개 중 1개만 유지
+
+    private final TraceEventRingBuffer buffer;
+    private final BackpressurePolicy policy;
+    private final Consumer<TraceEvent> output;
+    private final Consumer<TraceEvent> writer = this::writeSafely;
+    private final Thread consumer;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private volatile boolean running = true;
+
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder droppedCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+
+    public AsyncTraceSink(int bufferSize, BackpressurePolicy policy) {
+        this(bufferSize, policy, null);
+    }
+
+    /**
+     * @param output 이벤트 출력. null 이면 log.info
+     */
+    AsyncTraceSink(int bufferSize, BackpressurePolicy policy, Consumer<TraceEvent> output) {
+        this.buffer = new TraceEventRingBuffer(bufferSize);
+        this.policy = policy;
+        this.output = output != null ? output : this::write;
+        this.consumer = new Thread(this::consume, "trace-async-sink");
+        this.consumer.setDaemon(true);
+    }
+
+    @Override
+    public void begin(TraceStatus status) {
+        publish(TraceEvent.Type.BEGIN, status, 0L, null);
+    }
+
+    @Override
+    public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+        publish(TraceEvent.Type.COMPLETE, status, stopTimeNanos, e);
+    }
+
+    private void publish(TraceEvent.Type type, TraceStatus status, long stopTimeNanos, Exception e) {
+        if (!running) {
+            droppedCount.increment(); // close 이후 이벤트는 버퍼에 넣지 않음
+            return;
+        }
+        if (!started.get() && started.compareAndSet(false, true)) {
+            consumer.start();
+        }
+        TraceId traceId = status.getTraceId();
+        long id = traceId.getIdValue();
+
+        if (policy == BackpressurePolicy.SAMPLE && (id & SAMPLE_MASK) != 0 && buffer.size() >= buffer.capacity() / 2) {
+            droppedCount.increment();
+            return;
+        }
+
+        while (!buffer.tryPublish(type, id, traceId.getLevel(), traceId.getSpanId(), traceId.getParentSpanId(), status.getMessage(), status.getStartTimeNanos(), stopTimeNanos, e, status.getUsage(), status.getProfile())) {
+            if (policy != BackpressurePolicy.BLOCK || !running) {
+                droppedCount.increment();
+                return;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS); // BLOCK: 소비자가 자리를 비울 때까지 대기
+        }
+        publishedCount.increment();
+    }
+
+    private void consume() {
+        while (running || buffer.size() > 0) {
+            if (buffer.drain(writer, BATCH_SIZE) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private void writeSafely(TraceEvent event) {
+        try {
+            output.accept(event);
+        } catch (RuntimeException | LinkageError e) {
+            errorCount.increment(); // 이 이벤트만 버리고 계속 소비
+        }
+    }
+
+    private void write(TraceEvent event) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        if (event.getType() == TraceEvent.Type.BEGIN) {
+            log.info(TraceLineEncoder.encodeBegin(event.getTraceId(), event.getLevel(), event.getMessage()).toString());
+            return;
+        }
+
+        long resultTimeUs = (event.getStopTimeNanos() - event.getStartTimeNanos()) / 1_000;
+        StringBuilder line = TraceLineEncoder.encodeComplete(event.getTraceId(), event.getLevel(), event.getMessage(), resultTimeUs, event.getException());
+        if (event.getUsage() != null) {
+            TraceLineEncoder.appendUsage(line, event.getUsage());
+        }
+        if (event.getProfile() != null) {
+            TraceLineEncoder.appendProfile(line, event.getTraceId(), event.getProfile());
+        }
+        log.info(line.toString());
+    }
+
+    public long getPublishedCount() {
+        return publishedCount.sum();
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.sum();
+    }
+
+    /**
+     * 출력 중 예외가 나서 버린 이벤트 수
+     */
+    public long getErrorCount() {
+        return errorCount.sum();
+    }
+
+    boolean isConsumerAlive() {
+        return consumer.isAlive();
+    }
+
+    public int getPendingCount() {
+        return buffer.size();
+    }
+
+    /**
+     * 새 이벤트는 더 받지 않고, 이미 버퍼에 들어온 이벤트는 모두 출력한 뒤 소비자 스레드를 종료합니다.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        if (started.get()) {
+            LockSupport.unpark(consumer);
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+}
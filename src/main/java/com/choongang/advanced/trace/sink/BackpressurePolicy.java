@@ -0,0 +1,24 @@
+package com.choongang.advanced.trace.sink;
+
+/**
+ * 링 버퍼가 가득 찼을 때 요청 스레드의 동작 방식입니다.
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * 버퍼가 가득 차면 이벤트를 버립니다. 요청 스레드는 절대 기다리지 않습니다.
+     */
+    DROP,
+
+    /**
+     * 버퍼에 자리가 날 때까지 요청 스레드가 기다립니다. 로그 유실은 없지만 지연이 요청에 전파됩니다.
+     */
+    BLOCK,
+
+    /**
+     * 버퍼가 절반 이상 차면 trace id 로 고른 일부(8개 중 1개) 트랜잭션의 이벤트만 받아들이고, 가득 차면 버립니다.
+     * 남길 트랜잭션은 trace id 로 정하지만 버퍼가 절반 이상 찼는지는 이벤트마다 다시 보므로, 압력이 트랜잭션 도중에
+     * 생기거나 풀리면 같은 트랜잭션의 begin 은 남고 complete 는 버려지는 식으로 트리가 끊길 수 있습니다.
+     */
+    SAMPLE
+}
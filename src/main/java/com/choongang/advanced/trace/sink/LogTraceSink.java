@@ -0,0 +1,38 @@
+package com.choongang.advanced.trace.sink;
+
+import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceLineEncoder;
+import com.choongang.advanced.trace.TraceStatus;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 요청 스레드에서 바로 log.info 로 출력하는 기본 출력 방식입니다.
+ */
+@Slf4j
+public class LogTraceSink implements TraceSink {
+
+    @Override
+    public void begin(TraceStatus status) {
+        TraceId traceId = status.getTraceId();
+        if (log.isInfoEnabled()) {
+            log.info(TraceLineEncoder.encodeBegin(traceId.getIdValue(), traceId.getLevel(), status.getMessage()).toString());
+        }
+    }
+
+    @Override
+    public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+        long resultTimeUs = (stopTimeNanos - status.getStartTimeNanos()) / 1_000;
+        TraceId traceId = status.getTraceId();
+
+        if (log.isInfoEnabled()) {
+            StringBuilder line = TraceLineEncoder.encodeComplete(traceId.getIdValue(), traceId.getLevel(), status.getMessage(), resultTimeUs, e);
+            if (status.getUsage() != null) {
+                TraceLineEncoder.appendUsage(line, status.getUsage());
+            }
+            if (status.getProfile() != null) {
+                TraceLineEncoder.appendProfile(line, traceId.getIdValue(), status.getProfile());
+            }
+            log.info(line.toString());
+        }
+    }
+}
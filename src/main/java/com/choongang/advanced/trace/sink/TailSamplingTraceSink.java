@@ -0,0 +1,236 @@
+package com.choongang.advanced.trace.sink;
+
+import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 테일 기반 샘플링 데코레이터입니다.
+ *
+ * 루트 span 이 끝날 때까지 한 트랜잭션의 이벤트를 트랜잭션 ID 별 버퍼에 모아 두었다가,
+ * 다음 중 하나에 해당할 때만 전체 트리를 target 으로 내보냅니다.
+ * <ul>
+ *     <li>루트 span 의 시간이 slowThresholdNanos 이상 (느린 요청)</li>
+ *     <li>트리 안의 span 중 하나라도 예외로 끝남</li>
+ *     <li>배경 샘플링 확률(sampleRate)에 당첨</li>
+ * </ul>
+ * 그 외에는 버퍼를 버립니다. 버퍼는 트랜잭션 ID 로 찾으므로 executeFuture / endDetached 나 wrap 한 작업처럼
+ * 다른 스레드에서 열리거나 닫히는 span, 다른 스레드에서 끝나는 루트도 같은 트랜잭션에 모입니다.
+ *
+ * 메모리는 트랜잭션당 bufferSize 개 이벤트, 동시에 maxPendingTraces 개 트랜잭션으로 제한합니다.
+ * 넘치는 이벤트와 버퍼를 만들지 못한 트랜잭션의 이벤트, 루트가 끝난 뒤에 도착한 이벤트는 버리고 개수만 셉니다.
+ * 버퍼를 만들지 못한 트랜잭션도 루트가 느리거나 예외로 끝나면 루트 종료만은 출력합니다.
+ *
+ * 루트가 끝나지 않는 트랜잭션(종료 누락)이 한도를 차지하지 않도록, 버퍼가 가득 찼을 때 maxPendingAgeNanos 이상 지난 버퍼를 비웁니다.
+ * 비운 버퍼에 예외로 끝난 span 이 있으면 그때까지 모은 이벤트를 출력하고, 아니면 버리고 evictedCount 만 셉니다.
+ * 나이는 span 시작 / 종료 시각(TraceClock)으로 재므로 별도 스레드가 없습니다.
+ */
+public class TailSamplingTraceSink implements TraceSink, AutoCloseable {
+
+    static final int DEFAULT_MAX_PENDING_TRACES = 4096;
+    static final long DEFAULT_MAX_PENDING_AGE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final TraceSink target;
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+    private final int bufferSize;
+    private final int maxPendingTraces;
+    private final long maxPendingAgeNanos;
+    private final Map<Long, SpanBuffer> pending = new ConcurrentHashMap<>();
+    private volatile long nextEvictionNanos = Long.MIN_VALUE; // 이 시각 전에는 비울 버퍼가 없음
+
+    private final LongAdder emittedCount = new LongAdder();
+    private final LongAdder discardedCount = new LongAdder();
+    private final LongAdder overflowCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+
+    public TailSamplingTraceSink(TraceSink target, long slowThresholdNanos, double sampleRate, int bufferSize) {
+        this(target, slowThresholdNanos, sampleRate, bufferSize, DEFAULT_MAX_PENDING_TRACES);
+    }
+
+    public TailSamplingTraceSink(TraceSink target, long slowThresholdNanos, double sampleRate, int bufferSize, int maxPendingTraces) {
+        this(target, slowThresholdNanos, sampleRate, bufferSize, maxPendingTraces, DEFAULT_MAX_PENDING_AGE_NANOS);
+    }
+
+    public TailSamplingTraceSink(TraceSink target, long slowThresholdNanos, double sampleRate, int bufferSize, int maxPendingTraces, long maxPendingAgeNanos) {
+        this.target = target;
+        this.slowThresholdNanos = slowThresholdNanos;
+        this.sampleRate = sampleRate;
+        this.bufferSize = bufferSize;
+        this.maxPendingTraces = maxPendingTraces;
+        this.maxPendingAgeNanos = maxPendingAgeNanos;
+    }
+
+    @Override
+    public void begin(TraceStatus status) {
+        TraceId traceId = status.getTraceId();
+        SpanBuffer buffer;
+        if (traceId.isFirstLevel()) {
+            long nowNanos = status.getStartTimeNanos();
+            if (pending.size() >= maxPendingTraces && (nowNanos < nextEvictionNanos || evictStale(nowNanos) == 0)) {
+                overflowCount.increment();
+                return;
+            }
+            buffer = new SpanBuffer(bufferSize, nowNanos);
+            pending.put(traceId.getIdValue(), buffer); // 새 트랜잭션 시작
+        } else {
+            buffer = pending.get(traceId.getIdValue());
+        }
+        if (buffer == null || !buffer.add(TraceEvent.Type.BEGIN, traceId, status, 0L, null)) {
+            overflowCount.increment();
+        }
+    }
+
+    @Override
+    public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+        TraceId traceId = status.getTraceId();
+        if (!traceId.isFirstLevel()) {
+            SpanBuffer buffer = pending.get(traceId.getIdValue());
+            if (buffer == null || !buffer.add(TraceEvent.Type.COMPLETE, traceId, status, stopTimeNanos, e)) {
+                overflowCount.increment();
+            }
+            return;
+        }
+
+        SpanBuffer buffer = pending.remove(traceId.getIdValue());
+        boolean slow = stopTimeNanos - status.getStartTimeNanos() >= slowThresholdNanos;
+        if (buffer == null) { // 버퍼를 만들지 못했거나 비운 트랜잭션
+            if (slow || e != null) {
+                target.complete(status, stopTimeNanos, e);
+                emittedCount.increment();
+            } else {
+                overflowCount.increment();
+            }
+            return;
+        }
+        List<TraceEvent> events = buffer.close();
+        if (slow || e != null || buffer.failed || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            replay(events);
+            target.complete(status, stopTimeNanos, e); // 루트 종료는 버퍼를 거치지 않으므로 넘쳐도 항상 출력됨
+            emittedCount.increment();
+        } else {
+            discardedCount.increment();
+        }
+    }
+
+    /**
+     * maxPendingAgeNanos 이상 지난 버퍼를 비웁니다.
+     * @return 비운 버퍼 수
+     */
+    private int evictStale(long nowNanos) {
+        int evicted = 0;
+        long next = nowNanos + maxPendingAgeNanos; // 이후에 시작하는 트랜잭션은 이보다 늦게 만료
+        for (Map.Entry<Long, SpanBuffer> entry : pending.entrySet()) {
+            SpanBuffer buffer = entry.getValue();
+            if (nowNanos - buffer.startTimeNanos < maxPendingAgeNanos) {
+                next = Math.min(next, buffer.startTimeNanos + maxPendingAgeNanos);
+            } else if (pending.remove(entry.getKey(), buffer)) {
+                List<TraceEvent> events = buffer.close();
+                if (buffer.failed) {
+                    replay(events); // 루트 종료 없이 지금까지 모은 트리만 출력
+                    emittedCount.increment();
+                } else {
+                    evictedCount.increment();
+                }
+                evicted++;
+            }
+        }
+        nextEvictionNanos = next;
+        return evicted;
+    }
+
+    private void replay(List<TraceEvent> events) {
+        for (TraceEvent event : events) {
+            TraceStatus status = new TraceStatus(new TraceId(event.getTraceId(), event.getLevel(), event.getSpanId(), event.getParentSpanId()),
+                    event.getStartTimeNanos(), event.getMessage());
+            if (event.getType() == TraceEvent.Type.BEGIN) {
+                target.begin(status);
+            } else {
+                status.setUsage(event.getUsage());
+                status.setProfile(event.getProfile());
+                target.complete(status, event.getStopTimeNanos(), event.getException());
+            }
+        }
+    }
+
+    @Override
+    public void detach(TraceStatus status) {
+        target.detach(status);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (target instanceof AutoCloseable) {
+            ((AutoCloseable) target).close();
+        }
+    }
+
+    public long getEmittedCount() {
+        return emittedCount.sum();
+    }
+
+    public long getDiscardedCount() {
+        return discardedCount.sum();
+    }
+
+    public long getOverflowCount() {
+        return overflowCount.sum();
+    }
+
+    /**
+     * 루트가 끝나지 않은 채 maxPendingAgeNanos 가 지나 버린 트랜잭션 수 (예외가 있어 출력한 경우 제외)
+     */
+    public long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    /**
+     * 루트가 끝나지 않은 트랜잭션 수
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 한 트랜잭션의 이벤트 버퍼. 여러 스레드가 같은 트랜잭션의 span 을 닫을 수 있으므로 this 로 보호합니다.
+     */
+    private static class SpanBuffer {
+
+        private final int capacity;
+        private final long startTimeNanos; // 루트 시작 시각
+        private final List<TraceEvent> events = new ArrayList<>();
+        private volatile boolean failed;
+        private boolean closed; // 루트가 끝나 더는 받지 않음
+
+        SpanBuffer(int capacity, long startTimeNanos) {
+            this.capacity = capacity;
+            this.startTimeNanos = startTimeNanos;
+        }
+
+        synchronized boolean add(TraceEvent.Type type, TraceId traceId, TraceStatus status, long stopTimeNanos, Exception e) {
+            if (e != null) {
+                failed = true; // 넘쳐서 버리는 span 의 예외도 트랜잭션 출력 여부에는 반영
+            }
+            if (closed || events.size() == capacity) {
+                return false;
+            }
+            TraceEvent event = new TraceEvent();
+            event.set(type, traceId.getIdValue(), traceId.getLevel(), traceId.getSpanId(), traceId.getParentSpanId(), status.getMessage(),
+                    status.getStartTimeNanos(), stopTimeNanos, e, status.getUsage(), status.getProfile());
+            events.add(event);
+            return true;
+        }
+
+        synchronized List<TraceEvent> close() {
+            closed = true;
+            return events;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.choongang.advanced.trace.sink;
+
+import com.choongang.advanced.trace.SpanUsage;
+
+import java.util.List;
+
+/**
+ * 링 버퍼의 슬롯입니다. 미리 만들어 두고 값만 덮어쓰며 재사용합니다.
+ */
+public class TraceEvent {
+
+    public enum Type { BEGIN, COMPLETE }
+
+    private Type type;
+    private long traceId;
+    private int level;
+    private long spanId;
+    private long parentSpanId;
+    private String message;
+    private long startTimeNanos;
+    private long stopTimeNanos;
+    private Exception exception;
+    private SpanUsage usage; // 측정하지 않았으면 null
+    private List<String> profile; // 스택 샘플이 없으면 null
+
+    void set(Type type, long traceId, int level, long spanId, long parentSpanId, String message,
+             long startTimeNanos, long stopTimeNanos, Exception exception, SpanUsage usage, List<String> profile) {
+        this.type = type;
+        this.traceId = traceId;
+        this.level = level;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.message = message;
+        this.startTimeNanos = startTimeNanos;
+        this.stopTimeNanos = stopTimeNanos;
+        this.exception = exception;
+        this.usage = usage;
+        this.profile = profile;
+    }
+
+    void clear() {
+        this.message = null;
+        this.exception = null; // 처리 후 참조를 끊어 GC 가 회수할 수 있게 함
+        this.usage = null;
+        this.profile = null;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getTraceId() {
+        return traceId;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public long getSpanId() {
+        return spanId;
+    }
+
+    public long getParentSpanId() {
+        return parentSpanId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public long getStartTimeNanos() {
+        return startTimeNanos;
+    }
+
+    public long getStopTimeNanos() {
+        return stopTimeNanos;
+    }
+
+    public Exception getException() {
+        return exception;
+    }
+
+    public SpanUsage getUsage() {
+        return usage;
+    }
+
+    public List<String> getProfile() {
+        return profile;
+    }
+}
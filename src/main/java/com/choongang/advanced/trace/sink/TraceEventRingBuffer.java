@@ -0,0 +1,100 @@
+package com.choongang.advanced.trace.sink;
+
+import com.choongang.advanced.trace.SpanUsage;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * 여러 요청 스레드가 쓰고(multi-producer) 하나의 스레드가 읽는(single-consumer) 고정 크기 링 버퍼입니다.
+ *
+ * 생산자는 CAS 로 시퀀스 번호를 하나 확보한 뒤 해당 슬롯에 값을 쓰고, published 배열에 시퀀스를 기록해 공개합니다.
+ * 소비자는 published 에 기대한 시퀀스가 보이는 슬롯까지만 순서대로 읽습니다. 락은 사용하지 않습니다.
+ */
+public class TraceEventRingBuffer {
+
+    private final TraceEvent[] slots;
+    private final AtomicLongArray published; // 슬롯별로 마지막으로 공개된 시퀀스
+    private final int mask;
+    private final AtomicLong producerSequence = new AtomicLong(); // 다음에 확보할 시퀀스
+    private final AtomicLong consumerSequence = new AtomicLong(); // 다음에 읽을 시퀀스
+
+    public TraceEventRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity는 2의 거듭제곱이어야 합니다. capacity=" + capacity);
+        }
+        this.slots = new TraceEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new TraceEvent();
+            published.set(i, -1L);
+        }
+    }
+
+    /**
+     * 빈 슬롯이 있으면 이벤트를 넣고 true, 가득 찼으면 아무것도 하지 않고 false 를 반환합니다.
+     */
+    public boolean tryPublish(TraceEvent.Type type, long traceId, int level, long spanId, long parentSpanId, String message,
+                              long startTimeNanos, long stopTimeNanos, Exception exception) {
+        return tryPublish(type, traceId, level, spanId, parentSpanId, message, startTimeNanos, stopTimeNanos, exception, null, null);
+    }
+
+    /**
+     * @param usage CPU 시간 / 할당 바이트. 측정하지 않았으면 null
+     * @param profile 스택 샘플 출력 줄. 없으면 null
+     */
+    public boolean tryPublish(TraceEvent.Type type, long traceId, int level, long spanId, long parentSpanId, String message,
+                              long startTimeNanos, long stopTimeNanos, Exception exception, SpanUsage usage, List<String> profile) {
+        long sequence;
+        do {
+            sequence = producerSequence.get();
+            if (sequence - consumerSequence.get() >= slots.length) {
+                return false;
+            }
+        } while (!producerSequence.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) (sequence & mask);
+        slots[index].set(type, traceId, level, spanId, parentSpanId, message, startTimeNanos, stopTimeNanos, exception, usage, profile);
+        published.lazySet(index, sequence); // 값을 모두 쓴 뒤에 공개
+        return true;
+    }
+
+    /**
+     * 공개된 이벤트를 최대 maxEvents 개까지 순서대로 handler 에 넘깁니다. 소비자 스레드 하나에서만 호출해야 합니다.
+     *
+     * @return 처리한 이벤트 수
+     */
+    public int drain(Consumer<TraceEvent> handler, int maxEvents) {
+        long next = consumerSequence.get();
+        int drained = 0;
+        while (drained < maxEvents) {
+            int index = (int) (next & mask);
+            if (published.get(index) != next) {
+                break; // 아직 공개되지 않음
+            }
+            TraceEvent event = slots[index];
+            try {
+                handler.accept(event);
+            } finally {
+                event.clear();
+                consumerSequence.lazySet(++next);
+            }
+            drained++;
+        }
+        return drained;
+    }
+
+    /**
+     * 현재 버퍼에 쌓여 있는(확보되었지만 아직 소비되지 않은) 이벤트 수
+     */
+    public int size() {
+        return (int) (producerSequence.get() - consumerSequence.get());
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+}
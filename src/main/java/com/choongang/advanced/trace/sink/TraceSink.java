@@ -0,0 +1,24 @@
+package com.choongang.advanced.trace.sink;
+
+import com.choongang.advanced.trace.TraceStatus;
+
+/**
+ * LogTrace 가 만든 span 시작/종료 정보를 어디에 어떻게 기록할지 결정하는 전략입니다.
+ * TraceStatus 는 재사용될 수 있으므로 호출이 끝난 뒤에는 참조를 보관하지 말고 필요한 값만 복사해야 합니다.
+ *
+ * @see LogTraceSink 요청 스레드에서 바로 로그 출력
+ * @see AsyncTraceSink 링 버퍼에 넣고 별도 스레드에서 로그 출력
+ */
+public interface TraceSink {
+
+    void begin(TraceStatus status);
+
+    void complete(TraceStatus status, long stopTimeNanos, Exception e); // 정상 종료면 e == null
+
+    /**
+     * span 이 시작 스레드를 떠나 다른 스레드에서 complete 될 예정임을 알립니다. (LogTrace.detach)
+     * 데코레이터는 target 으로 넘깁니다.
+     */
+    default void detach(TraceStatus status) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.choongang.advanced.trace.sink.binary;
+
+import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.sink.TraceSink;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static com.choongang.advanced.trace.sink.binary.SpanRecordFormat.DICTIONARY_FILE;
+import static com.choongang.advanced.trace.sink.binary.SpanRecordFormat.NO_EXCEPTION;
+
+/**
+ * 텍스트 로그 대신 완료된 span 을 56바이트 바이너리 레코드로 메모리 매핑 세그먼트 파일에 기록합니다.
+ * 문자열 포맷팅과 appender 를 거치지 않으므로 요청 스레드의 비용이 훨씬 작습니다.
+ * 기록된 파일은 TraceLogDecoder 로 익숙한 [id] |-->... 트리 형태로 되돌릴 수 있습니다.
+ *
+ * begin 은 아무것도 기록하지 않습니다. 완료 레코드의 시작/종료 시간과 level 로 트리를 복원합니다.
+ */
+public class BinaryTraceSink implements TraceSink, AutoCloseable {
+
+    private final SpanNameDictionary dictionary;
+    private final MappedSegmentWriter writer;
+
+    /**
+     * @param directory   세그먼트 파일을 둘 디렉토리
+     * @param segmentSize 세그먼트 파일 하나의 크기(bytes)
+     * @param maxSegments 보관할 최대 세그먼트 수, 0 이면 지우지 않음
+     */
+    public BinaryTraceSink(Path directory, int segmentSize, int maxSegments) throws IOException {
+        this.writer = new MappedSegmentWriter(directory, segmentSize, maxSegments);
+        this.dictionary = new SpanNameDictionary(directory.resolve(DICTIONARY_FILE));
+    }
+
+    @Override
+    public void begin(TraceStatus status) {
+    }
+
+    @Override
+    public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+        TraceId traceId = status.getTraceId();
+        int exceptionId = e == null ? NO_EXCEPTION : dictionary.idOf(e.getClass().getName());
+        writer.write(traceId.getIdValue(), traceId.getLevel(), traceId.getSpanId(), traceId.getParentSpanId(),
+                dictionary.idOf(status.getMessage()), exceptionId,
+                status.getStartTimeNanos(), stopTimeNanos);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+        dictionary.close();
+    }
+}
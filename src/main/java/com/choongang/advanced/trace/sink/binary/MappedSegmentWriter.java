@@ -0,0 +1,129 @@
+package com.choongang.advanced.trace.sink.binary;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static com.choongang.advanced.trace.sink.binary.SpanRecordFormat.*;
+
+/**
+ * 메모리 매핑된 세그먼트 파일에 고정 크기 span 레코드를 이어 붙입니다.
+ *
+ * 쓰기 위치는 AtomicInteger 로 확보하므로 여러 요청 스레드가 락 없이 서로 다른 위치에 동시에 씁니다.
+ * 세그먼트가 가득 차면 다음 세그먼트 파일을 새로 매핑하고(이때만 synchronized),
+ * maxSegments 를 넘으면 가장 오래된 세그먼트 파일을 지웁니다.
+ */
+class MappedSegmentWriter implements AutoCloseable {
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments; // 0 이면 지우지 않음
+    private final Deque<Path> segmentFiles = new ArrayDeque<>();
+    private volatile Segment current;
+    private int nextIndex;
+
+    MappedSegmentWriter(Path directory, int segmentSize, int maxSegments) throws IOException {
+        if (segmentSize < HEADER_SIZE + RECORD_SIZE) {
+            throw new IllegalArgumentException("segmentSize가 너무 작습니다. segmentSize=" + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> isSegmentFile(file.getFileName().toString()))
+                    .sorted()
+                    .forEach(segmentFiles::addLast);
+        }
+        if (!segmentFiles.isEmpty()) {
+            nextIndex = segmentIndex(segmentFiles.getLast().getFileName().toString()) + 1; // 기존 파일은 덮어쓰지 않음
+        }
+        this.current = openSegment();
+    }
+
+    void write(long traceId, int level, long spanId, long parentSpanId, int nameId, int exceptionId, long startNanos, long endNanos) {
+        while (true) {
+            Segment segment = current;
+            int position = segment.reserve();
+            if (position >= 0) {
+                segment.write(position, traceId, level, spanId, parentSpanId, nameId, exceptionId, startNanos, endNanos);
+                return;
+            }
+            roll(segment);
+        }
+    }
+
+    private synchronized void roll(Segment full) {
+        if (current != full) {
+            return; // 다른 스레드가 이미 교체함
+        }
+        try {
+            current = openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Segment openSegment() throws IOException {
+        Path file = directory.resolve(segmentFileName(nextIndex++));
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize); // 채널을 닫아도 매핑은 유지됨
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, RECORD_SIZE);
+
+        segmentFiles.addLast(file);
+        while (maxSegments > 0 && segmentFiles.size() > maxSegments) {
+            Files.deleteIfExists(segmentFiles.removeFirst());
+        }
+        return new Segment(buffer, segmentSize);
+    }
+
+    @Override
+    public synchronized void close() {
+        current.buffer.force();
+    }
+
+    private static class Segment {
+
+        private final MappedByteBuffer buffer;
+        private final int limit;
+        private final AtomicInteger position = new AtomicInteger(HEADER_SIZE);
+
+        Segment(MappedByteBuffer buffer, int size) {
+            this.buffer = buffer;
+            this.limit = size - RECORD_SIZE;
+        }
+
+        /**
+         * @return 레코드를 쓸 위치, 세그먼트가 가득 찼으면 -1
+         */
+        int reserve() {
+            int reserved = position.getAndAdd(RECORD_SIZE);
+            return reserved <= limit ? reserved : -1;
+        }
+
+        void write(int position, long traceId, int level, long spanId, long parentSpanId, int nameId, int exceptionId, long startNanos, long endNanos) {
+            buffer.putLong(position + TRACE_ID_OFFSET, traceId);
+            buffer.putLong(position + START_OFFSET, startNanos);
+            buffer.putLong(position + END_OFFSET, endNanos);
+            buffer.putInt(position + NAME_ID_OFFSET, nameId);
+            buffer.putInt(position + EXCEPTION_ID_OFFSET, exceptionId);
+            buffer.putShort(position + LEVEL_OFFSET, (short) level);
+            buffer.putLong(position + SPAN_ID_OFFSET, spanId);
+            buffer.putLong(position + PARENT_SPAN_ID_OFFSET, parentSpanId);
+            byte flags = exceptionId == NO_EXCEPTION ? FLAG_COMMITTED : (byte) (FLAG_COMMITTED | FLAG_EXCEPTION);
+            buffer.put(position + FLAGS_OFFSET, flags); // 마지막에 기록
+        }
+    }
+}
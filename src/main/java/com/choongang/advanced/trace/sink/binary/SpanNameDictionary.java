@@ -0,0 +1,75 @@
+package com.choongang.advanced.trace.sink.binary;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * span 이름(메시지) <-> int ID 사전입니다.
+ * 레코드에는 ID만 기록하고, 이름은 처음 등장할 때 한 번만 사전 파일에 추가합니다.
+ */
+class SpanNameDictionary implements AutoCloseable {
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final BufferedWriter writer;
+    private int nextId;
+
+    SpanNameDictionary(Path file) throws IOException {
+        for (Map.Entry<Integer, String> entry : read(file).entrySet()) {
+            ids.put(entry.getValue(), entry.getKey());
+            nextId = Math.max(nextId, entry.getKey() + 1);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    int idOf(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        return register(name);
+    }
+
+    private synchronized int register(String name) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        int newId = nextId++;
+        try {
+            writer.write(newId + "\t" + name.replace('\n', ' ').replace('\t', ' '));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ids.put(name, newId);
+        return newId;
+    }
+
+    static Map<Integer, String> read(Path file) throws IOException {
+        Map<Integer, String> names = new HashMap<>();
+        if (!Files.exists(file)) {
+            return names;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (tab > 0) {
+                names.put(Integer.parseInt(line.substring(0, tab)), line.substring(tab + 1));
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,66 @@
+package com.choongang.advanced.trace.sink.binary;
+
+/**
+ * 바이너리 span 로그의 파일 형식입니다.
+ *
+ * <pre>
+ * 세그먼트 파일 (trace-00000.seg, trace-00001.seg ...)
+ *   헤더 16 bytes : magic(int) version(int) recordSize(int) reserved(int)
+ *   레코드 56 bytes (고정 크기, 완료된 span 하나)
+ *     0  traceId        long
+ *     8  startNanos     long
+ *     16 endNanos       long
+ *     24 spanNameId     int   (span-names.dict 의 ID)
+ *     28 exceptionId    int   (예외 클래스 이름의 ID, 예외가 없으면 -1)
+ *     32 level          short
+ *     34 flags          byte  (COMMITTED | EXCEPTION)
+ *     35 ~ 39 패딩
+ *     40 spanId         long
+ *     48 parentSpanId   long  (루트 span 이면 0)
+ *
+ * 이름 사전 (span-names.dict) : "ID\t이름" 한 줄에 하나, UTF-8
+ * </pre>
+ *
+ * flags 의 COMMITTED 비트는 레코드의 나머지 값을 모두 쓴 뒤 마지막에 기록하므로,
+ * 프로세스가 도중에 죽어 일부만 쓰인 레코드는 디코더가 건너뜁니다.
+ */
+final class SpanRecordFormat {
+
+    static final int MAGIC = 0x54524331; // "TRC1"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 56;
+
+    static final int TRACE_ID_OFFSET = 0;
+    static final int START_OFFSET = 8;
+    static final int END_OFFSET = 16;
+    static final int NAME_ID_OFFSET = 24;
+    static final int EXCEPTION_ID_OFFSET = 28;
+    static final int LEVEL_OFFSET = 32;
+    static final int FLAGS_OFFSET = 34;
+    static final int SPAN_ID_OFFSET = 40;
+    static final int PARENT_SPAN_ID_OFFSET = 48;
+
+    static final byte FLAG_COMMITTED = 0x01;
+    static final byte FLAG_EXCEPTION = 0x02;
+    static final int NO_EXCEPTION = -1;
+
+    static final String SEGMENT_PREFIX = "trace-";
+    static final String SEGMENT_SUFFIX = ".seg";
+    static final String DICTIONARY_FILE = "span-names.dict";
+
+    private SpanRecordFormat() {
+    }
+
+    static String segmentFileName(int index) {
+        return String.format("%s%05d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX);
+    }
+
+    static boolean isSegmentFile(String fileName) {
+        return fileName.startsWith(SEGMENT_PREFIX) && fileName.endsWith(SEGMENT_SUFFIX);
+    }
+
+    static int segmentIndex(String fileName) {
+        return Integer.parseInt(fileName.substring(SEGMENT_PREFIX.length(), fileName.length() - SEGMENT_SUFFIX.length()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.choongang.advanced.trace.sink.binary;
+
+import com.choongang.advanced.trace.SpanRecord;
+import com.choongang.advanced.trace.TraceTreeRenderer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.choongang.advanced.trace.sink.binary.SpanRecordFormat.*;
+
+/**
+ * BinaryTraceSink 가 기록한 세그먼트 파일을 텍스트 트리 로그로 복원하는 명령행 도구입니다.
+ *
+ * <pre>
+ * ./gradlew decodeTrace --args="trace-segments"
+ *
+ * [7f3a0c9e12b4d5a1] OrderControllerV5.request()
+ * [7f3a0c9e12b4d5a1] |-->OrderServiceV5.orderItem()
+ * [7f3a0c9e12b4d5a1] |   |-->OrderRepositoryV5.save()
+ * [7f3a0c9e12b4d5a1] |   |<--OrderRepositoryV5.save() time=1000187us
+ * ...
+ * </pre>
+ *
+ * 트리는 TraceTreeRenderer 가 spanId / parentSpanId 로 다시 만듭니다.
+ */
+public class TraceLogDecoder {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: TraceLogDecoder <segment-directory>");
+            System.exit(1);
+        }
+        for (String line : decode(Paths.get(args[0]))) {
+            System.out.println(line);
+        }
+    }
+
+    public static List<String> decode(Path directory) throws IOException {
+        Map<Integer, String> names = SpanNameDictionary.read(directory.resolve(DICTIONARY_FILE));
+        List<SpanRecord> spans = new ArrayList<>();
+        for (Path segment : segmentFiles(directory)) {
+            readSegment(segment, names, spans);
+        }
+        return TraceTreeRenderer.render(spans);
+    }
+
+    private static List<Path> segmentFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> isSegmentFile(file.getFileName().toString()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static void readSegment(Path segment, Map<Integer, String> names, List<SpanRecord> spans) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("세그먼트 파일 형식이 아닙니다. file=" + segment);
+        }
+        int version = buffer.getInt(4);
+        int recordSize = buffer.getInt(8);
+        if (version != VERSION || recordSize != RECORD_SIZE) {
+            throw new IOException("지원하지 않는 세그먼트 버전입니다. file=" + segment);
+        }
+
+        for (int position = HEADER_SIZE; position + RECORD_SIZE <= buffer.limit(); position += RECORD_SIZE) {
+            byte flags = buffer.get(position + FLAGS_OFFSET);
+            if ((flags & FLAG_COMMITTED) == 0) {
+                continue; // 아직 쓰이지 않았거나 쓰다가 중단된 레코드
+            }
+            int exceptionId = buffer.getInt(position + EXCEPTION_ID_OFFSET);
+            spans.add(new SpanRecord(
+                    buffer.getLong(position + TRACE_ID_OFFSET),
+                    buffer.getLong(position + SPAN_ID_OFFSET),
+                    buffer.getLong(position + PARENT_SPAN_ID_OFFSET),
+                    buffer.getShort(position + LEVEL_OFFSET),
+                    names.getOrDefault(buffer.getInt(position + NAME_ID_OFFSET), "?"),
+                    (flags & FLAG_EXCEPTION) == 0 ? null : names.getOrDefault(exceptionId, "?"),
+                    buffer.getLong(position + START_OFFSET),
+                    buffer.getLong(position + END_OFFSET)));
+        }
+    }
+}
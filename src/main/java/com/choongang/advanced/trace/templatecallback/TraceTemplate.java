@@ -1,7 +1,10 @@
 package com.choongang.advanced.trace.templatecallback;
 
-import com.choongang.advanced.trace.TraceStatus;
 import com.choongang.advanced.trace.logtrace.LogTrace;
+import com.choongang.advanced.trace.logtrace.TraceExceptions;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 public class TraceTemplate {
 
@@ -12,16 +15,31 @@ public class TraceTemplate {
     }
 
     public <T> T execute(String message, TraceCallback<T> callback) {
-        TraceStatus status = null;
-        try {
-            status = trace.begin(message);
-            // 비즈니스 로직 실행
-            T result = callback.call(); // 콜백 메서드 호출
-            trace.end(status);
-            return result;
-        } catch (Exception e) {
-            trace.exception(status, e);
-            throw e; // 예외를 다시 던짐
-        }
+        return trace.execute(message, callback::call); // begin, 콜백 메서드 호출, end (예외면 exception 후 다시 던짐)
+    }
+
+    /**
+     * callback 이 반환한 CompletableFuture 가 끝날 때 span 을 닫습니다. 호출 스레드는 기다리지 않습니다.
+     * callback 안에서 연 하위 span 은 이 span 의 자식이 되고, callback 이 반환하면 호출 스레드의 컨텍스트는 원래대로 돌아갑니다.
+     * callback 이 바로 예외를 던지면 execute 와 같이 예외로 닫고 다시 던집니다.
+     */
+    public <T> CompletableFuture<T> executeFuture(String message, TraceCallback<CompletableFuture<T>> callback) {
+        return trace.executeFuture(message, callback::call);
+    }
+
+    /**
+     * whenComplete 로 받은 예외를 span 에 기록할 예외로 바꿉니다. (TraceExceptions.toException)
+     */
+    public static Exception toException(Throwable e) {
+        return TraceExceptions.toException(e);
+    }
+
+    /**
+     * callback 을 executor 에서 실행하고 결과를 CompletableFuture 로 반환합니다.
+     * 호출 스레드의 추적 컨텍스트를 넘기므로 비동기 span 도 같은 트랜잭션의 하위 span 으로 기록됩니다.
+     * 이후 thenApplyAsync 등으로 이어지는 단계에도 컨텍스트가 필요하면 TraceExecutorService 를 사용합니다.
+     */
+    public <T> CompletableFuture<T> executeAsync(String message, TraceCallback<T> callback, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> execute(message, callback), command -> executor.execute(trace.wrap(command)));
     }
 }
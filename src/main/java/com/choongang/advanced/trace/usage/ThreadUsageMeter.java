@@ -0,0 +1,47 @@
+package com.choongang.advanced.trace.usage;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * 현재 스레드의 누적 CPU 시간과 누적 할당 바이트를 읽습니다.
+ *
+ * CPU 시간은 java.lang.management.ThreadMXBean, 할당 바이트는 HotSpot 의 com.sun.management.ThreadMXBean 을 씁니다.
+ * JVM 이 지원하지 않으면 해당 값은 항상 0(CPU) / -1(할당) 입니다.
+ */
+public class ThreadUsageMeter {
+
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final com.sun.management.ThreadMXBean allocationBean; // 지원하지 않으면 null
+    private final boolean cpuTimeSupported;
+
+    public ThreadUsageMeter() {
+        this.cpuTimeSupported = threadBean.isCurrentThreadCpuTimeSupported();
+        if (cpuTimeSupported && !threadBean.isThreadCpuTimeEnabled()) {
+            threadBean.setThreadCpuTimeEnabled(true);
+        }
+        com.sun.management.ThreadMXBean allocation = null;
+        if (threadBean instanceof com.sun.management.ThreadMXBean hotspot && hotspot.isThreadAllocatedMemorySupported()) {
+            if (!hotspot.isThreadAllocatedMemoryEnabled()) {
+                hotspot.setThreadAllocatedMemoryEnabled(true);
+            }
+            allocation = hotspot;
+        }
+        this.allocationBean = allocation;
+    }
+
+    public long cpuTimeNanos() {
+        return cpuTimeSupported ? threadBean.getCurrentThreadCpuTime() : 0L;
+    }
+
+    /**
+     * @return 지원하지 않으면 -1
+     */
+    public long allocatedBytes() {
+        return allocationBean != null ? allocationBean.getCurrentThreadAllocatedBytes() : -1L;
+    }
+
+    public boolean isAllocationSupported() {
+        return allocationBean != null;
+    }
+}
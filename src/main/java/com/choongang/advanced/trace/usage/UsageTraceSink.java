@@ -0,0 +1,121 @@
+package com.choongang.advanced.trace.usage;
+
+import com.choongang.advanced.trace.SpanUsage;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.sink.TraceSink;
+
+import java.util.Arrays;
+
+/**
+ * span 마다 스레드 CPU 시간과 할당 바이트를 재서 TraceStatus 에 SpanUsage 로 붙인 뒤 target 으로 넘기는 데코레이터입니다.
+ *
+ * begin 에서는 target 을 먼저 호출한 뒤, complete 에서는 target 보다 먼저 값을 읽어 다른 출력 단계의 비용이 span 에 섞이지 않게 합니다.
+ * 그래서 가장 바깥에 두고, 통계(MetricsTraceSink)와 출력은 그 안쪽에 둡니다.
+ *
+ * 스레드별로 열린 span 의 시작 값을 스택으로 들고 있다가 닫힐 때 total 을 부모의 자식 합계에 더해 self 를 구합니다.
+ * 따라서 total / self 는 같은 스레드 안에서의 값입니다. wrap 으로 다른 스레드에서 실행한 자식 span 은 부모에 더해지지 않고,
+ * detach 해 다른 스레드에서 닫은 span 은 시작한 스레드의 스택에 없으므로 측정하지 않습니다. (usage == null)
+ */
+public class UsageTraceSink implements TraceSink, AutoCloseable {
+
+    private final TraceSink target;
+    private final ThreadUsageMeter meter;
+    private final ThreadLocal<UsageStack> stackHolder = ThreadLocal.withInitial(UsageStack::new);
+
+    public UsageTraceSink(TraceSink target) {
+        this(target, new ThreadUsageMeter());
+    }
+
+    public UsageTraceSink(TraceSink target, ThreadUsageMeter meter) {
+        this.target = target;
+        this.meter = meter;
+    }
+
+    @Override
+    public void begin(TraceStatus status) {
+        target.begin(status);
+        UsageStack stack = stackHolder.get();
+        if (status.getTraceId().isFirstLevel()) {
+            stack.depth = 0; // 새 트랜잭션. 닫히지 않고 남은 span 정리
+        }
+        stack.push(status.getTraceId().getSpanId(), meter.cpuTimeNanos(), meter.allocatedBytes());
+    }
+
+    @Override
+    public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+        long cpu = meter.cpuTimeNanos();
+        long allocated = meter.allocatedBytes();
+        status.setUsage(stackHolder.get().pop(status.getTraceId().getSpanId(), cpu, allocated));
+        target.complete(status, stopTimeNanos, e);
+    }
+
+    @Override
+    public void detach(TraceStatus status) {
+        target.detach(status);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (target instanceof AutoCloseable) {
+            ((AutoCloseable) target).close();
+        }
+    }
+
+    /**
+     * 한 스레드의 열린 span 별 시작 값과 자식 합계. 배열을 재사용하므로 span 마다 SpanUsage 외의 할당이 없습니다.
+     */
+    static class UsageStack {
+
+        private long[] spanIds = new long[16];
+        private long[] cpuStart = new long[16];
+        private long[] allocatedStart = new long[16];
+        private long[] childCpu = new long[16];
+        private long[] childAllocated = new long[16];
+        int depth;
+
+        void push(long spanId, long cpu, long allocated) {
+            if (depth == spanIds.length) {
+                grow();
+            }
+            spanIds[depth] = spanId;
+            cpuStart[depth] = cpu;
+            allocatedStart[depth] = allocated;
+            childCpu[depth] = 0L;
+            childAllocated[depth] = 0L;
+            depth++;
+        }
+
+        /**
+         * spanId 를 위에서부터 찾아 닫습니다. 그 위에 남은 span(닫히지 않은 자식)은 버립니다.
+         * @return 이 스레드에서 열리지 않은 span 이면 null
+         */
+        SpanUsage pop(long spanId, long cpu, long allocated) {
+            int index = depth - 1;
+            while (index >= 0 && spanIds[index] != spanId) {
+                index--;
+            }
+            if (index < 0) {
+                return null;
+            }
+            long cpuTotal = cpu - cpuStart[index];
+            long allocatedTotal = allocated < 0 ? -1L : allocated - allocatedStart[index];
+            SpanUsage usage = new SpanUsage(cpuTotal, cpuTotal - childCpu[index],
+                    allocatedTotal, allocatedTotal < 0 ? -1L : allocatedTotal - childAllocated[index]);
+            depth = index;
+            if (index > 0) {
+                childCpu[index - 1] += cpuTotal;
+                childAllocated[index - 1] += Math.max(allocatedTotal, 0L);
+            }
+            return usage;
+        }
+
+        private void grow() {
+            int size = spanIds.length * 2;
+            spanIds = Arrays.copyOf(spanIds, size);
+            cpuStart = Arrays.copyOf(cpuStart, size);
+            allocatedStart = Arrays.copyOf(allocatedStart, size);
+            childCpu = Arrays.copyOf(childCpu, size);
+            childAllocated = Arrays.copyOf(childAllocated, size);
+        }
+    }
+}
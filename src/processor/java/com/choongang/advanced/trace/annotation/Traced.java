@@ -0,0 +1,22 @@
+package com.choongang.advanced.trace.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 메서드 실행을 하나의 span 으로 추적합니다.
+ *
+ * 컴파일할 때 TracedProcessor 가 이 메서드를 가진 클래스의 하위 클래스(Traced + 클래스명)를 만들고,
+ * 그 클래스가 스프링 빈으로 등록됩니다. 원래 클래스에는 @Service 같은 스테레오타입을 붙이지 않습니다.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.METHOD)
+public @interface Traced {
+
+    /**
+     * span 메시지. 비워 두면 "클래스명.메서드명()"
+     */
+    String value() default "";
+}
@@ -0,0 +1,279 @@
+package com.choongang.advanced.trace.annotation;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * @Traced 메서드를 가진 클래스마다 추적 하위 클래스 Traced{클래스명} 을 생성합니다.
+ *
+ * 생성된 메서드는 V3 의 try/catch 를 그대로 펼친 코드라 호출마다 템플릿이나 콜백 객체를 만들지 않고,
+ * super 메서드를 직접 호출하므로 리플렉션이나 프록시도 없습니다.
+ * 생성된 클래스에는 요청 매핑이 있으면 @RestController, 없으면 @Component 를 붙여 원래 클래스 대신 빈으로 등록되게 합니다.
+ * 생성자는 원래 클래스의 생성자 파라미터 앞에 LogTrace 를 하나 더 받습니다.
+ */
+@SupportedAnnotationTypes("com.choongang.advanced.trace.annotation.Traced")
+public class TracedProcessor extends AbstractProcessor {
+
+    static final String PREFIX = "Traced";
+
+    private static final String LOG_TRACE = "com.choongang.advanced.trace.logtrace.LogTrace";
+    private static final String TRACE_STATUS = "com.choongang.advanced.trace.TraceStatus";
+    private static final String MAPPING_PACKAGE = "org.springframework.web.bind.annotation.";
+    private static final Set<String> STEREOTYPES = Set.of(
+            "org.springframework.stereotype.Component",
+            "org.springframework.stereotype.Service",
+            "org.springframework.stereotype.Repository",
+            "org.springframework.stereotype.Controller",
+            "org.springframework.web.bind.annotation.RestController");
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        Map<TypeElement, List<ExecutableElement>> tracedMethods = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(Traced.class)) {
+            ExecutableElement method = (ExecutableElement) element;
+            tracedMethods.computeIfAbsent((TypeElement) method.getEnclosingElement(), type -> new ArrayList<>()).add(method);
+        }
+
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : tracedMethods.entrySet()) {
+            TypeElement type = entry.getKey();
+            ExecutableElement constructor = validate(type, entry.getValue());
+            if (constructor == null) {
+                continue;
+            }
+            try {
+                write(type, constructor, entry.getValue());
+            } catch (IOException e) {
+                error(type, "추적 클래스를 생성하지 못했습니다. " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 하위 클래스로 감쌀 수 있는지 확인하고, 생성된 클래스가 호출할 생성자를 반환합니다. 문제가 있으면 컴파일 오류를 내고 null
+     */
+    private ExecutableElement validate(TypeElement type, List<ExecutableElement> methods) {
+        boolean valid = true;
+        if (type.getKind() != ElementKind.CLASS || type.getNestingKind() != NestingKind.TOP_LEVEL
+                || type.getModifiers().contains(Modifier.FINAL) || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            error(type, "@Traced 는 final, abstract 가 아닌 최상위 클래스의 메서드에만 붙일 수 있습니다.");
+            valid = false;
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            error(type, "@Traced 는 제네릭 클래스를 지원하지 않습니다.");
+            valid = false;
+        }
+        for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+            if (STEREOTYPES.contains(annotationName(annotation))) {
+                error(type, "@Traced 클래스에는 스테레오타입을 붙이지 않습니다. 생성된 " + PREFIX + type.getSimpleName() + " 이 빈으로 등록됩니다.");
+                valid = false;
+            }
+        }
+        for (ExecutableElement method : methods) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.FINAL)) {
+                error(method, "@Traced 메서드는 private, static, final 일 수 없습니다.");
+                valid = false;
+            }
+        }
+
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements()).stream()
+                .filter(constructor -> !constructor.getModifiers().contains(Modifier.PRIVATE))
+                .collect(Collectors.toList());
+        if (constructors.size() != 1) {
+            error(type, "@Traced 클래스는 private 이 아닌 생성자가 하나만 있어야 합니다.");
+            return null;
+        }
+        return valid ? constructors.get(0) : null;
+    }
+
+    private void write(TypeElement type, ExecutableElement constructor, List<ExecutableElement> methods) throws IOException {
+        String packageName = ((PackageElement) type.getEnclosingElement()).getQualifiedName().toString();
+        String simpleName = PREFIX + type.getSimpleName();
+
+        StringBuilder sb = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            sb.append("package ").append(packageName).append(";\n\n");
+        }
+        sb.append("/**\n * ").append(type.getSimpleName()).append(" 의 @Traced 메서드를 추적하는 하위 클래스 (TracedProcessor 가 생성)\n */\n");
+        sb.append("@javax.annotation.processing.Generated(\"").append(TracedProcessor.class.getName()).append("\")\n");
+        sb.append(hasRequestMapping(type) ? "@org.springframework.web.bind.annotation.RestController\n" : "@org.springframework.stereotype.Component\n");
+        sb.append("public class ").append(simpleName).append(" extends ").append(type.getSimpleName()).append(" {\n\n");
+        sb.append("    private final ").append(LOG_TRACE).append(" $trace;\n\n");
+
+        writeConstructor(sb, simpleName, constructor);
+        for (ExecutableElement method : methods) {
+            writeMethod(sb, type, method);
+        }
+        sb.append("}\n");
+
+        try (Writer writer = processingEnv.getFiler().createSourceFile(packageName.isEmpty() ? simpleName : packageName + "." + simpleName, type).openWriter()) {
+            writer.write(sb.toString());
+        }
+    }
+
+    private void writeConstructor(StringBuilder sb, String simpleName, ExecutableElement constructor) {
+        sb.append("    public ").append(simpleName).append("(").append(LOG_TRACE).append(" $trace");
+        for (VariableElement parameter : constructor.getParameters()) {
+            sb.append(", ");
+            appendAnnotations(sb, parameter.getAnnotationMirrors(), " ");
+            sb.append(parameter.asType()).append(" ").append(parameter.getSimpleName());
+        }
+        sb.append(")");
+        appendThrows(sb, constructor);
+        sb.append(" {\n");
+        sb.append("        super(").append(argumentNames(constructor)).append(");\n");
+        sb.append("        this.$trace = $trace;\n");
+        sb.append("    }\n");
+    }
+
+    private void writeMethod(StringBuilder sb, TypeElement type, ExecutableElement method) {
+        String message = method.getAnnotation(Traced.class).value();
+        if (message.isEmpty()) {
+            message = type.getSimpleName() + "." + method.getSimpleName() + "()";
+        }
+        boolean isVoid = method.getReturnType().getKind() == TypeKind.VOID;
+
+        sb.append("\n    @Override\n");
+        for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+            String name = annotationName(annotation);
+            if (!name.equals(Traced.class.getName()) && !name.equals(Override.class.getName())) {
+                sb.append("    ").append(annotation).append("\n");
+            }
+        }
+        sb.append("    ").append(visibility(method));
+        appendTypeParameters(sb, method);
+        sb.append(method.getReturnType()).append(" ").append(method.getSimpleName()).append("(");
+        List<? extends VariableElement> parameters = method.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            VariableElement parameter = parameters.get(i);
+            if (i > 0) {
+                sb.append(", ");
+            }
+            appendAnnotations(sb, parameter.getAnnotationMirrors(), " ");
+            String parameterType = parameter.asType().toString();
+            if (method.isVarArgs() && i == parameters.size() - 1) {
+                parameterType = parameterType.substring(0, parameterType.length() - 2) + "...";
+            }
+            sb.append(parameterType).append(" ").append(parameter.getSimpleName());
+        }
+        sb.append(")");
+        appendThrows(sb, method);
+        sb.append(" {\n");
+
+        String call = "super." + method.getSimpleName() + "(" + argumentNames(method) + ");\n";
+        sb.append("        ").append(TRACE_STATUS).append(" $status = null;\n");
+        sb.append("        try {\n");
+        sb.append("            $status = $trace.begin(\"").append(escape(message)).append("\");\n");
+        if (isVoid) {
+            sb.append("            ").append(call);
+            sb.append("            $trace.end($status);\n");
+        } else {
+            sb.append("            ").append(method.getReturnType()).append(" $result = ").append(call);
+            sb.append("            $trace.end($status);\n");
+            sb.append("            return $result;\n");
+        }
+        sb.append("        } catch (java.lang.Exception $e) {\n");
+        sb.append("            $trace.exception($status, $e);\n");
+        sb.append("            throw $e;\n");
+        sb.append("        }\n");
+        sb.append("    }\n");
+    }
+
+    private static boolean hasRequestMapping(TypeElement type) {
+        for (ExecutableElement method : ElementFilter.methodsIn(type.getEnclosedElements())) {
+            for (AnnotationMirror annotation : method.getAnnotationMirrors()) {
+                String name = annotationName(annotation);
+                if (name.startsWith(MAPPING_PACKAGE) && name.endsWith("Mapping")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String visibility(ExecutableElement method) {
+        Set<Modifier> modifiers = method.getModifiers();
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return "public ";
+        }
+        return modifiers.contains(Modifier.PROTECTED) ? "protected " : "";
+    }
+
+    private static void appendTypeParameters(StringBuilder sb, ExecutableElement method) {
+        List<? extends TypeParameterElement> typeParameters = method.getTypeParameters();
+        if (typeParameters.isEmpty()) {
+            return;
+        }
+        sb.append("<");
+        for (int i = 0; i < typeParameters.size(); i++) {
+            TypeParameterElement typeParameter = typeParameters.get(i);
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(typeParameter.getSimpleName());
+            List<? extends TypeMirror> bounds = typeParameter.getBounds();
+            if (!(bounds.size() == 1 && bounds.get(0).toString().equals("java.lang.Object"))) {
+                sb.append(" extends ").append(bounds.stream().map(TypeMirror::toString).collect(Collectors.joining(" & ")));
+            }
+        }
+        sb.append("> ");
+    }
+
+    private static void appendAnnotations(StringBuilder sb, List<? extends AnnotationMirror> annotations, String separator) {
+        for (AnnotationMirror annotation : annotations) {
+            sb.append(annotation).append(separator);
+        }
+    }
+
+    private static void appendThrows(StringBuilder sb, ExecutableElement executable) {
+        if (!executable.getThrownTypes().isEmpty()) {
+            sb.append(" throws ").append(executable.getThrownTypes().stream().map(TypeMirror::toString).collect(Collectors.joining(", ")));
+        }
+    }
+
+    private static String argumentNames(ExecutableElement executable) {
+        return executable.getParameters().stream().map(parameter -> parameter.getSimpleName().toString()).collect(Collectors.joining(", "));
+    }
+
+    private static String annotationName(AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private void error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
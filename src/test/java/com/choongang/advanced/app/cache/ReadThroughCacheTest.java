@@ -0,0 +1,78 @@
+package com.choongang.advanced.app.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadThroughCacheTest {
+
+    long now = 0L;
+    AtomicInteger loadCount = new AtomicInteger();
+    Map<String, CompletableFuture<String>> pending = new ConcurrentHashMap<>();
+
+    CompletableFuture<String> load(String key) {
+        loadCount.incrementAndGet();
+        return pending.computeIfAbsent(key, k -> new CompletableFuture<>());
+    }
+
+    @Test
+    void concurrentMisses_loadOnce() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(this::load, 10, 1_000L, () -> now);
+
+        CompletableFuture<String> first = cache.get("a");
+        CompletableFuture<String> second = cache.get("a");
+        pending.get("a").complete("A");
+
+        assertThat(first.join()).isEqualTo("A");
+        assertThat(second.join()).isEqualTo("A");
+        assertThat(cache.get("a").join()).isEqualTo("A");
+        assertThat(loadCount.get()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1L);
+        assertThat(cache.getHitCount()).isEqualTo(2L);
+    }
+
+    @Test
+    void expiredEntry_isReloaded() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(key -> CompletableFuture.completedFuture(key + loadCount.incrementAndGet()), 10, 1_000L, () -> now);
+
+        assertThat(cache.get("a").join()).isEqualTo("a1");
+        now += 999;
+        assertThat(cache.get("a").join()).isEqualTo("a1");
+        now += 1;
+        assertThat(cache.get("a").join()).isEqualTo("a2");
+        assertThat(cache.getExpirationCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void leastRecentlyUsed_isEvicted() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(key -> CompletableFuture.completedFuture(key.toUpperCase()), 2, 1_000L, () -> now);
+
+        cache.get("a");
+        cache.get("b");
+        cache.get("a"); // b 가 가장 오래 사용하지 않은 항목
+        cache.get("c");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getEvictionCount()).isEqualTo(1L);
+        cache.get("a");
+        assertThat(cache.getMissCount()).isEqualTo(3L); // a, b, c
+    }
+
+    @Test
+    void failedLoad_isNotCached() {
+        ReadThroughCache<String, String> cache = new ReadThroughCache<>(this::load, 10, 1_000L, () -> now);
+
+        CompletableFuture<String> failed = cache.get("ex");
+        pending.remove("ex").completeExceptionally(new IllegalStateException("예외 발생!"));
+
+        assertThat(failed.isCompletedExceptionally()).isTrue();
+        assertThat(cache.size()).isEqualTo(0);
+        cache.get("ex");
+        assertThat(loadCount.get()).isEqualTo(2);
+    }
+}
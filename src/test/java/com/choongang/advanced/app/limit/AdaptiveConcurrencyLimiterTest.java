@@ -0,0 +1,89 @@
+package com.choongang.advanced.app.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimiterTest {
+
+    long now = 0L;
+
+    /**
+     * 처리 중인 요청을 limit 개까지 채운 뒤 모두 rttNanos 만에 끝냄
+     */
+    void round(AdaptiveConcurrencyLimiter limiter, long rttNanos) {
+        List<AdaptiveConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        AdaptiveConcurrencyLimiter.Permit permit;
+        while ((permit = limiter.acquire()) != null) {
+            permits.add(permit);
+        }
+        now += rttNanos;
+        permits.forEach(AdaptiveConcurrencyLimiter.Permit::release);
+    }
+
+    @Test
+    void rejectWhenFull() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(2, 1, 10, () -> now);
+
+        AdaptiveConcurrencyLimiter.Permit first = limiter.acquire();
+        AdaptiveConcurrencyLimiter.Permit second = limiter.acquire();
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(limiter.acquire()).isNull();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+        assertThat(limiter.getRejectedCount()).isEqualTo(1L);
+
+        first.release();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+        assertThat(limiter.acquire()).isNotNull();
+        assertThat(limiter.getAcceptedCount()).isEqualTo(3L);
+    }
+
+    @Test
+    void stableLatency_growsToMax() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 5, 100, () -> now);
+
+        for (int i = 0; i < 50; i++) {
+            round(limiter, 1_000_000L);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void latencySpike_shrinksQuickly_thenAdaptsToNewBaseline() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(50, 5, 100, () -> now);
+        for (int i = 0; i < 5; i++) {
+            round(limiter, 1_000_000L);
+        }
+        int before = limiter.getLimit();
+
+        for (int i = 0; i < 3; i++) {
+            round(limiter, 10_000_000L);
+        }
+        assertThat(limiter.getLimit()).isLessThanOrEqualTo(10);
+        assertThat(limiter.getLimit()).isLessThan(before);
+
+        // 느려진 응답 시간이 계속되면 장기 평균이 따라 올라가 그 응답 시간을 새 기준으로 삼음
+        for (int i = 0; i < 200; i++) {
+            round(limiter, 10_000_000L);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(100);
+    }
+
+    @Test
+    void underused_doesNotGrow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 5, 100, () -> now);
+
+        for (int i = 0; i < 50; i++) {
+            AdaptiveConcurrencyLimiter.Permit permit = limiter.acquire();
+            now += 1_000_000L;
+            permit.release();
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(20);
+    }
+}
@@ -0,0 +1,96 @@
+package com.choongang.advanced.app.singleflight;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.logtrace.ThreadLocalLogTrace;
+import com.choongang.advanced.trace.sink.TraceSink;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightTest {
+
+    List<String> spans = new CopyOnWriteArrayList<>();
+    SingleFlight<String, String> singleFlight = new SingleFlight<>("save", new ThreadLocalLogTrace(
+            new RandomTraceIdGenerator(), new SystemTraceClock(), new RecordingSink(), false));
+
+    @Test
+    void concurrentCalls_shareOneExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> singleFlight.execute("a", () -> {
+            executions.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "ok";
+        }));
+        started.await();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> singleFlight.execute("a", () -> {
+            executions.incrementAndGet();
+            return "second";
+        }));
+        while (singleFlight.getJoinedCount() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(spans).containsExactly("save joined");
+
+        // 끝난 실행은 남지 않음
+        assertThat(singleFlight.execute("a", () -> "next")).isEqualTo("next");
+    }
+
+    @Test
+    void exception_isSharedWithJoinedCalls() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> singleFlight.execute("ex", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("예외 발생!");
+        }));
+        started.await();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> singleFlight.execute("ex", () -> "second"));
+        while (singleFlight.getJoinedCount() == 0) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        assertThat(first.handle((result, e) -> e.getCause()).get(5, TimeUnit.SECONDS)).isInstanceOf(IllegalStateException.class);
+        assertThat(second.handle((result, e) -> e.getCause()).get(5, TimeUnit.SECONDS)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    class RecordingSink implements TraceSink {
+
+        @Override
+        public void begin(TraceStatus status) {
+        }
+
+        @Override
+        public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+            spans.add(status.getMessage());
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.choongang.advanced.app.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OrderLogTest {
+
+    @Test
+    void concurrentAppends_areGroupCommitted() throws Exception {
+        Path directory = Files.createTempDirectory("order-wal");
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        try (OrderLog orderLog = new OrderLog(directory, 1024 * 1024)) {
+            for (int i = 0; i < 1000; i++) {
+                futures.add(orderLog.append("item" + i));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+            assertThat(orderLog.getAppendCount()).isEqualTo(1000L);
+            assertThat(orderLog.getForceCount()).isLessThan(1000L);
+        }
+
+        List<OrderLogEntry> entries = OrderLog.readAll(directory);
+        assertThat(entries).hasSize(1000);
+        assertThat(entries.get(999).getSequence()).isEqualTo(999L);
+        assertThat(entries.get(999).getItemId()).isEqualTo("item999");
+    }
+
+    @Test
+    void rollsSegments() throws Exception {
+        Path directory = Files.createTempDirectory("order-wal");
+        try (OrderLog orderLog = new OrderLog(directory, 16 + 3 * (16 + 5))) { // 세그먼트당 레코드 3개
+            for (int i = 0; i < 10; i++) {
+                orderLog.append("item" + i).join();
+            }
+        }
+
+        assertThat(segmentCount(directory)).isEqualTo(4L);
+        assertThat(OrderLog.readAll(directory).stream().map(OrderLogEntry::getItemId).collect(Collectors.toList()))
+                .containsExactly("item0", "item1", "item2", "item3", "item4", "item5", "item6", "item7", "item8", "item9");
+    }
+
+    @Test
+    void recovery_truncatesTornTail() throws Exception {
+        Path directory = Files.createTempDirectory("order-wal");
+        try (OrderLog orderLog = new OrderLog(directory, 1024 * 1024)) {
+            orderLog.append("item0").join();
+            orderLog.append("item1").join();
+        }
+        // 프로세스가 레코드를 쓰다가 죽은 상황: 헤더만 있고 내용이 잘린 레코드
+        Path segment = directory.resolve("orders-00000.wal");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.allocate(12).putInt(100).putInt(0).putInt(0).flip());
+        }
+
+        try (OrderLog orderLog = new OrderLog(directory, 1024 * 1024)) {
+            assertThat(orderLog.getNextSequence()).isEqualTo(2L);
+            assertThat(orderLog.append("item2").join()).isEqualTo(2L);
+        }
+
+        assertThat(OrderLog.readAll(directory).stream().map(OrderLogEntry::getItemId).collect(Collectors.toList()))
+                .containsExactly("item0", "item1", "item2");
+    }
+
+    @Test
+    void recovery_emptyLastSegment() throws Exception {
+        Path directory = Files.createTempDirectory("order-wal");
+        try (OrderLog orderLog = new OrderLog(directory, 1024 * 1024)) {
+            orderLog.append("item0").join();
+            orderLog.append("item1").join();
+        }
+        // 다음 세그먼트를 만든 직후, 헤더를 쓰기 전에 죽은 상황
+        Files.createFile(directory.resolve("orders-00001.wal"));
+        assertThat(OrderLog.readAll(directory)).hasSize(2);
+
+        try (OrderLog orderLog = new OrderLog(directory, 1024 * 1024)) {
+            assertThat(orderLog.getNextSequence()).isEqualTo(2L);
+            assertThat(orderLog.append("item2").join()).isEqualTo(2L);
+        }
+
+        assertThat(Files.size(directory.resolve("orders-00001.wal"))).isGreaterThan(16L);
+        assertThat(OrderLog.readAll(directory).stream().map(OrderLogEntry::getItemId).collect(Collectors.toList()))
+                .containsExactly("item0", "item1", "item2");
+    }
+
+    @Test
+    void recovery_shortFirstSegment() throws Exception {
+        Path directory = Files.createTempDirectory("order-wal");
+        Files.write(directory.resolve("orders-00000.wal"), new byte[]{0x4f, 0x52});
+
+        try (OrderLog orderLog = new OrderLog(directory, 1024 * 1024)) {
+            assertThat(orderLog.getNextSequence()).isEqualTo(0L);
+            assertThat(orderLog.append("item0").join()).isEqualTo(0L);
+        }
+        assertThat(OrderLog.readAll(directory)).hasSize(1);
+    }
+
+    @Test
+    void failedWrite_isRolledBack() throws Exception {
+        Path directory = Files.createTempDirectory("order-wal");
+        FailingChannel[] opened = new FailingChannel[1];
+        try (OrderLog orderLog = new OrderLog(directory, 1024 * 1024, (file, options) -> opened[0] = new FailingChannel(FileChannel.open(file, options)))) {
+            orderLog.append("item0").join();
+
+            opened[0].failWrite = true;
+            assertThatThrownBy(() -> orderLog.append("item1").join()).isInstanceOf(CompletionException.class);
+            opened[0].failWrite = false;
+
+            assertThat(orderLog.append("item2").join()).isEqualTo(1L); // 깨진 레코드 뒤가 아니라 그 자리에 이어 씀
+        }
+
+        assertThat(OrderLog.readAll(directory).stream().map(OrderLogEntry::getItemId).collect(Collectors.toList()))
+                .containsExactly("item0", "item2");
+    }
+
+    @Test
+    void failedForce_stopsLog() throws Exception {
+        Path directory = Files.createTempDirectory("order-wal");
+        FailingChannel[] opened = new FailingChannel[1];
+        try (OrderLog orderLog = new OrderLog(directory, 1024 * 1024, (file, options) -> opened[0] = new FailingChannel(FileChannel.open(file, options)))) {
+            orderLog.append("item0").join();
+
+            opened[0].failForce = true;
+            assertThatThrownBy(() -> orderLog.append("item1").join()).isInstanceOf(CompletionException.class);
+            opened[0].failForce = false;
+
+            assertThatThrownBy(() -> orderLog.append("item2").join()).isInstanceOf(CompletionException.class);
+        }
+
+        assertThat(OrderLog.readAll(directory).stream().map(OrderLogEntry::getItemId).collect(Collectors.toList()))
+                .containsExactly("item0");
+    }
+
+    /**
+     * 쓰기 도중(절반만 쓴 뒤) 또는 force() 에서 실패하는 FileChannel
+     */
+    static class FailingChannel extends FileChannel {
+
+        final FileChannel delegate;
+        volatile boolean failWrite;
+        volatile boolean failForce;
+
+        FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            if (failWrite) {
+                ByteBuffer half = src.duplicate();
+                half.limit(src.position() + src.remaining() / 2);
+                delegate.write(half, position);
+                throw new IOException("디스크가 가득 찼습니다.");
+            }
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            if (failForce) {
+                throw new IOException("fsync 실패");
+            }
+            delegate.force(metaData);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            return delegate.write(src);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private static long segmentCount(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".wal")).count();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.choongang.advanced.app.v6;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MicroBatcherTest {
+
+    List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    CompletableFuture<List<String>> upperCase(List<String> items) {
+        batches.add(new ArrayList<>(items));
+        return CompletableFuture.completedFuture(items.stream().map(String::toUpperCase).collect(Collectors.toList()));
+    }
+
+    @Test
+    void fullBatch_isSentWithoutWaitingForLinger() {
+        try (MicroBatcher<String, String> batcher = new MicroBatcher<>(this::upperCase, 3, 1, TimeUnit.HOURS)) {
+            CompletableFuture<String> a = batcher.submit("a");
+            CompletableFuture<String> b = batcher.submit("b");
+            CompletableFuture<String> c = batcher.submit("c");
+
+            assertThat(c.join()).isEqualTo("C");
+            assertThat(a.join()).isEqualTo("A");
+            assertThat(b.join()).isEqualTo("B");
+            assertThat(batches).hasSize(1);
+        }
+    }
+
+    @Test
+    void partialBatch_isSentAfterLinger() {
+        try (MicroBatcher<String, String> batcher = new MicroBatcher<>(this::upperCase, 100, 10, TimeUnit.MILLISECONDS)) {
+            CompletableFuture<String> a = batcher.submit("a");
+            CompletableFuture<String> b = batcher.submit("b");
+
+            assertThat(a.join()).isEqualTo("A");
+            assertThat(b.join()).isEqualTo("B");
+            assertThat(batches).hasSize(1);
+            assertThat(batcher.getItemCount()).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    void overflow_isSplitIntoBatchesOfMaxSize() {
+        try (MicroBatcher<String, String> batcher = new MicroBatcher<>(this::upperCase, 2, 10, TimeUnit.MILLISECONDS)) {
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            synchronized (batcher) { // 첫 묶음을 보내기 전에 5개를 모두 넣음
+                for (String item : List.of("a", "b", "c", "d", "e")) {
+                    results.add(batcher.submit(item));
+                }
+            }
+
+            assertThat(results.stream().map(CompletableFuture::join).collect(Collectors.toList())).containsExactly("A", "B", "C", "D", "E");
+            assertThat(batches).hasSize(3);
+            assertThat(batches.stream().allMatch(batch -> batch.size() <= 2)).isTrue();
+            assertThat(batcher.getItemCount()).isEqualTo(5L);
+        }
+    }
+
+    @Test
+    void wrongResultSize_failsEveryItem() {
+        try (MicroBatcher<String, String> batcher = new MicroBatcher<String, String>(items -> CompletableFuture.completedFuture(List.of("A")), 2, 1, TimeUnit.HOURS)) {
+            CompletableFuture<String> a = batcher.submit("a");
+            CompletableFuture<String> b = batcher.submit("b");
+
+            assertThat(a.handle((result, e) -> e).join()).isInstanceOf(IllegalStateException.class);
+            assertThat(b.handle((result, e) -> e).join()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void nullResult_failsEveryItem() {
+        try (MicroBatcher<String, String> batcher = new MicroBatcher<String, String>(items -> CompletableFuture.completedFuture(null), 2, 1, TimeUnit.HOURS)) {
+            CompletableFuture<String> a = batcher.submit("a");
+            CompletableFuture<String> b = batcher.submit("b");
+
+            assertThat(a.handle((result, e) -> e).join()).isInstanceOf(IllegalStateException.class);
+            assertThat(b.handle((result, e) -> e).join()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+
+    @Test
+    void failedBatch_failsEveryItem() {
+        try (MicroBatcher<String, String> batcher = new MicroBatcher<>(items -> {
+            throw new IllegalStateException("예외 발생!");
+        }, 2, 1, TimeUnit.HOURS)) {
+            CompletableFuture<String> a = batcher.submit("a");
+            CompletableFuture<String> b = batcher.submit("b");
+
+            assertThat(a.handle((result, e) -> e).join()).isInstanceOf(IllegalStateException.class);
+            assertThat(b.handle((result, e) -> e).join()).isInstanceOf(IllegalStateException.class);
+        }
+    }
+}
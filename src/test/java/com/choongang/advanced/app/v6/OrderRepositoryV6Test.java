@@ -0,0 +1,42 @@
+package com.choongang.advanced.app.v6;
+
+import com.choongang.advanced.app.store.OrderLog;
+import com.choongang.advanced.trace.logtrace.NoopLogTrace;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrderRepositoryV6Test {
+
+    @Test
+    void nullItemInBatch_failsOnlyThatItem() throws Exception {
+        try (OrderLog orderLog = new OrderLog(Files.createTempDirectory("order-wal"), 1024 * 1024);
+             OrderRepositoryV6 repository = new OrderRepositoryV6(new NoopLogTrace(), Optional.of(orderLog), 64, 50)) {
+            assertItemFailures(repository);
+        }
+    }
+
+    @Test
+    void nullItemInBatch_failsOnlyThatItem_withoutOrderLog() {
+        try (OrderRepositoryV6 repository = new OrderRepositoryV6(new NoopLogTrace(), Optional.empty(), 64, 50)) {
+            assertItemFailures(repository);
+        }
+    }
+
+    private static void assertItemFailures(OrderRepositoryV6 repository) {
+        // 같은 묶음으로 들어가도록 linger 안에 모두 제출
+        CompletableFuture<Void> a = repository.save("a");
+        CompletableFuture<Void> missing = repository.save(null);
+        CompletableFuture<Void> ex = repository.save("ex");
+        CompletableFuture<Void> b = repository.save("b");
+
+        assertThat(a.handle((result, e) -> e).join()).isNull();
+        assertThat(b.handle((result, e) -> e).join()).isNull();
+        assertThat(missing.handle((result, e) -> e).join()).isNotNull();
+        assertThat(ex.handle((result, e) -> e).join()).isNotNull();
+    }
+}
@@ -0,0 +1,57 @@
+package com.choongang.advanced.app.v7;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.logtrace.LogTrace;
+import com.choongang.advanced.trace.logtrace.ThreadLocalLogTrace;
+import com.choongang.advanced.trace.sink.TraceSink;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * TracedProcessor 가 생성한 Traced* 클래스 검증
+ */
+public class TracedOrderV7Test {
+
+    List<String> lines = new ArrayList<>();
+    LogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), new TraceSink() {
+        @Override
+        public void begin(TraceStatus status) {
+            lines.add("begin " + status.getTraceId().getLevel() + " " + status.getMessage());
+        }
+
+        @Override
+        public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+            lines.add("complete " + status.getTraceId().getLevel() + " " + status.getMessage() + (e == null ? "" : " ex"));
+        }
+    }, false);
+
+    OrderControllerV7 controller = new TracedOrderControllerV7(trace, new TracedOrderServiceV7(trace, new TracedOrderRepositoryV7(trace)));
+
+    @Test
+    void exception_closesEverySpan() {
+        assertThatThrownBy(() -> controller.request("ex")).isInstanceOf(IllegalStateException.class);
+
+        assertThat(lines).containsExactly(
+                "begin 0 OrderControllerV7.request()",
+                "begin 1 OrderServiceV7.orderItem()",
+                "begin 2 OrderRepositoryV7.save()",
+                "complete 2 OrderRepositoryV7.save() ex",
+                "complete 1 OrderServiceV7.orderItem() ex",
+                "complete 0 OrderControllerV7.request() ex");
+    }
+
+    @Test
+    void success() {
+        assertThat(controller.request("itemA")).isEqualTo("ok");
+
+        assertThat(lines).hasSize(6);
+        assertThat(lines.get(5)).isEqualTo("complete 0 OrderControllerV7.request()");
+    }
+}
@@ -0,0 +1,55 @@
+package com.choongang.advanced.loadtest;
+
+import com.choongang.advanced.trace.metrics.HistogramSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyRecorderTest {
+
+    static final long MS = 1_000_000L;
+
+    @Test
+    void recordCorrected_fillsMissedRequests() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        for (int i = 0; i < 99; i++) {
+            recorder.recordCorrected(1 * MS, 10 * MS, false);
+        }
+        // 1초 동안 막혀서 그 사이 99번의 요청을 못 보냄
+        recorder.recordCorrected(1_000 * MS, 10 * MS, false);
+
+        HistogramSnapshot snapshot = recorder.snapshot();
+        assertThat(recorder.getCompleted()).isEqualTo(100L);
+        assertThat(snapshot.getCount()).isEqualTo(199L);
+        // 보정 없이는 p90 이 1ms 지만, 못 보낸 요청을 채우면 수백 ms 가 됨
+        assertThat(snapshot.valueAtPercentile(90)).isGreaterThan(500_000L);
+    }
+
+    @Test
+    void record_doesNotCorrect() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record(1_000 * MS, true);
+
+        assertThat(recorder.snapshot().getCount()).isEqualTo(1L);
+        assertThat(recorder.getErrors()).isEqualTo(1L);
+    }
+
+    @Test
+    void report_deltaAgainstV0() {
+        LatencyRecorder v0 = new LatencyRecorder();
+        LatencyRecorder v5 = new LatencyRecorder();
+        for (int i = 0; i < 100; i++) {
+            v0.record(1_000 * MS, false);
+            v5.record(1_010 * MS, false);
+        }
+
+        String report = LoadReport.format(List.of(
+                new LoadResult("v0", 100, 0, 10_000 * MS, v0.snapshot()),
+                new LoadResult("v5", 90, 0, 10_000 * MS, v5.snapshot())));
+
+        assertThat(report).contains("delta vs v0");
+        assertThat(report).contains("-10.0%");
+    }
+}
@@ -0,0 +1,33 @@
+package com.choongang.advanced.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CoarseTraceClockTest {
+
+    @Test
+    void advancesByTick() throws InterruptedException {
+        try (CoarseTraceClock clock = new CoarseTraceClock(1, TimeUnit.MILLISECONDS)) {
+            long first = clock.nanoTime();
+            Thread.sleep(20);
+            long second = clock.nanoTime();
+
+            assertThat(second - first).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    @Test
+    void neverGoesBackwards() {
+        try (CoarseTraceClock clock = new CoarseTraceClock(100, TimeUnit.MICROSECONDS)) {
+            long previous = clock.nanoTime();
+            for (int i = 0; i < 100_000; i++) {
+                long now = clock.nanoTime();
+                assertThat(now).isGreaterThanOrEqualTo(previous);
+                previous = now;
+            }
+        }
+    }
+}
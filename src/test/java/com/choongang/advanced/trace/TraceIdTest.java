@@ -0,0 +1,64 @@
+package com.choongang.advanced.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TraceIdTest {
+
+    @Test
+    void hexId() {
+        TraceId traceId = new TraceId(() -> 0xabcL);
+        assertThat(traceId.getId()).isEqualTo("0000000000000abc");
+        assertThat(traceId.toString()).isEqualTo("0000000000000abc");
+        assertThat(traceId.getIdValue()).isEqualTo(0xabcL);
+    }
+
+    @Test
+    void nextAndPreviousKeepId() {
+        TraceId traceId = new TraceId();
+        TraceId next = traceId.createNextId();
+        TraceId previous = next.createPreviousId();
+
+        assertThat(next.getId()).isEqualTo(traceId.getId());
+        assertThat(next.getLevel()).isEqualTo(1);
+        assertThat(previous.getIdValue()).isEqualTo(traceId.getIdValue());
+        assertThat(previous.isFirstLevel()).isTrue();
+    }
+
+    @Test
+    void childRecordsParentSpanId() {
+        TraceId root = new TraceId();
+        TraceId child = root.createNextId();
+        TraceId sibling = root.createNextId();
+
+        assertThat(root.getParentSpanId()).isEqualTo(0L);
+        assertThat(child.getParentSpanId()).isEqualTo(root.getSpanId());
+        assertThat(child.getSpanId()).isNotEqualTo(sibling.getSpanId());
+        assertThat(child.createPreviousId()).isSameAs(root);
+    }
+
+    @Test
+    void nodeCounterIdsAreUniqueAcrossThreads() throws InterruptedException {
+        NodeCounterTraceIdGenerator generator = new NodeCounterTraceIdGenerator(7);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 5000; j++) {
+                    ids.add(generator.nextId());
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(ids).hasSize(4 * 5000);
+        assertThat(ids.iterator().next() >>> 48).isEqualTo(7L);
+    }
+}
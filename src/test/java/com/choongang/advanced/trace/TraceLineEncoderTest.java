@@ -0,0 +1,41 @@
+package com.choongang.advanced.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TraceLineEncoderTest {
+
+    @Test
+    void begin() {
+        assertThat(TraceLineEncoder.encodeBegin(0xabcL, 0, "hello").toString())
+                .isEqualTo("[0000000000000abc] hello");
+        assertThat(TraceLineEncoder.encodeBegin(0xabcL, 2, "hello").toString())
+                .isEqualTo("[0000000000000abc] |   |-->hello");
+    }
+
+    @Test
+    void complete() {
+        assertThat(TraceLineEncoder.encodeComplete(0xabcL, 1, "hello", 15L, null).toString())
+                .isEqualTo("[0000000000000abc] |<--hello time=15us");
+        assertThat(TraceLineEncoder.encodeComplete(0xabcL, 1, "hello", 15L, new IllegalStateException("예외 발생!")).toString())
+                .isEqualTo("[0000000000000abc] |<X-hello time=15us ex=java.lang.IllegalStateException: 예외 발생!");
+    }
+
+    @Test
+    void completeWithProfile() {
+        StringBuilder line = TraceLineEncoder.encodeComplete(0xabcL, 1, "hello", 15L, null);
+        TraceLineEncoder.appendProfile(line, 0xabcL, List.of("samples=2 interval=50ms", "    2 (100%) RUNNABLE a.b"));
+        assertThat(line.toString())
+                .isEqualTo("[0000000000000abc] |<--hello time=15us samples=2 interval=50ms\n[0000000000000abc]     2 (100%) RUNNABLE a.b");
+    }
+
+    @Test
+    void deepLevelBeyondCache() {
+        String line = TraceLineEncoder.encodeBegin(1L, 40, "deep").toString();
+        assertThat(line).endsWith("|   |-->deep");
+        assertThat(line.length()).isEqualTo("[0000000000000001] ".length() + 40 * 4 + "deep".length());
+    }
+}
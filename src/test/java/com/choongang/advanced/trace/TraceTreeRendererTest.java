@@ -0,0 +1,45 @@
+package com.choongang.advanced.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TraceTreeRendererTest {
+
+    @Test
+    void rebuildsTreeFromUnorderedConcurrentSpans() {
+        // service 아래에서 두 repository 호출이 다른 스레드에서 겹쳐 실행되고, 끝난 순서대로 기록됨
+        SpanRecord controller = new SpanRecord(1L, 10L, 0L, 0, "controller", null, 0L, 5_000_000L);
+        SpanRecord service = new SpanRecord(1L, 20L, 10L, 1, "service", null, 1_000L, 4_000_000L);
+        SpanRecord repositoryA = new SpanRecord(1L, 30L, 20L, 2, "repositoryA", null, 2_000L, 3_000_000L);
+        SpanRecord repositoryB = new SpanRecord(1L, 40L, 20L, 2, "repositoryB", "IllegalStateException", 2_500L, 2_000_000L);
+
+        List<String> lines = TraceTreeRenderer.render(List.of(repositoryB, repositoryA, service, controller));
+
+        assertThat(lines).containsExactly(
+                "[0000000000000001] controller",
+                "[0000000000000001] |-->service",
+                "[0000000000000001] |   |-->repositoryA",
+                "[0000000000000001] |   |<--repositoryA time=2998us",
+                "[0000000000000001] |   |-->repositoryB",
+                "[0000000000000001] |   |<X-repositoryB time=1997us ex=IllegalStateException",
+                "[0000000000000001] |<--service time=3999us",
+                "[0000000000000001] controller time=5000us");
+    }
+
+    @Test
+    void withoutSpanIds_usesStartTimeAndLevel() {
+        SpanRecord root = new SpanRecord(1L, 0L, 0L, 0, "controller", null, 0L, 2_000L);
+        SpanRecord child = new SpanRecord(1L, 0L, 0L, 1, "service", null, 1_000L, 2_000L);
+
+        List<String> lines = TraceTreeRenderer.render(List.of(child, root));
+
+        assertThat(lines).containsExactly(
+                "[0000000000000001] controller",
+                "[0000000000000001] |-->service",
+                "[0000000000000001] |<--service time=1us",
+                "[0000000000000001] controller time=2us");
+    }
+}
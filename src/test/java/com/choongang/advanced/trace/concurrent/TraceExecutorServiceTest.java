@@ -0,0 +1,89 @@
+package com.choongang.advanced.trace.concurrent;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.logtrace.LogTrace;
+import com.choongang.advanced.trace.logtrace.ThreadLocalLogTrace;
+import com.choongang.advanced.trace.sink.TraceSink;
+import com.choongang.advanced.trace.templatecallback.TraceTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TraceExecutorServiceTest {
+
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void submit_continuesParentTrace() throws Exception {
+        verifyPropagation(newTrace(false));
+    }
+
+    @Test
+    void submit_continuesParentTrace_reuseContext() throws Exception {
+        verifyPropagation(newTrace(true));
+    }
+
+    @Test
+    void executeAsync_continuesParentTrace() throws Exception {
+        LogTrace trace = newTrace(false);
+        TraceTemplate template = new TraceTemplate(trace);
+
+        TraceStatus parent = trace.begin("hello1");
+        TraceId child = template.executeAsync("hello2", () -> currentTraceId(trace), pool).get();
+        trace.end(parent);
+
+        assertThat(child.getIdValue()).isEqualTo(parent.getTraceId().getIdValue());
+        assertThat(child.getLevel()).isEqualTo(2); // hello1 -> hello2 -> child
+    }
+
+    private void verifyPropagation(LogTrace trace) throws Exception {
+        ExecutorService executor = new TraceExecutorService(pool, trace);
+
+        TraceStatus parent = trace.begin("hello1");
+        long parentId = parent.getTraceId().getIdValue();
+        TraceId child = executor.submit(() -> currentTraceId(trace)).get();
+        trace.end(parent);
+
+        assertThat(child.getIdValue()).isEqualTo(parentId);
+        assertThat(child.getLevel()).isEqualTo(1);
+
+        // 작업 스레드에 컨텍스트가 남지 않음
+        TraceId next = executor.submit(() -> currentTraceId(trace)).get();
+        assertThat(next.getLevel()).isEqualTo(0);
+        assertThat(next.getIdValue()).isNotEqualTo(parentId);
+    }
+
+    private static TraceId currentTraceId(LogTrace trace) {
+        TraceStatus status = trace.begin("child");
+        TraceId traceId = new TraceId(status.getTraceId().getIdValue(), status.getTraceId().getLevel());
+        trace.end(status);
+        return traceId;
+    }
+
+    private static LogTrace newTrace(boolean reuseContext) {
+        TraceSink noopSink = new TraceSink() {
+            @Override
+            public void begin(TraceStatus status) {
+            }
+
+            @Override
+            public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+            }
+        };
+        return new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), noopSink, reuseContext);
+    }
+}
@@ -0,0 +1,102 @@
+package com.choongang.advanced.trace.inflight;
+
+import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InFlightRegistryTest {
+
+    InFlightRegistry registry = new InFlightRegistry(64, 1, 0, TimeUnit.SECONDS);
+
+    @AfterEach
+    void close() {
+        registry.close();
+    }
+
+    @Test
+    void dumpOpenSpansAsTree() {
+        long now = System.nanoTime();
+        TraceStatus root = status(0xabcL, 0, 1L, 0L, "controller", now);
+        TraceStatus child = status(0xabcL, 1, 2L, 1L, "service", now);
+        TraceStatus grandChild = status(0xabcL, 2, 3L, 2L, "repository", now);
+        TraceStatus other = status(0xdefL, 0, 4L, 0L, "other", now);
+        registry.register(root);
+        registry.register(child);
+        registry.register(grandChild);
+        registry.register(other);
+        registry.unregister(grandChild);
+
+        List<String> lines = registry.dump();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).startsWith("[0000000000000abc] controller elapsed=");
+        assertThat(lines.get(1)).startsWith("[0000000000000abc] |-->service elapsed=");
+        assertThat(lines.get(2)).startsWith("[0000000000000def] other elapsed=");
+        assertThat(lines.get(0)).contains("thread=" + Thread.currentThread().getName()).doesNotContain("STUCK");
+    }
+
+    @Test
+    void checkStuck_reportsEachSpanOnce() {
+        long start = System.nanoTime() - TimeUnit.SECONDS.toNanos(2);
+        registry.register(status(1L, 0, 1L, 0L, "slow", start));
+        registry.register(status(1L, 1, 2L, 1L, "fast", System.nanoTime()));
+
+        registry.checkStuck(System.nanoTime());
+        registry.checkStuck(System.nanoTime());
+
+        assertThat(registry.getStuckCount()).isEqualTo(1);
+        assertThat(registry.dump().get(0)).endsWith("STUCK");
+        assertThat(registry.dump().get(1)).doesNotContain("STUCK");
+    }
+
+    @Test
+    void boundedCapacity() {
+        for (long spanId = 1; spanId <= 100; spanId++) {
+            registry.register(status(1L, 0, spanId, 0L, "span" + spanId, System.nanoTime()));
+        }
+        assertThat(registry.size() + registry.getDroppedCount()).isEqualTo(100);
+        assertThat(registry.size()).isLessThanOrEqualTo(64);
+
+        for (long spanId = 1; spanId <= 100; spanId++) {
+            registry.unregister(status(1L, 0, spanId, 0L, "span" + spanId, 0L));
+        }
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void ignoresUnknownSpanId() {
+        registry.register(new TraceStatus(new TraceId(1L, 0), System.nanoTime(), "noop"));
+        assertThat(registry.size()).isZero();
+        assertThat(registry.getDroppedCount()).isZero();
+    }
+
+    @Test
+    void concurrentRegisterAndUnregister() throws InterruptedException {
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long base = t * 1_000_000L;
+            threads[t] = new Thread(() -> {
+                for (long i = 1; i <= 10_000; i++) {
+                    TraceStatus status = status(base, 0, base + i, 0L, "span", System.nanoTime());
+                    registry.register(status);
+                    registry.unregister(status);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(registry.size()).isZero();
+        assertThat(registry.getDroppedCount()).isZero();
+    }
+
+    private static TraceStatus status(long traceId, int level, long spanId, long parentSpanId, String message, long startNanos) {
+        return new TraceStatus(new TraceId(traceId, level, spanId, parentSpanId), startNanos, message);
+    }
+}
@@ -0,0 +1,129 @@
+package com.choongang.advanced.trace.inflight;
+
+import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.sink.TraceSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StackSamplerTest {
+
+    InFlightRegistry registry = new InFlightRegistry(64, 1, 0, TimeUnit.HOURS);
+    StackSampler sampler = new StackSampler(registry, 100, Map.of("slow()", 10L), 0, TimeUnit.MILLISECONDS, 8, 4);
+
+    @AfterEach
+    void close() {
+        sampler.close();
+        registry.close();
+    }
+
+    @Test
+    void sampleOnlySpansOverBudget() throws InterruptedException {
+        CountDownLatch registered = new CountDownLatch(1);
+        Thread worker = new Thread(() -> {
+            long start = System.nanoTime();
+            registry.register(new TraceStatus(new TraceId(1L, 0, 1L, 0L), start, "slow()"));
+            registry.register(new TraceStatus(new TraceId(1L, 1, 2L, 1L), start, "fast()"));
+            registered.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException ignored) {
+            }
+        });
+        worker.start();
+        registered.await();
+        Thread.sleep(20); // 스레드가 sleep 에 들어갈 때까지
+
+        long now = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50); // slow() 예산(10ms)만 넘김
+        sampler.sample(now);
+        sampler.sample(now);
+        sampler.sample(now);
+        worker.interrupt();
+        worker.join();
+
+        OpenSpan slow = span("slow()");
+        assertThat(slow.getProfile().getSamples()).isEqualTo(3);
+        List<String> lines = slow.getProfile().format();
+        assertThat(lines.get(0)).isEqualTo("samples=3 interval=0ms");
+        assertThat(lines.get(1)).contains("TIMED_WAITING").contains("Thread.sleep");
+        assertThat(span("fast()").getProfile()).isNull();
+    }
+
+    @Test
+    void detachedSpan_isNotSampled() {
+        TraceStatus status = new TraceStatus(new TraceId(1L, 0, 1L, 0L), System.nanoTime(), "slow()");
+        InFlightTraceSink sink = new InFlightTraceSink(new RecordingSink(), registry);
+        sink.begin(status);
+        sink.detach(status); // executeFuture: 시작 스레드는 다른 일을 하러 감
+
+        sampler.sample(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50));
+
+        assertThat(span("slow()").isDetached()).isTrue();
+        assertThat(span("slow()").getProfile()).isNull();
+    }
+
+    @Test
+    void profile_isPassedToTargetWithCompletion() {
+        RecordingSink target = new RecordingSink();
+        InFlightTraceSink sink = new InFlightTraceSink(target, registry);
+        TraceStatus status = new TraceStatus(new TraceId(1L, 0, 1L, 0L), 0L, "slow()");
+        sink.begin(status);
+        StackProfile profile = new StackProfile(50, 4);
+        profile.add("TIMED_WAITING java.lang.Thread.sleep");
+        span("slow()").profile = profile;
+
+        sink.complete(status, 1_000L, null);
+
+        assertThat(target.completed).hasSize(1);
+        assertThat(target.completed.get(0)).containsExactly("samples=1 interval=50ms", "    1 (100%) TIMED_WAITING java.lang.Thread.sleep");
+        assertThat(registry.size()).isZero();
+    }
+
+    @Test
+    void parseBudgets() {
+        Map<String, Long> budgets = StackSampler.parseBudgets("OrderRepositoryV5.save()=200, OrderServiceV5.orderItem()=500,");
+        assertThat(budgets).containsEntry("OrderRepositoryV5.save()", 200L).containsEntry("OrderServiceV5.orderItem()", 500L).hasSize(2);
+        assertThat(StackSampler.parseBudgets("")).isEmpty();
+    }
+
+    @Test
+    void profileKeepsBoundedStacks() {
+        StackProfile profile = new StackProfile(50, 2);
+        profile.add("a");
+        profile.add("a");
+        profile.add("b");
+        profile.add("c");
+
+        assertThat(profile.format()).containsExactly(
+                "samples=4 interval=50ms",
+                "    2 ( 50%) a",
+                "    1 ( 25%) b",
+                "    1 ( 25%) (other)");
+    }
+
+    static class RecordingSink implements TraceSink {
+
+        final List<List<String>> completed = new ArrayList<>();
+
+        @Override
+        public void begin(TraceStatus status) {
+        }
+
+        @Override
+        public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+            completed.add(status.getProfile());
+        }
+    }
+
+    private OpenSpan span(String message) {
+        return registry.snapshot().stream().filter(span -> span.getMessage().equals(message)).findFirst().orElseThrow();
+    }
+}
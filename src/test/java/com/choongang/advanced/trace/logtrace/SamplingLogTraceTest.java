@@ -0,0 +1,71 @@
+package com.choongang.advanced.trace.logtrace;
+
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.sampling.PerMessageSampler;
+import com.choongang.advanced.trace.sampling.ProbabilitySampler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SamplingLogTraceTest {
+
+    CountingLogTrace target = new CountingLogTrace();
+
+    @Test
+    void unsampled_doesNotCallTarget() {
+        SamplingLogTrace trace = new SamplingLogTrace(target, new ProbabilitySampler(0.0));
+
+        TraceStatus status1 = trace.begin("hello1");
+        TraceStatus status2 = trace.begin("hello2");
+        trace.exception(status2, new IllegalStateException());
+        trace.end(status1);
+
+        assertThat(trace.isUnsampled(status1)).isTrue();
+        assertThat(target.calls).isEqualTo(0);
+        assertThat(trace.getDroppedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void decisionIsMadeOncePerRoot() {
+        PerMessageSampler sampler = new PerMessageSampler(
+                Map.of("sampled", new ProbabilitySampler(1.0)), new ProbabilitySampler(0.0));
+        SamplingLogTrace trace = new SamplingLogTrace(target, sampler);
+
+        TraceStatus root = trace.begin("sampled");
+        TraceStatus child = trace.begin("child"); // 하위 span 은 다시 결정하지 않음
+        trace.end(child);
+        trace.end(root);
+        assertThat(target.calls).isEqualTo(4);
+
+        TraceStatus unsampled = trace.begin("other");
+        trace.end(trace.begin("sampled"));
+        trace.end(unsampled);
+        assertThat(target.calls).isEqualTo(4);
+
+        assertThat(trace.getSampledCount()).isEqualTo(1L);
+        assertThat(trace.getDroppedCount()).isEqualTo(1L);
+    }
+
+    static class CountingLogTrace implements LogTrace {
+
+        int calls;
+
+        @Override
+        public TraceStatus begin(String message) {
+            calls++;
+            return new TraceStatus(null, 0L, message);
+        }
+
+        @Override
+        public void end(TraceStatus status) {
+            calls++;
+        }
+
+        @Override
+        public void exception(TraceStatus status, Exception e) {
+            calls++;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.choongang.advanced.trace.logtrace;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.sink.TraceSink;
+import com.choongang.advanced.trace.templatecallback.TraceTemplate;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ScopedLogTraceTest {
+
+    RecordingSink sink = new RecordingSink();
+    ScopedLogTrace trace = new ScopedLogTrace(new RandomTraceIdGenerator(), System::nanoTime, sink);
+    TraceTemplate template = new TraceTemplate(trace);
+
+    @Test
+    void nestedExecute_sharesTraceIdAndIncreasesLevel() {
+        template.execute("hello1", () -> template.execute("hello2", () -> "ok"));
+
+        assertThat(sink.lines).containsExactly("begin 0 hello1", "begin 1 hello2", "complete 1 hello2", "complete 0 hello1");
+        assertThat(sink.ids.get(0)).isEqualTo(sink.ids.get(1));
+        assertThat(TraceScope.current()).isNull();
+    }
+
+    @Test
+    void exception_restoresScope() {
+        assertThatThrownBy(() -> template.execute("hello1", () -> {
+            throw new IllegalStateException("예외 발생!");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(sink.lines).containsExactly("begin 0 hello1", "complete 0 hello1 ex");
+        assertThat(TraceScope.current()).isNull();
+    }
+
+    @Test
+    void begin_end_insideScope_isChildSpan() {
+        template.execute("hello1", () -> {
+            TraceStatus status = trace.begin("hello2");
+            trace.end(status);
+            return null;
+        });
+
+        assertThat(sink.lines).containsExactly("begin 0 hello1", "begin 1 hello2", "complete 1 hello2", "complete 0 hello1");
+    }
+
+    @Test
+    void wrappedBySwitchableLogTrace_keepsScope() {
+        TraceTemplate switchable = new TraceTemplate(new SwitchableLogTrace(Map.of("scoped", trace), "scoped", 1, TimeUnit.MINUTES));
+
+        switchable.execute("hello1", () -> switchable.execute("hello2", () -> "ok"));
+
+        assertThat(sink.lines).containsExactly("begin 0 hello1", "begin 1 hello2", "complete 1 hello2", "complete 0 hello1");
+        assertThat(TraceScope.current()).isNull();
+    }
+
+    static class RecordingSink implements TraceSink {
+
+        final List<String> lines = new ArrayList<>();
+        final List<Long> ids = new ArrayList<>();
+
+        @Override
+        public void begin(TraceStatus status) {
+            lines.add("begin " + status.getTraceId().getLevel() + " " + status.getMessage());
+            ids.add(status.getTraceId().getIdValue());
+        }
+
+        @Override
+        public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+            lines.add("complete " + status.getTraceId().getLevel() + " " + status.getMessage() + (e == null ? "" : " ex"));
+        }
+    }
+}
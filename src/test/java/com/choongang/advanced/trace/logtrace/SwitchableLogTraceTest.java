@@ -0,0 +1,143 @@
+package com.choongang.advanced.trace.logtrace;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.sink.TraceSink;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SwitchableLogTraceTest {
+
+    ScopedLogTraceTest.RecordingSink sinkA = new ScopedLogTraceTest.RecordingSink();
+    ScopedLogTraceTest.RecordingSink sinkB = new ScopedLogTraceTest.RecordingSink();
+    SwitchableLogTrace trace = new SwitchableLogTrace(modes(), "a", 1, TimeUnit.MINUTES);
+
+    Map<String, LogTrace> modes() {
+        Map<String, LogTrace> modes = new LinkedHashMap<>();
+        modes.put("a", new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), sinkA, false));
+        modes.put("b", new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), sinkB, false));
+        modes.put("noop", new NoopLogTrace());
+        return modes;
+    }
+
+    @Test
+    void inFlightTrace_completesOnStartingImplementation() {
+        TraceStatus status1 = trace.begin("hello1");
+        trace.switchTo("b");
+        TraceStatus status2 = trace.begin("hello2");
+        trace.end(status2);
+        trace.end(status1);
+
+        TraceStatus status3 = trace.begin("hello3");
+        trace.end(status3);
+
+        assertThat(sinkA.lines).containsExactly("begin 0 hello1", "begin 1 hello2", "complete 1 hello2", "complete 0 hello1");
+        assertThat(sinkB.lines).containsExactly("begin 0 hello3", "complete 0 hello3");
+        assertThat(trace.getMode()).isEqualTo("b");
+    }
+
+    @Test
+    void detachedSpan_completesOnStartingImplementation() {
+        TraceStatus detached = trace.detach(trace.begin("hello1"));
+        trace.switchTo("b");
+        trace.endDetached(detached, null);
+
+        assertThat(sinkA.lines).containsExactly("begin 0 hello1", "complete 0 hello1");
+        assertThat(sinkB.lines).isEmpty();
+    }
+
+    @Test
+    void noop_switchToTracing_midRequest() {
+        trace.switchTo("noop");
+        TraceStatus status1 = trace.begin("hello1");
+        assertThat(status1).isSameAs(NoopLogTrace.NOOP);
+
+        trace.switchTo("b");
+        TraceStatus status2 = trace.begin("hello2");
+        trace.end(status2);
+        trace.end(status1); // noop 으로 시작한 span 은 noop 으로 끝남
+
+        assertThat(sinkA.lines).isEmpty();
+        assertThat(sinkB.lines).containsExactly("begin 0 hello2", "complete 0 hello2");
+        assertThat(trace.isActive()).isFalse();
+    }
+
+    @Test
+    void endAfterDrainTimeout_completesOnStartingImplementation() throws InterruptedException {
+        Map<String, LogTrace> modes = modes();
+        SwitchableLogTrace shortDrain = new SwitchableLogTrace(modes, "a", 1, TimeUnit.MILLISECONDS);
+        TraceStatus status1 = shortDrain.begin("hello1");
+        shortDrain.switchTo("b");
+        Thread.sleep(5); // drainTimeout 경과
+
+        TraceStatus status2 = shortDrain.begin("hello2"); // 새 구현의 트랜잭션
+        shortDrain.end(status2);
+        shortDrain.exception(status1, new IllegalStateException());
+
+        assertThat(sinkA.lines).containsExactly("begin 0 hello1", "complete 0 hello1 ex");
+        assertThat(sinkB.lines).containsExactly("begin 0 hello2", "complete 0 hello2");
+        assertThat(modes.get("a").isActive()).isFalse(); // 이전 구현의 ThreadLocal 이 남지 않음
+        assertThat(shortDrain.isActive()).isFalse();
+    }
+
+    @Test
+    void noopSpan_endedAfterSwitchAndDrainTimeout() throws InterruptedException {
+        SwitchableLogTrace shortDrain = new SwitchableLogTrace(modes(), "noop", 1, TimeUnit.MILLISECONDS);
+        TraceStatus status = shortDrain.begin("hello1");
+        shortDrain.switchTo("a");
+        Thread.sleep(5);
+
+        shortDrain.end(status); // 새 구현(threadLocal)으로 보내지 않음
+
+        assertThat(sinkA.lines).isEmpty();
+        assertThat(shortDrain.isActive()).isFalse();
+    }
+
+    @Test
+    void delegation_allocatesNothingPerSpan() {
+        TraceSink discard = new TraceSink() {
+            @Override
+            public void begin(TraceStatus status) {
+            }
+
+            @Override
+            public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+            }
+        };
+        LogTrace reuse = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), discard, true);
+        SwitchableLogTrace switchable = new SwitchableLogTrace(Map.of("reuse", reuse), "reuse", 1, TimeUnit.MINUTES);
+        int spans = 10_000;
+
+        long direct = allocatedBytes(reuse, spans);
+        long delegated = allocatedBytes(switchable, spans);
+
+        assertThat(delegated - direct).isLessThan(spans); // span 하나당 객체 하나(16 bytes 이상)도 더 만들지 않음
+    }
+
+    private static long allocatedBytes(LogTrace trace, int spans) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < spans; i++) {
+            trace.end(trace.begin("warmup")); // 재사용 컨텍스트 준비
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < spans; i++) {
+            trace.end(trace.begin("hello"));
+        }
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    @Test
+    void unknownMode() {
+        assertThatThrownBy(() -> trace.switchTo("unknown")).isInstanceOf(IllegalArgumentException.class);
+        assertThat(trace.getMode()).isEqualTo("a");
+    }
+}
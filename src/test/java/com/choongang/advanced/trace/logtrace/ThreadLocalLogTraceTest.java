@@ -1,8 +1,14 @@
 package com.choongang.advanced.trace.logtrace;
 
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
 import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.templatecallback.TraceTemplate;
 import org.junit.jupiter.api.Test;
 
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
 public class ThreadLocalLogTraceTest {
 
     ThreadLocalLogTrace trace = new ThreadLocalLogTrace();
@@ -23,4 +29,75 @@ public class ThreadLocalLogTraceTest {
         trace.exception(status1, new IllegalStateException());
     }
 
+    @Test
+    void reuseContext_reusesStatusAcrossRequests() {
+        ThreadLocalLogTrace reusable = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), true);
+
+        TraceStatus first = reusable.begin("hello1");
+        String firstId = first.getTraceId().getId();
+        reusable.end(first);
+
+        TraceStatus second = reusable.begin("hello2");
+        assertThat(second).isSameAs(first);
+        assertThat(second.getTraceId().isFirstLevel()).isTrue();
+        assertThat(second.getTraceId().getId()).isNotEqualTo(firstId);
+        reusable.end(second);
+    }
+
+    @Test
+    void reuseContext_exception_level2() {
+        ThreadLocalLogTrace reusable = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), true);
+        TraceStatus status1 = reusable.begin("hello1");
+        TraceStatus status2 = reusable.begin("hello2");
+        reusable.exception(status2, new IllegalStateException());
+        reusable.exception(status1, new IllegalStateException());
+
+        TraceStatus next = reusable.begin("hello3");
+        assertThat(next.getTraceId().isFirstLevel()).isTrue();
+        reusable.end(next);
+    }
+
+    @Test
+    void reuseContext_closedOutOfOrder() {
+        ScopedLogTraceTest.RecordingSink sink = new ScopedLogTraceTest.RecordingSink();
+        ThreadLocalLogTrace reusable = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), System::nanoTime, sink, true);
+        TraceStatus status1 = reusable.begin("hello1");
+        TraceStatus status2 = reusable.begin("hello2");
+        reusable.end(status1); // 상위 span 이 먼저 닫힘 -> 하위 span 도 정리
+        reusable.end(status2); // 이미 닫힌 span -> 무시
+        assertThat(sink.lines).containsExactly("begin 0 hello1", "begin 1 hello2", "complete 0 hello1");
+
+        TraceStatus next = reusable.begin("hello3");
+        assertThat(next.getTraceId().getLevel()).isEqualTo(0);
+        reusable.end(next);
+    }
+
+    @Test
+    void executeFuture_closesSpansWhenFutureCompletes() {
+        verifyExecuteFuture(false);
+    }
+
+    @Test
+    void reuseContext_executeFuture_closesSpansWhenFutureCompletes() {
+        verifyExecuteFuture(true);
+    }
+
+    private void verifyExecuteFuture(boolean reuseContext) {
+        ScopedLogTraceTest.RecordingSink sink = new ScopedLogTraceTest.RecordingSink();
+        ThreadLocalLogTrace asyncTrace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), System::nanoTime, sink, reuseContext);
+        TraceTemplate template = new TraceTemplate(asyncTrace);
+        CompletableFuture<String> io = new CompletableFuture<>();
+
+        CompletableFuture<String> result = template.executeFuture("hello1", () -> template.executeFuture("hello2", () -> io));
+
+        // future 가 끝나기 전에 호출 스레드의 컨텍스트는 이미 비어 있음
+        TraceStatus next = asyncTrace.begin("next");
+        assertThat(next.getTraceId().isFirstLevel()).isTrue();
+        asyncTrace.end(next);
+        assertThat(sink.lines).containsExactly("begin 0 hello1", "begin 1 hello2", "begin 0 next", "complete 0 next");
+
+        io.complete("ok");
+        assertThat(result.join()).isEqualTo("ok");
+        assertThat(sink.lines.subList(4, 6)).containsExactly("complete 1 hello2", "complete 0 hello1");
+    }
 }
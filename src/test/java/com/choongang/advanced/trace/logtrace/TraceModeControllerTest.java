@@ -0,0 +1,30 @@
+package com.choongang.advanced.trace.logtrace;
+
+import com.choongang.advanced.LogTraceConfig;
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.sink.AsyncTraceSink;
+import com.choongang.advanced.trace.sink.BackpressurePolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TraceModeControllerTest {
+
+    ScopedLogTraceTest.RecordingSink sink = new ScopedLogTraceTest.RecordingSink();
+    SwitchableLogTrace logTrace = new LogTraceConfig().logTrace(sink, new SystemTraceClock(), new RandomTraceIdGenerator(), false,
+            new AsyncTraceSink(16, BackpressurePolicy.DROP), "log", null, false, null, false, false, 1.0, 0, "", 0);
+    TraceModeController controller = new TraceModeController(logTrace);
+
+    @Test
+    void switchToScoped() {
+        Map<String, Object> result = controller.switchMode("scoped");
+
+        assertThat(result.get("mode")).isEqualTo("scoped");
+        logTrace.execute("hello1", () -> logTrace.execute("hello2", () -> "ok"));
+        assertThat(sink.lines).containsExactly("begin 0 hello1", "begin 1 hello2", "complete 1 hello2", "complete 0 hello1");
+        assertThat(TraceScope.current()).isNull();
+    }
+}
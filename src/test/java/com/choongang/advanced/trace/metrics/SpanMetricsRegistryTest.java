@@ -0,0 +1,81 @@
+package com.choongang.advanced.trace.metrics;
+
+import com.choongang.advanced.trace.SpanUsage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpanMetricsRegistryTest {
+
+    SpanMetricsRegistry registry = new SpanMetricsRegistry(1, TimeUnit.HOURS);
+
+    @AfterEach
+    void close() {
+        registry.close();
+    }
+
+    @Test
+    void bucketIndexIsContinuous() {
+        for (long value = 1; value < 1_000_000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertThat(index).isBetween(LatencyHistogram.bucketIndex(value - 1), LatencyHistogram.bucketIndex(value - 1) + 1);
+            assertThat(LatencyHistogram.highestValueInBucket(index)).isGreaterThanOrEqualTo(value);
+        }
+        assertThat(LatencyHistogram.bucketIndex(LatencyHistogram.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKET_COUNT - 1);
+    }
+
+    @Test
+    void percentiles() {
+        for (int i = 1; i <= 1000; i++) {
+            registry.record("hello", i * 1000L, i % 100 == 0);
+        }
+
+        SpanStats stats = registry.stats(false).get(0);
+        assertThat(stats.getName()).isEqualTo("hello");
+        assertThat(stats.getCount()).isEqualTo(1000);
+        assertThat(stats.getErrors()).isEqualTo(10);
+        assertThat(stats.getMaxUs()).isEqualTo(1_000_000);
+        assertThat(stats.getP50Us()).isBetween(500_000L, 500_000L * 103 / 100);
+        assertThat(stats.getP99Us()).isBetween(990_000L, 1_000_000L);
+    }
+
+    @Test
+    void rollingWindow() {
+        registry.record("hello", 100, false);
+        registry.rotate();
+        registry.record("hello", 200, false);
+        assertThat(registry.stats(true).get(0).getCount()).isEqualTo(2);
+
+        registry.rotate();
+        List<SpanStats> window = registry.stats(true);
+        assertThat(window.get(0).getCount()).isEqualTo(1);
+        assertThat(registry.stats(false).get(0).getCount()).isEqualTo(2);
+
+        registry.reset();
+        assertThat(registry.stats(false)).isEmpty();
+    }
+
+    @Test
+    void usageMeans() {
+        registry.record("hello", 100, false, new SpanUsage(4_000, 1_000, 2_048, 512));
+        registry.record("hello", 100, false, new SpanUsage(2_000, 1_000, 1_024, 512));
+        registry.record("hello", 100, false); // 측정하지 않은 span 은 평균에서 빠짐
+
+        SpanStats stats = registry.stats(false).get(0);
+        assertThat(stats.getCount()).isEqualTo(3);
+        assertThat(stats.getUsageCount()).isEqualTo(2);
+        assertThat(stats.getMeanCpuUs()).isEqualTo(3.0);
+        assertThat(stats.getMeanSelfCpuUs()).isEqualTo(1.0);
+        assertThat(stats.getMeanAllocatedBytes()).isEqualTo(1_536.0);
+        assertThat(stats.getMeanSelfAllocatedBytes()).isEqualTo(512.0);
+
+        registry.rotate();
+        registry.rotate();
+        assertThat(registry.stats(true).get(0).getUsageCount()).isZero();
+    }
+}
@@ -0,0 +1,39 @@
+package com.choongang.advanced.trace.sampling;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitingSamplerTest {
+
+    long now = 0L;
+
+    @Test
+    void limitPerSecond() {
+        RateLimitingSampler sampler = new RateLimitingSampler(2, () -> now);
+
+        assertThat(sampler.sample("hello")).isTrue();
+        assertThat(sampler.sample("hello")).isTrue();
+        assertThat(sampler.sample("hello")).isFalse();
+
+        now += TimeUnit.SECONDS.toNanos(1);
+        assertThat(sampler.sample("hello")).isTrue();
+    }
+
+    @Test
+    void staleSecond_doesNotResetWindow() {
+        now = TimeUnit.SECONDS.toNanos(5);
+        RateLimitingSampler sampler = new RateLimitingSampler(1, () -> now);
+
+        now += TimeUnit.SECONDS.toNanos(1);
+        assertThat(sampler.sample("hello")).isTrue();
+
+        now -= TimeUnit.SECONDS.toNanos(1); // 이전 초에 시간을 읽은 스레드
+        assertThat(sampler.sample("hello")).isFalse();
+
+        now += TimeUnit.SECONDS.toNanos(1);
+        assertThat(sampler.sample("hello")).isFalse();
+    }
+}
@@ -0,0 +1,91 @@
+package com.choongang.advanced.trace.sink;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceId;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.logtrace.ThreadLocalLogTrace;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AsyncTraceSinkTest {
+
+    @Test
+    void begin_end_level2() throws InterruptedException {
+        AsyncTraceSink sink = new AsyncTraceSink(1024, BackpressurePolicy.DROP);
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), sink, false);
+
+        TraceStatus status1 = trace.begin("hello1");
+        TraceStatus status2 = trace.begin("hello2");
+        trace.exception(status2, new IllegalStateException());
+        trace.end(status1);
+        sink.close();
+
+        assertThat(sink.getPublishedCount()).isEqualTo(4L);
+        assertThat(sink.getDroppedCount()).isEqualTo(0L);
+        assertThat(sink.getPendingCount()).isEqualTo(0);
+    }
+
+    @Test
+    void dropsAfterClose() throws InterruptedException {
+        AsyncTraceSink sink = new AsyncTraceSink(2, BackpressurePolicy.BLOCK);
+        sink.close();
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), sink, false);
+
+        for (int i = 0; i < 3; i++) {
+            trace.end(trace.begin("hello"));
+        }
+
+        assertThat(sink.getDroppedCount()).isGreaterThan(0);
+    }
+
+    @Test
+    void publishAfterClose_isDroppedWithoutBuffering() throws InterruptedException {
+        AsyncTraceSink sink = new AsyncTraceSink(1024, BackpressurePolicy.DROP);
+        sink.close();
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), sink, false);
+
+        for (int i = 0; i < 3; i++) {
+            trace.end(trace.begin("hello"));
+        }
+
+        assertThat(sink.getDroppedCount()).isEqualTo(6L);
+        assertThat(sink.getPublishedCount()).isEqualTo(0L);
+        assertThat(sink.getPendingCount()).isEqualTo(0);
+        assertThat(sink.isConsumerAlive()).isFalse();
+    }
+
+    @Test
+    void writeFailure_doesNotStopConsumer() throws InterruptedException {
+        List<String> written = new CopyOnWriteArrayList<>();
+        AsyncTraceSink sink = new AsyncTraceSink(1024, BackpressurePolicy.DROP, event -> {
+            if (event.getMessage().equals("fail")) {
+                throw new IllegalStateException("appender 실패");
+            }
+            written.add(event.getType() + " " + event.getMessage());
+        });
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), sink, false);
+
+        trace.end(trace.begin("fail"));
+        trace.end(trace.begin("hello"));
+        sink.close();
+
+        assertThat(sink.getErrorCount()).isEqualTo(2L);
+        assertThat(written).containsExactly("BEGIN hello", "COMPLETE hello");
+    }
+
+    @Test
+    void consumerStartsOnFirstEvent() throws InterruptedException {
+        AsyncTraceSink sink = new AsyncTraceSink(1024, BackpressurePolicy.DROP);
+        assertThat(sink.isConsumerAlive()).isFalse();
+
+        sink.begin(new TraceStatus(new TraceId(), 0L, "hello"));
+        assertThat(sink.isConsumerAlive()).isTrue();
+        sink.close();
+        assertThat(sink.isConsumerAlive()).isFalse();
+    }
+}
@@ -0,0 +1,186 @@
+package com.choongang.advanced.trace.sink;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.logtrace.ThreadLocalLogTrace;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TailSamplingTraceSinkTest {
+
+    long now = 0L;
+    RecordingSink target = new RecordingSink();
+
+    @Test
+    void fastAndSuccessful_isDiscarded() {
+        TailSamplingTraceSink sink = new TailSamplingTraceSink(target, 1_000L, 0.0, 16);
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), () -> now, sink, false);
+
+        TraceStatus status1 = trace.begin("hello1");
+        TraceStatus status2 = trace.begin("hello2");
+        now += 10;
+        trace.end(status2);
+        trace.end(status1);
+
+        assertThat(target.lines).isEmpty();
+        assertThat(sink.getDiscardedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void slow_emitsWholeTree() {
+        TailSamplingTraceSink sink = new TailSamplingTraceSink(target, 1_000L, 0.0, 16);
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), () -> now, sink, false);
+
+        TraceStatus status1 = trace.begin("hello1");
+        TraceStatus status2 = trace.begin("hello2");
+        now += 5_000;
+        trace.end(status2);
+        trace.end(status1);
+
+        assertThat(target.lines).containsExactly("begin:0:hello1", "begin:1:hello2", "complete:1:hello2", "complete:0:hello1");
+        assertThat(sink.getEmittedCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void nestedException_emitsWholeTree() {
+        TailSamplingTraceSink sink = new TailSamplingTraceSink(target, 1_000L, 0.0, 16);
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), () -> now, sink, false);
+
+        TraceStatus status1 = trace.begin("hello1");
+        TraceStatus status2 = trace.begin("hello2");
+        trace.exception(status2, new IllegalStateException());
+        trace.end(status1); // 루트는 정상 종료
+
+        assertThat(target.lines).hasSize(4);
+        assertThat(target.lines.get(2)).isEqualTo("exception:1:hello2");
+    }
+
+    @Test
+    void overflow_keepsBufferBounded() {
+        TailSamplingTraceSink sink = new TailSamplingTraceSink(target, 0L, 0.0, 2);
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), () -> now, sink, false);
+
+        TraceStatus status1 = trace.begin("hello1");
+        TraceStatus status2 = trace.begin("hello2");
+        trace.end(status2);
+        trace.end(status1);
+
+        assertThat(target.lines).containsExactly("begin:0:hello1", "begin:1:hello2", "complete:0:hello1");
+        assertThat(sink.getOverflowCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void spansOnOtherThreads_areCollectedByTraceId() throws Exception {
+        TailSamplingTraceSink sink = new TailSamplingTraceSink(target, 1_000L, 0.0, 16);
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), () -> now, sink, false);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            TraceStatus root = trace.begin("hello1");
+            TraceStatus detached = trace.detach(trace.begin("hello2")); // executeFuture 처럼 다른 스레드에서 닫힘
+            executor.submit(trace.wrap(() -> trace.end(trace.begin("hello3")))).get(); // wrap 한 작업의 span
+            executor.submit(() -> trace.endDetached(detached, new IllegalStateException())).get();
+            TraceStatus detachedRoot = trace.detach(root);
+            executor.submit(() -> trace.endDetached(detachedRoot, null)).get(); // 루트도 다른 스레드에서 끝남
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(target.lines).containsExactly("begin:0:hello1", "begin:1:hello2", "begin:1:hello3", "complete:1:hello3",
+                "exception:1:hello2", "complete:0:hello1");
+        assertThat(sink.getPendingCount()).isZero();
+        assertThat(sink.getOverflowCount()).isZero();
+    }
+
+    @Test
+    void pendingTraces_areBounded() {
+        TailSamplingTraceSink sink = new TailSamplingTraceSink(target, 0L, 0.0, 16, 1);
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), () -> now, sink, false);
+
+        TraceStatus status1 = trace.begin("hello1");
+        TraceStatus other = trace.detach(trace.begin("hello2"));
+        trace.detach(status1);
+        TraceStatus status3 = trace.begin("hello3"); // 버퍼 한도 초과: 모으지 않음
+        trace.end(status3); // 느린 루트(slowThreshold 0)이므로 루트 종료만 출력
+        trace.endDetached(other, null);
+        trace.endDetached(status1, null);
+
+        assertThat(target.lines).containsExactly("complete:0:hello3", "begin:0:hello1", "begin:1:hello2", "complete:1:hello2", "complete:0:hello1");
+        assertThat(sink.getOverflowCount()).isEqualTo(1L);
+        assertThat(sink.getPendingCount()).isZero();
+    }
+
+    @Test
+    void overflowedRoot_isForwardedOnlyWhenFailedOrSlow() {
+        TailSamplingTraceSink sink = new TailSamplingTraceSink(target, 1_000L, 0.0, 16, 1);
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), () -> now, sink, false);
+
+        TraceStatus status1 = trace.detach(trace.begin("hello1")); // 한도를 차지
+        trace.end(trace.begin("fast"));
+        trace.exception(trace.begin("failed"), new IllegalStateException());
+        TraceStatus slow = trace.begin("slow");
+        now += 5_000;
+        trace.end(slow);
+        trace.endDetached(status1, null);
+
+        assertThat(target.lines).containsExactly("exception:0:failed", "complete:0:slow", "begin:0:hello1", "complete:0:hello1");
+        assertThat(sink.getOverflowCount()).isEqualTo(4L); // begin 3개 + 빠른 루트 종료
+        assertThat(sink.getEmittedCount()).isEqualTo(3L);
+    }
+
+    @Test
+    void staleTrace_isEvictedWhenFull() {
+        TailSamplingTraceSink sink = new TailSamplingTraceSink(target, 10_000L, 0.0, 16, 1, 1_000L);
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), () -> now, sink, false);
+
+        trace.detach(trace.begin("hello1")); // 루트를 닫지 않음
+        now += 2_000;
+        trace.end(trace.begin("hello2"));
+
+        assertThat(target.lines).isEmpty();
+        assertThat(sink.getEvictedCount()).isEqualTo(1L);
+        assertThat(sink.getDiscardedCount()).isEqualTo(1L);
+        assertThat(sink.getOverflowCount()).isZero();
+        assertThat(sink.getPendingCount()).isZero();
+    }
+
+    @Test
+    void staleFailedTrace_isEmittedWhenEvicted() {
+        TailSamplingTraceSink sink = new TailSamplingTraceSink(target, 10_000L, 0.0, 16, 1, 1_000L);
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), () -> now, sink, false);
+
+        TraceStatus status1 = trace.begin("hello1");
+        trace.exception(trace.begin("hello2"), new IllegalStateException());
+        trace.detach(status1); // 루트를 닫지 않음
+        now += 500;
+        trace.end(trace.begin("hello3")); // 아직 만료 전: 한도 초과
+        now += 1_500;
+        trace.end(trace.begin("hello4"));
+
+        assertThat(target.lines).containsExactly("begin:0:hello1", "begin:1:hello2", "exception:1:hello2");
+        assertThat(sink.getEvictedCount()).isZero();
+        assertThat(sink.getEmittedCount()).isEqualTo(1L);
+        assertThat(sink.getOverflowCount()).isEqualTo(2L);
+        assertThat(sink.getPendingCount()).isZero();
+    }
+
+    static class RecordingSink implements TraceSink {
+
+        List<String> lines = new ArrayList<>();
+
+        @Override
+        public void begin(TraceStatus status) {
+            lines.add("begin:" + status.getTraceId().getLevel() + ":" + status.getMessage());
+        }
+
+        @Override
+        public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+            lines.add((e == null ? "complete:" : "exception:") + status.getTraceId().getLevel() + ":" + status.getMessage());
+        }
+    }
+}
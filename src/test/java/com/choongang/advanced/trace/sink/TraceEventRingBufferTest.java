@@ -0,0 +1,55 @@
+package com.choongang.advanced.trace.sink;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TraceEventRingBufferTest {
+
+    @Test
+    void publishAndDrainInOrder() {
+        TraceEventRingBuffer buffer = new TraceEventRingBuffer(4);
+        buffer.tryPublish(TraceEvent.Type.BEGIN, 1L, 0, 0L, 0L, "hello1", 10L, 0L, null);
+        buffer.tryPublish(TraceEvent.Type.BEGIN, 1L, 1, 0L, 0L, "hello2", 20L, 0L, null);
+
+        List<String> messages = new ArrayList<>();
+        int drained = buffer.drain(event -> messages.add(event.getMessage()), 10);
+
+        assertThat(drained).isEqualTo(2);
+        assertThat(messages).containsExactly("hello1", "hello2");
+        assertThat(buffer.size()).isEqualTo(0);
+    }
+
+    @Test
+    void rejectsWhenFull() {
+        TraceEventRingBuffer buffer = new TraceEventRingBuffer(2);
+        assertThat(buffer.tryPublish(TraceEvent.Type.BEGIN, 1L, 0, 0L, 0L, "a", 0L, 0L, null)).isTrue();
+        assertThat(buffer.tryPublish(TraceEvent.Type.BEGIN, 1L, 1, 0L, 0L, "b", 0L, 0L, null)).isTrue();
+        assertThat(buffer.tryPublish(TraceEvent.Type.BEGIN, 1L, 2, 0L, 0L, "c", 0L, 0L, null)).isFalse();
+
+        buffer.drain(event -> { }, 1);
+        assertThat(buffer.tryPublish(TraceEvent.Type.BEGIN, 1L, 2, 0L, 0L, "c", 0L, 0L, null)).isTrue();
+    }
+
+    @Test
+    void multipleProducers() throws InterruptedException {
+        TraceEventRingBuffer buffer = new TraceEventRingBuffer(1 << 14);
+        Thread[] producers = new Thread[4];
+        for (int i = 0; i < producers.length; i++) {
+            producers[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    buffer.tryPublish(TraceEvent.Type.BEGIN, 1L, 0, 0L, 0L, "m", 0L, 0L, null);
+                }
+            });
+            producers[i].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertThat(buffer.drain(event -> { }, Integer.MAX_VALUE)).isEqualTo(4000);
+    }
+}
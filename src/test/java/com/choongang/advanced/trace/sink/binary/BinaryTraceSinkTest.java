@@ -0,0 +1,55 @@
+package com.choongang.advanced.trace.sink.binary;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.logtrace.ThreadLocalLogTrace;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BinaryTraceSinkTest {
+
+    @Test
+    void writeAndDecode() throws Exception {
+        Path directory = Files.createTempDirectory("trace-segments");
+        BinaryTraceSink sink = new BinaryTraceSink(directory, 4096, 0);
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(() -> 0xabcL, new SystemTraceClock(), sink, false);
+
+        TraceStatus status1 = trace.begin("hello1");
+        TraceStatus status2 = trace.begin("hello2");
+        trace.exception(status2, new IllegalStateException());
+        trace.end(status1);
+        sink.close();
+
+        List<String> lines = TraceLogDecoder.decode(directory);
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).isEqualTo("[0000000000000abc] hello1");
+        assertThat(lines.get(1)).isEqualTo("[0000000000000abc] |-->hello2");
+        assertThat(lines.get(2)).startsWith("[0000000000000abc] |<X-hello2 time=");
+        assertThat(lines.get(2)).endsWith("ex=java.lang.IllegalStateException");
+        assertThat(lines.get(3)).startsWith("[0000000000000abc] hello1 time=");
+    }
+
+    @Test
+    void rollAndKeepMaxSegments() throws Exception {
+        Path directory = Files.createTempDirectory("trace-segments");
+        BinaryTraceSink sink = new BinaryTraceSink(directory, 16 + 56 * 4, 2); // 세그먼트당 레코드 4개
+        ThreadLocalLogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), sink, false);
+
+        for (int i = 0; i < 10; i++) {
+            trace.end(trace.begin("hello" + i));
+        }
+        sink.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.filter(file -> file.toString().endsWith(".seg")).count()).isEqualTo(2L);
+        }
+        assertThat(TraceLogDecoder.decode(directory)).hasSize(2 * 6); // 마지막 두 세그먼트: 레코드 4개 + 2개
+    }
+}
@@ -0,0 +1,140 @@
+package com.choongang.advanced.trace.usage;
+
+import com.choongang.advanced.trace.RandomTraceIdGenerator;
+import com.choongang.advanced.trace.SpanUsage;
+import com.choongang.advanced.trace.SystemTraceClock;
+import com.choongang.advanced.trace.TraceStatus;
+import com.choongang.advanced.trace.logtrace.LogTrace;
+import com.choongang.advanced.trace.logtrace.ThreadLocalLogTrace;
+import com.choongang.advanced.trace.sink.TraceSink;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class UsageTraceSinkTest {
+
+    @Test
+    void selfExcludesChildrenOnSameThread() {
+        FakeMeter meter = new FakeMeter();
+        RecordingSink recording = new RecordingSink();
+        LogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), new UsageTraceSink(recording, meter), false);
+
+        TraceStatus controller = trace.begin("controller");
+        meter.spend(10, 100);
+        TraceStatus service = trace.begin("service");
+        meter.spend(20, 200);
+        TraceStatus repository = trace.begin("repository");
+        meter.spend(30, 300);
+        trace.end(repository);
+        trace.end(service);
+        TraceStatus second = trace.begin("second");
+        meter.spend(5, 50);
+        trace.end(second);
+        trace.end(controller);
+
+        assertUsage(recording.usages.get("repository"), 30, 30, 300, 300);
+        assertUsage(recording.usages.get("service"), 50, 20, 500, 200);
+        assertUsage(recording.usages.get("second"), 5, 5, 50, 50);
+        assertUsage(recording.usages.get("controller"), 65, 10, 650, 100);
+    }
+
+    @Test
+    void reuseContext_exception() {
+        FakeMeter meter = new FakeMeter();
+        RecordingSink recording = new RecordingSink();
+        LogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), new UsageTraceSink(recording, meter), true);
+
+        TraceStatus root = trace.begin("root");
+        TraceStatus child = trace.begin("child");
+        meter.spend(7, 70);
+        trace.exception(child, new IllegalStateException());
+        trace.end(root);
+
+        assertUsage(recording.usages.get("child"), 7, 7, 70, 70);
+        assertUsage(recording.usages.get("root"), 7, 0, 70, 0);
+    }
+
+    @Test
+    void detachedSpanClosedOnOtherThread_notMeasured() throws InterruptedException {
+        RecordingSink recording = new RecordingSink();
+        LogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), new UsageTraceSink(recording, new FakeMeter()), false);
+
+        TraceStatus root = trace.begin("root");
+        TraceStatus detached = trace.detach(trace.begin("async"));
+        Thread other = new Thread(() -> trace.endDetached(detached, null));
+        other.start();
+        other.join();
+        trace.end(root);
+
+        assertThat(recording.usages).containsKey("async");
+        assertThat(recording.usages.get("async")).isNull();
+        assertThat(recording.usages.get("root")).isNotNull();
+    }
+
+    @Test
+    void realMeter_allocation() {
+        ThreadUsageMeter meter = new ThreadUsageMeter();
+        RecordingSink recording = new RecordingSink();
+        LogTrace trace = new ThreadLocalLogTrace(new RandomTraceIdGenerator(), new SystemTraceClock(), new UsageTraceSink(recording, meter), false);
+
+        TraceStatus root = trace.begin("root");
+        TraceStatus child = trace.begin("child");
+        byte[] allocated = new byte[1 << 20];
+        trace.end(child);
+        trace.end(root);
+
+        SpanUsage childUsage = recording.usages.get("child");
+        SpanUsage rootUsage = recording.usages.get("root");
+        assertThat(allocated.length).isEqualTo(1 << 20);
+        assertThat(rootUsage.getCpuTimeNanos()).isGreaterThanOrEqualTo(childUsage.getCpuTimeNanos());
+        if (meter.isAllocationSupported()) {
+            assertThat(childUsage.getAllocatedBytes()).isGreaterThanOrEqualTo(1 << 20);
+            assertThat(rootUsage.getSelfAllocatedBytes()).isLessThan(1 << 20);
+        }
+    }
+
+    private static void assertUsage(SpanUsage usage, long cpu, long selfCpu, long allocated, long selfAllocated) {
+        assertThat(usage.getCpuTimeNanos()).isEqualTo(cpu);
+        assertThat(usage.getSelfCpuTimeNanos()).isEqualTo(selfCpu);
+        assertThat(usage.getAllocatedBytes()).isEqualTo(allocated);
+        assertThat(usage.getSelfAllocatedBytes()).isEqualTo(selfAllocated);
+    }
+
+    static class FakeMeter extends ThreadUsageMeter {
+
+        long cpu;
+        long allocated;
+
+        void spend(long cpuNanos, long bytes) {
+            cpu += cpuNanos;
+            allocated += bytes;
+        }
+
+        @Override
+        public long cpuTimeNanos() {
+            return cpu;
+        }
+
+        @Override
+        public long allocatedBytes() {
+            return allocated;
+        }
+    }
+
+    static class RecordingSink implements TraceSink {
+
+        final Map<String, SpanUsage> usages = new LinkedHashMap<>();
+
+        @Override
+        public void begin(TraceStatus status) {
+        }
+
+        @Override
+        public void complete(TraceStatus status, long stopTimeNanos, Exception e) {
+            usages.put(status.getMessage(), status.getUsage());
+        }
+    }
+}